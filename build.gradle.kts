@@ -1,3 +1,10 @@
+import org.objectweb.asm.AnnotationVisitor
+import org.objectweb.asm.ClassReader
+import org.objectweb.asm.ClassVisitor
+import org.objectweb.asm.MethodVisitor
+import org.objectweb.asm.Opcodes
+import org.objectweb.asm.Type
+
 plugins {
     id("fabric-loom") version "1.10-SNAPSHOT"
     id("maven-publish")
@@ -116,7 +123,64 @@ afterEvaluate {
 }
 
 tasks {
+    // Lists @PreInit and @PostInit methods so ReflectInit doesn't have to scan the classpath for them at startup
+    val generateInitIndex by registering {
+        val classes = compileJava.flatMap { it.destinationDirectory }
+        val output = layout.buildDirectory.dir("generated/initIndex")
+        val initPackage = "meteordevelopment.meteorclient"
+
+        inputs.dir(classes)
+        outputs.dir(output)
+
+        doLast {
+            val annotations = mapOf(
+                "Lmeteordevelopment/meteorclient/utils/PreInit;" to "PreInit",
+                "Lmeteordevelopment/meteorclient/utils/PostInit;" to "PostInit"
+            )
+            val entries = mutableListOf<String>()
+
+            classes.get().asFileTree.matching { include("**/*.class") }.forEach { file ->
+                ClassReader(file.readBytes()).accept(object : ClassVisitor(Opcodes.ASM9) {
+                    private var owner = ""
+
+                    override fun visit(version: Int, access: Int, name: String, signature: String?, superName: String?, interfaces: Array<out String>?) {
+                        owner = name.replace('/', '.')
+                    }
+
+                    override fun visitMethod(access: Int, name: String, descriptor: String, signature: String?, exceptions: Array<out String>?): MethodVisitor {
+                        return object : MethodVisitor(Opcodes.ASM9) {
+                            override fun visitAnnotation(annotationDescriptor: String, visible: Boolean): AnnotationVisitor? {
+                                val annotation = annotations[annotationDescriptor] ?: return null
+                                val dependencies = mutableListOf<String>()
+
+                                return object : AnnotationVisitor(Opcodes.ASM9) {
+                                    override fun visitArray(arrayName: String): AnnotationVisitor {
+                                        return object : AnnotationVisitor(Opcodes.ASM9) {
+                                            override fun visit(valueName: String?, value: Any) {
+                                                if (value is Type) dependencies.add(value.className)
+                                            }
+                                        }
+                                    }
+
+                                    override fun visitEnd() {
+                                        entries.add("$annotation $owner $name ${dependencies.joinToString(",")}".trim())
+                                    }
+                                }
+                            }
+                        }
+                    }
+                }, ClassReader.SKIP_CODE or ClassReader.SKIP_DEBUG or ClassReader.SKIP_FRAMES)
+            }
+
+            val index = output.get().file("META-INF/meteor-client/init-index/$initPackage.txt").asFile
+            index.parentFile.mkdirs()
+            index.writeText(entries.sorted().joinToString("\n"))
+        }
+    }
+
     processResources {
+        from(generateInitIndex)
+
         val buildNumber = project.findProperty("build_number")?.toString() ?: ""
         val commit = project.findProperty("commit")?.toString() ?: ""
 
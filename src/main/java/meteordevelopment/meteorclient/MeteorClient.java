@@ -94,6 +94,7 @@ public class MeteorClient implements ClientModInitializer {
         }
 
         LOG.info("Initializing {}", NAME);
+        long start = System.nanoTime();
 
         // Pre-load
         if (!FOLDER.exists()) {
@@ -141,6 +142,8 @@ public class MeteorClient implements ClientModInitializer {
         // Post init
         ReflectInit.init(PostInit.class);
 
+        LOG.info("Initialized {} in {} ms.", NAME, (System.nanoTime() - start) / 1_000_000);
+
         // Save on shutdown
         Runtime.getRuntime().addShutdownHook(new Thread(() -> {
             OnlinePlayers.leave();
@@ -7,14 +7,12 @@ package meteordevelopment.meteorclient.commands.commands;
 
 import baritone.api.BaritoneAPI;
 import com.mojang.brigadier.builder.LiteralArgumentBuilder;
-import meteordevelopment.meteorclient.MeteorClient;
 import meteordevelopment.meteorclient.commands.Command;
-import meteordevelopment.meteorclient.events.packets.PacketEvent;
 import meteordevelopment.meteorclient.pathing.BaritoneUtils;
 import meteordevelopment.meteorclient.pathing.PathManagers;
+import meteordevelopment.meteorclient.utils.network.PacketListeners;
 import meteordevelopment.meteorclient.utils.player.ChatUtils;
 import meteordevelopment.meteorclient.utils.player.InvUtils;
-import meteordevelopment.orbit.EventHandler;
 import net.minecraft.block.Block;
 import net.minecraft.block.Blocks;
 import net.minecraft.command.CommandSource;
@@ -71,6 +69,14 @@ public class LocateCommand extends Command {
 
     public LocateCommand() {
         super("locate", "Locates structures", "loc");
+
+        PacketListeners.onReceive(this, EntitySpawnS2CPacket.class, (event, packet) -> {
+            if (packet.getEntityType() == EntityType.EYE_OF_ENDER) firstPosition(packet.getX(), packet.getY(), packet.getZ());
+        });
+
+        PacketListeners.onReceive(this, PlaySoundS2CPacket.class, (event, packet) -> {
+            if (packet.getSound().value() == SoundEvents.ENTITY_ENDER_EYE_DEATH) lastPosition(packet.getX(), packet.getY(), packet.getZ());
+        });
     }
 
     @Override
@@ -191,7 +197,7 @@ public class LocateCommand extends Command {
                 firstEnd = null;
                 secondStart = null;
                 secondEnd = null;
-                MeteorClient.EVENT_BUS.subscribe(this);
+                PacketListeners.subscribe(this);
                 info("Please throw the first Eye of Ender");
             } else if (BaritoneUtils.IS_AVAILABLE) {
                 Vec3d coords = findByBlockList(strongholdBlocks);
@@ -300,7 +306,7 @@ public class LocateCommand extends Command {
 
     private void cancel() {
         warning("Locate canceled");
-        MeteorClient.EVENT_BUS.unsubscribe(this);
+        PacketListeners.unsubscribe(this);
     }
 
     private @Nullable Vec3d findByBlockList(List<Block> blockList) {
@@ -314,17 +320,6 @@ public class LocateCommand extends Command {
         return new Vec3d(posList.getFirst().getX(), posList.getFirst().getY(), posList.getFirst().getZ());
     }
 
-    @EventHandler
-    private void onReadPacket(PacketEvent.Receive event) {
-        if (event.packet instanceof EntitySpawnS2CPacket packet && packet.getEntityType() == EntityType.EYE_OF_ENDER) {
-            firstPosition(packet.getX(), packet.getY(), packet.getZ());
-        }
-
-        if (event.packet instanceof PlaySoundS2CPacket packet && packet.getSound().value() == SoundEvents.ENTITY_ENDER_EYE_DEATH) {
-            lastPosition(packet.getX(), packet.getY(), packet.getZ());
-        }
-    }
-
     private void firstPosition(double x, double y, double z) {
         Vec3d pos = new Vec3d(x, y, z);
         if (this.firstStart == null) {
@@ -364,7 +359,7 @@ public class LocateCommand extends Command {
             return;
         }
 
-        MeteorClient.EVENT_BUS.unsubscribe(this);
+        PacketListeners.unsubscribe(this);
         Vec3d coords = new Vec3d(intersection[0], 0, intersection[1]);
         MutableText text = Text.literal("Stronghold roughly located at ");
         text.append(ChatUtils.formatCoords(coords));
@@ -65,7 +65,7 @@ public class OnlineAltsCommand extends Command {
                 if (group != null) {
                     // This player is a tracked account. Check if they are the alt (i.e., their
                     // name is in the altAccounts set, not the mainAccount field).
-                    if (group.altAccounts.contains(playerName)) {
+                    if (group.hasAlt(playerName)) {
                         onlineAltCount++;
                         uniqueMainAccountsWithOnlineAlt.add(group.mainAccount);
                     }
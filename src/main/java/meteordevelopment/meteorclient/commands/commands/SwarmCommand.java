@@ -115,7 +115,7 @@ public class SwarmCommand extends Command {
 
                         for (int i = 0; i < swarm.host.getConnections().length; i++) {
                             SwarmConnection connection = swarm.host.getConnections()[i];
-                            if (connection != null) ChatUtils.info("(highlight)Worker %s(default): %s.", i, connection.getConnection());
+                            if (connection != null) ChatUtils.info("(highlight)Worker %s(default): %s, %s.", i, connection.getConnection(), getStats(connection));
                         }
                     }
                     else {
@@ -123,7 +123,7 @@ public class SwarmCommand extends Command {
                     }
                 }
                 else if (swarm.isWorker()) {
-                    info("Connected to (highlight)%s", swarm.worker.getConnection());
+                    info("Connected to (highlight)%s(default), %s.", swarm.worker.getConnection(), getStats(swarm.worker.getHost()));
                 }
             }
             else {
@@ -404,4 +404,9 @@ public class SwarmCommand extends Command {
         PathManagers.get().stop();
         PathManagers.get().moveTo(new BlockPos((int) x, 0, (int) z), true);
     }
+
+    private String getStats(SwarmConnection connection) {
+        String latency = connection.getLatency() < 0 ? "?" : String.format("%.1f", connection.getLatency());
+        return String.format("%s ms, %s/%s messages sent/received, %.1f KB/s", latency, connection.getMessagesSent(), connection.getMessagesReceived(), connection.getThroughput() / 1024);
+    }
 }
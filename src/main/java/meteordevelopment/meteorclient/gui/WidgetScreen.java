@@ -95,6 +95,9 @@ public abstract class WidgetScreen extends Screen {
 
         closed = false;
 
+        // Settings may have been changed in another screen
+        GuiRenderer.invalidateRetained();
+
         if (firstInit) {
             firstInit = false;
             initWidgets();
@@ -259,6 +262,7 @@ public abstract class WidgetScreen extends Screen {
         RENDERER.theme = theme;
         theme.beforeRender();
 
+        RENDERER.resetStats();
         RENDERER.begin(context);
         RENDERER.setAlpha(animProgress);
         root.render(RENDERER, mouseX, mouseY, delta / 20);
@@ -270,6 +274,7 @@ public abstract class WidgetScreen extends Screen {
         if (debug) {
             DEBUG_RENDERER.render(root);
             if (tooltip) DEBUG_RENDERER.render(RENDERER.tooltipWidget);
+            DEBUG_RENDERER.renderStats(RENDERER);
         }
 
         Utils.scaledProjection();
@@ -11,12 +11,14 @@ import meteordevelopment.meteorclient.gui.widgets.containers.WContainer;
 import meteordevelopment.meteorclient.renderer.MeshBuilder;
 import meteordevelopment.meteorclient.renderer.MeshRenderer;
 import meteordevelopment.meteorclient.renderer.MeteorRenderPipelines;
+import meteordevelopment.meteorclient.renderer.text.TextRenderer;
 import meteordevelopment.meteorclient.utils.render.color.Color;
 import net.minecraft.client.MinecraftClient;
 
 public class GuiDebugRenderer {
     private static final Color CELL_COLOR = new Color(25, 225, 25);
     private static final Color WIDGET_COLOR = new Color(25, 25, 225);
+    private static final Color TEXT_COLOR = new Color(255, 255, 255);
 
     private final MeshBuilder mesh = new MeshBuilder(MeteorRenderPipelines.WORLD_COLORED_LINES);
 
@@ -34,6 +36,18 @@ public class GuiDebugRenderer {
             .end();
     }
 
+    /** Draws the batch and primitive counts of the last frame rendered by the renderer. */
+    public void renderStats(GuiRenderer renderer) {
+        TextRenderer text = TextRenderer.get();
+        text.begin();
+        double height = text.getHeight(true);
+
+        text.render("Batches: %d".formatted(renderer.batches), 4, 4, TEXT_COLOR, true);
+        text.render("Quads: %d, Triangles: %d, Text: %d".formatted(renderer.quads, renderer.triangles, renderer.strings), 4, 4 + height, TEXT_COLOR, true);
+        text.render("Retained windows: %d, Rendered: %d".formatted(renderer.retainedWidgets, renderer.renderedWidgets), 4, 4 + height * 2, TEXT_COLOR, true);
+        text.end();
+    }
+
     private void renderWidget(WWidget widget) {
         lineBox(widget.x, widget.y, widget.width, widget.height, WIDGET_COLOR);
 
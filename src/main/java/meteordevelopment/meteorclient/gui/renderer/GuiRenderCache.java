@@ -0,0 +1,130 @@
+/*
+ * This file is part of the Meteor Client distribution (https://github.com/MeteorDevelopment/meteor-client).
+ * Copyright (c) Meteor Development.
+ */
+
+package meteordevelopment.meteorclient.gui.renderer;
+
+import meteordevelopment.meteorclient.gui.renderer.packer.TextureRegion;
+import meteordevelopment.meteorclient.utils.render.color.Color;
+import net.minecraft.item.ItemStack;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Geometry and text emitted by a widget subtree, recorded by {@link GuiRenderer} while it is rendered so it can be
+ * submitted again without walking the subtree. Colors are copied when recorded since widgets reuse their instances.
+ */
+public class GuiRenderCache {
+    private final List<Command> commands = new ArrayList<>();
+
+    private boolean valid;
+    private boolean cacheable;
+    private int generation;
+
+    // The last recording turned out uncacheable, recording again would fail the same way until something changes
+    private boolean failed;
+
+    void begin(int generation) {
+        commands.clear();
+
+        this.valid = false;
+        this.cacheable = true;
+        this.failed = false;
+        this.generation = generation;
+    }
+
+    void end() {
+        valid = cacheable;
+        failed = !cacheable;
+        if (!valid) commands.clear();
+    }
+
+    /** Called for operations that read widget state when they run, the subtree then has to be rendered again. */
+    void uncacheable() {
+        cacheable = false;
+    }
+
+    void add(Command command) {
+        commands.add(command);
+    }
+
+    public boolean isValid(int generation) {
+        return valid && this.generation == generation;
+    }
+
+    /** Whether the last recording of this generation was uncacheable, cleared by {@link #invalidate()}. */
+    public boolean isUncacheable(int generation) {
+        return failed && this.generation == generation;
+    }
+
+    public void invalidate() {
+        valid = false;
+        failed = false;
+        commands.clear();
+    }
+
+    void replay(GuiRenderer renderer) {
+        for (Command command : commands) command.run(renderer);
+    }
+
+    public int size() {
+        return commands.size();
+    }
+
+    // Commands
+
+    interface Command {
+        void run(GuiRenderer renderer);
+    }
+
+    record Quad(double x, double y, double width, double height, Color cTopLeft, Color cTopRight, Color cBottomRight, Color cBottomLeft) implements Command {
+        @Override
+        public void run(GuiRenderer renderer) {
+            renderer.quad(x, y, width, height, cTopLeft, cTopRight, cBottomRight, cBottomLeft);
+        }
+    }
+
+    record TexQuad(double x, double y, double width, double height, double rotation, TextureRegion region, Color color) implements Command {
+        @Override
+        public void run(GuiRenderer renderer) {
+            renderer.texQuad(x, y, width, height, rotation, region, color);
+        }
+    }
+
+    record Triangle(double x1, double y1, double x2, double y2, double x3, double y3, Color color) implements Command {
+        @Override
+        public void run(GuiRenderer renderer) {
+            renderer.triangle(x1, y1, x2, y2, x3, y3, color);
+        }
+    }
+
+    record Text(String text, double x, double y, Color color, boolean title) implements Command {
+        @Override
+        public void run(GuiRenderer renderer) {
+            renderer.text(text, x, y, color, title);
+        }
+    }
+
+    record Item(ItemStack itemStack, int x, int y, float scale, boolean overlay) implements Command {
+        @Override
+        public void run(GuiRenderer renderer) {
+            renderer.item(itemStack, x, y, scale, overlay);
+        }
+    }
+
+    record ScissorStart(double x, double y, double width, double height) implements Command {
+        @Override
+        public void run(GuiRenderer renderer) {
+            renderer.scissorStart(x, y, width, height);
+        }
+    }
+
+    record ScissorEnd() implements Command {
+        @Override
+        public void run(GuiRenderer renderer) {
+            renderer.scissorEnd();
+        }
+    }
+}
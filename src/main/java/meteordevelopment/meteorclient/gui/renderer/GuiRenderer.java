@@ -6,10 +6,12 @@
 package meteordevelopment.meteorclient.gui.renderer;
 
 import meteordevelopment.meteorclient.MeteorClient;
+import meteordevelopment.meteorclient.events.meteor.ActiveModulesChangedEvent;
 import meteordevelopment.meteorclient.gui.GuiTheme;
 import meteordevelopment.meteorclient.gui.renderer.operations.TextOperation;
 import meteordevelopment.meteorclient.gui.renderer.packer.GuiTexture;
 import meteordevelopment.meteorclient.gui.renderer.packer.TexturePacker;
+import meteordevelopment.meteorclient.gui.renderer.packer.TextureRegion;
 import meteordevelopment.meteorclient.gui.widgets.WWidget;
 import meteordevelopment.meteorclient.renderer.Renderer2D;
 import meteordevelopment.meteorclient.renderer.Texture;
@@ -17,6 +19,7 @@ import meteordevelopment.meteorclient.utils.PostInit;
 import meteordevelopment.meteorclient.utils.misc.Pool;
 import meteordevelopment.meteorclient.utils.render.RenderUtils;
 import meteordevelopment.meteorclient.utils.render.color.Color;
+import meteordevelopment.orbit.EventHandler;
 import net.minecraft.client.gui.DrawContext;
 import net.minecraft.item.ItemStack;
 import net.minecraft.util.Identifier;
@@ -62,6 +65,16 @@ public class GuiRenderer {
 
     private DrawContext drawContext;
 
+    // Retained rendering
+    private static int generation;
+    private GuiRenderCache recording;
+    private double alpha = 1;
+
+    // Statistics of the current frame, shown by the debug renderer
+    public int batches, quads, triangles, strings;
+    public int retainedWidgets, renderedWidgets;
+    private int pendingPrimitives;
+
     public static GuiTexture addTexture(Identifier id) {
         return TEXTURE_PACKER.add(id);
     }
@@ -79,6 +92,22 @@ public class GuiRenderer {
         PASTE = addTexture(MeteorClient.identifier("textures/icons/gui/paste.png"));
 
         TEXTURE = TEXTURE_PACKER.pack();
+
+        MeteorClient.EVENT_BUS.subscribe(GuiRenderer.class);
+    }
+
+    @EventHandler
+    private static void onActiveModulesChanged(ActiveModulesChangedEvent event) {
+        invalidateRetained();
+    }
+
+    /** Invalidates the geometry of all retained widgets, for changes widgets can't notice themselves. */
+    public static void invalidateRetained() {
+        generation++;
+    }
+
+    public static int getGeneration() {
+        return generation;
     }
 
     public void begin(DrawContext drawContext) {
@@ -112,6 +141,9 @@ public class GuiRenderer {
     }
 
     public void endRender(Scissor scissor) {
+        if (pendingPrimitives > 0 || !texts.isEmpty()) batches++;
+        pendingPrimitives = 0;
+
         if (scissor != null) scissor.push();
 
         r.end();
@@ -140,6 +172,8 @@ public class GuiRenderer {
     }
 
     public void scissorStart(double x, double y, double width, double height) {
+        if (recording != null) recording.add(new GuiRenderCache.ScissorStart(x, y, width, height));
+
         if (!scissorStack.isEmpty()) {
             Scissor parent = scissorStack.peek();
 
@@ -159,6 +193,8 @@ public class GuiRenderer {
     }
 
     public void scissorEnd() {
+        if (recording != null) recording.add(new GuiRenderCache.ScissorEnd());
+
         Scissor scissor = scissorStack.pop();
 
         endRender(scissor);
@@ -204,6 +240,8 @@ public class GuiRenderer {
     }
 
     public void setAlpha(double a) {
+        alpha = a;
+
         r.setAlpha(a);
         rTex.setAlpha(a);
 
@@ -211,11 +249,47 @@ public class GuiRenderer {
     }
 
     public void tooltip(String text) {
+        if (recording != null) recording.uncacheable();
         tooltip = text;
     }
 
+    // Retained rendering
+
+    /** Whether a widget can currently replay or record its geometry. */
+    public boolean canRetain() {
+        return recording == null && alpha == 1;
+    }
+
+    /** Records everything rendered until {@link #endRecording()} into the cache. */
+    public void beginRecording(GuiRenderCache cache) {
+        cache.begin(generation);
+        recording = cache;
+        renderedWidgets++;
+    }
+
+    public void endRecording() {
+        recording.end();
+        recording = null;
+    }
+
+    public void replay(GuiRenderCache cache) {
+        cache.replay(this);
+        retainedWidgets++;
+    }
+
+    public void resetStats() {
+        batches = quads = triangles = strings = 0;
+        retainedWidgets = renderedWidgets = 0;
+    }
+
+    // Primitives
+
     public void quad(double x, double y, double width, double height, Color cTopLeft, Color cTopRight, Color cBottomRight, Color cBottomLeft) {
+        if (recording != null) recording.add(new GuiRenderCache.Quad(x, y, width, height, cTopLeft.copy(), cTopRight.copy(), cBottomRight.copy(), cBottomLeft.copy()));
+
         r.quad(x, y, width, height, cTopLeft, cTopRight, cBottomRight, cBottomLeft);
+        pendingPrimitives++;
+        quads++;
     }
     public void quad(double x, double y, double width, double height, Color colorLeft, Color colorRight) {
         quad(x, y, width, height, colorLeft, colorRight, colorRight, colorLeft);
@@ -227,22 +301,41 @@ public class GuiRenderer {
         quad(widget.x, widget.y, widget.width, widget.height, color);
     }
     public void quad(double x, double y, double width, double height, GuiTexture texture, Color color) {
-        rTex.texQuad(x, y, width, height, texture.get(width, height), color);
+        texQuad(x, y, width, height, 0, texture.get(width, height), color);
     }
 
     public void rotatedQuad(double x, double y, double width, double height, double rotation, GuiTexture texture, Color color) {
-        rTex.texQuad(x, y, width, height, rotation, texture.get(width, height), color);
+        texQuad(x, y, width, height, rotation, texture.get(width, height), color);
+    }
+
+    void texQuad(double x, double y, double width, double height, double rotation, TextureRegion region, Color color) {
+        if (recording != null) recording.add(new GuiRenderCache.TexQuad(x, y, width, height, rotation, region, color.copy()));
+
+        if (rotation == 0) rTex.texQuad(x, y, width, height, region, color);
+        else rTex.texQuad(x, y, width, height, rotation, region, color);
+
+        pendingPrimitives++;
+        quads++;
     }
 
     public void triangle(double x1, double y1, double x2, double y2, double x3, double y3, Color color) {
+        if (recording != null) recording.add(new GuiRenderCache.Triangle(x1, y1, x2, y2, x3, y3, color.copy()));
+
         r.triangle(x1, y1, x2, y2, x3, y3 ,color);
+        pendingPrimitives++;
+        triangles++;
     }
 
     public void text(String text, double x, double y, Color color, boolean title) {
+        if (recording != null) recording.add(new GuiRenderCache.Text(text, x, y, color.copy(), title));
+
         texts.add(getOp(textPool, x, y, color).set(text, theme.textRenderer(), title));
+        strings++;
     }
 
     public void texture(double x, double y, double width, double height, double rotation, Texture texture) {
+        if (recording != null) recording.uncacheable();
+
         post(() -> {
             rTex.begin();
             rTex.texQuad(x, y, width, height, rotation, 0, 0, 1, 1, WHITE);
@@ -253,14 +346,18 @@ public class GuiRenderer {
     }
 
     public void post(Runnable task) {
+        if (recording != null) recording.uncacheable();
         scissorStack.peek().postTasks.add(task);
     }
 
     public void item(ItemStack itemStack, int x, int y, float scale, boolean overlay) {
+        if (recording != null) recording.add(new GuiRenderCache.Item(itemStack, x, y, scale, overlay));
+
         RenderUtils.drawItem(drawContext, itemStack, x, y, scale, overlay, null, false);
     }
 
     public void absolutePost(Runnable task) {
+        if (recording != null) recording.uncacheable();
         postTasks.add(task);
     }
 
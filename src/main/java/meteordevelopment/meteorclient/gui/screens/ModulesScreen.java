@@ -58,6 +58,7 @@ public class ModulesScreen extends TabScreen {
         w.id = category.name;
         w.padding = 0;
         w.spacing = 0;
+        w.retained = true;
 
         if (theme.categoryIcons()) {
             w.beforeHeaderInit = wContainer -> wContainer.add(theme.item(category.icon)).pad(2);
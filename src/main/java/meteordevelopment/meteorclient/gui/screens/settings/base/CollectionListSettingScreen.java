@@ -5,6 +5,7 @@
 
 package meteordevelopment.meteorclient.gui.screens.settings.base;
 
+import it.unimi.dsi.fastutil.objects.ObjectOpenHashSet;
 import meteordevelopment.meteorclient.gui.GuiTheme;
 import meteordevelopment.meteorclient.gui.WindowScreen;
 import meteordevelopment.meteorclient.gui.utils.Cell;
@@ -13,10 +14,12 @@ import meteordevelopment.meteorclient.gui.widgets.containers.WTable;
 import meteordevelopment.meteorclient.gui.widgets.input.WTextBox;
 import meteordevelopment.meteorclient.gui.widgets.pressable.WPressable;
 import meteordevelopment.meteorclient.settings.Setting;
+import meteordevelopment.meteorclient.utils.network.MeteorExecutor;
 
-import java.util.Collection;
+import java.util.*;
 import java.util.function.Consumer;
-import java.util.function.Predicate;
+
+import static meteordevelopment.meteorclient.MeteorClient.mc;
 
 public abstract class CollectionListSettingScreen<T> extends WindowScreen {
     protected final Setting<?> setting;
@@ -25,6 +28,13 @@ public abstract class CollectionListSettingScreen<T> extends WindowScreen {
 
     private WTable table;
     private String filterText = "";
+    private int filterVersion;
+
+    // Collected on the client thread when the screen opens or the selection changes, the name caches behind the names are
+    // not thread safe. Typing in the filter only ranks these again.
+    private final Map<T, String[]> valueNames = new HashMap<>();
+    private List<Candidate<T>> leftCandidates = List.of();
+    private List<Candidate<T>> rightCandidates = List.of();
 
     public CollectionListSettingScreen(GuiTheme theme, String title, Setting<?> setting, Collection<T> collection, Iterable<T> registry) {
         super(theme, title);
@@ -41,19 +51,68 @@ public abstract class CollectionListSettingScreen<T> extends WindowScreen {
         filter.setFocused(true);
         filter.action = () -> {
             filterText = filter.get().trim();
-
-            table.clear();
-            initTable();
+            filterTable();
         };
 
         table = add(theme.table()).expandX().widget();
 
-        initTable();
+        invalidateTable();
+    }
+
+    /** Collects the values of both columns and their names again, then filters them. */
+    protected void invalidateTable() {
+        List<T> selected = new ArrayList<>(collection);
+        Set<T> selectedSet = new ObjectOpenHashSet<>(selected);
+
+        List<Candidate<T>> leftCandidates = new ArrayList<>();
+        for (T value : registry) {
+            if (includeValue(value) && !selectedSet.contains(value)) leftCandidates.add(candidate(value));
+        }
+
+        List<Candidate<T>> rightCandidates = new ArrayList<>();
+        for (T value : selected) {
+            if (includeValue(value)) rightCandidates.add(candidate(value));
+        }
+
+        this.leftCandidates = leftCandidates;
+        this.rightCandidates = rightCandidates;
+
+        filterTable();
     }
 
-    private void initTable() {
+    /** Ranks the collected values against the filter on a worker thread, the table is rebuilt with the latest result. */
+    private void filterTable() {
+        int version = ++filterVersion;
+        String filterText = this.filterText;
+        List<Candidate<T>> leftCandidates = this.leftCandidates;
+        List<Candidate<T>> rightCandidates = this.rightCandidates;
+
+        MeteorExecutor.execute(() -> {
+            List<T> left = sort(leftCandidates, filterText);
+            List<T> right = sort(rightCandidates, filterText);
+
+            mc.execute(() -> {
+                if (version == filterVersion) initTable(left, right);
+            });
+        });
+    }
+
+    private Candidate<T> candidate(T value) {
+        return new Candidate<>(value, valueNames.computeIfAbsent(value, this::getValueNames));
+    }
+
+    private static <T> List<T> sort(List<Candidate<T>> candidates, String filterText) {
+        List<T> list = new ArrayList<>();
+        SortingHelper.sort(candidates, candidate -> true, Candidate::names, filterText).forEach(candidate -> list.add(candidate.value()));
+
+        return list;
+    }
+
+    private void initTable(List<T> leftValues, List<T> rightValues) {
+        table.clear();
+
         // Left (all)
-        WTable left = abc(registry, true, t -> {
+        WTable left = abc(leftValues, true, t -> {
             addValue(t);
 
             T v = getAdditionalValue(t);
@@ -63,7 +122,7 @@ public abstract class CollectionListSettingScreen<T> extends WindowScreen {
         if (!left.cells.isEmpty()) table.add(theme.verticalSeparator()).expandWidgetY();
 
         // Right (selected)
-        WTable right = abc(collection, false, t -> {
+        WTable right = abc(rightValues, false, t -> {
             removeValue(t);
 
             T v = getAdditionalValue(t);
@@ -73,37 +132,30 @@ public abstract class CollectionListSettingScreen<T> extends WindowScreen {
         postWidgets(left, right);
     }
 
-    private WTable abc(Iterable<T> iterable, boolean isLeft, Consumer<T> buttonAction) {
+    private WTable abc(List<T> values, boolean isLeft, Consumer<T> buttonAction) {
         // Create
         Cell<WTable> cell = this.table.add(theme.table()).top();
         WTable table = cell.widget();
 
-        // Sort
-        Predicate<T> predicate = isLeft
-            ? value -> this.includeValue(value) && !collection.contains(value)
-            : this::includeValue;
+        if (values.isEmpty()) return table;
 
-        Iterable<T> sorted = SortingHelper.sort(iterable, predicate, this::getValueNames, filterText);
+        // Only the rows scrolled into view get widgets
+        table.add(theme.virtualList((T t) -> {
+            WTable row = theme.table();
+            row.add(getValueWidget(t));
 
-        sorted.forEach(t -> {
-            table.add(getValueWidget(t));
-
-            WPressable button = table.add(isLeft ? theme.plus() : theme.minus()).expandCellX().right().widget();
+            WPressable button = row.add(isLeft ? theme.plus() : theme.minus()).expandCellX().right().widget();
             button.action = () -> buttonAction.accept(t);
 
-            table.row();
-        });
+            return row;
+        })).expandX().widget().set(values);
+        table.row();
 
-        if (!table.cells.isEmpty()) cell.expandX();
+        cell.expandX();
 
         return table;
     }
 
-    protected void invalidateTable() {
-        table.clear();
-        initTable();
-    }
-
     protected void addValue(T value) {
         if (!collection.contains(value)) {
             collection.add(value);
@@ -132,4 +184,6 @@ public abstract class CollectionListSettingScreen<T> extends WindowScreen {
     protected T getAdditionalValue(T value) {
         return null;
     }
+
+    private record Candidate<T>(T value, String[] names) {}
 }
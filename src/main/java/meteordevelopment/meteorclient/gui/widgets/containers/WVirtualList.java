@@ -0,0 +1,151 @@
+/*
+ * This file is part of the Meteor Client distribution (https://github.com/MeteorDevelopment/meteor-client).
+ * Copyright (c) Meteor Development.
+ */
+
+package meteordevelopment.meteorclient.gui.widgets.containers;
+
+import it.unimi.dsi.fastutil.objects.Reference2ObjectMap;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import meteordevelopment.meteorclient.gui.renderer.GuiRenderer;
+import meteordevelopment.meteorclient.gui.utils.Cell;
+import meteordevelopment.meteorclient.gui.widgets.WWidget;
+
+import java.util.List;
+import java.util.function.Function;
+
+import static meteordevelopment.meteorclient.utils.Utils.getWindowHeight;
+
+/**
+ * Vertical list of rows that all have the height of the first one. Only the rows intersecting the enclosing
+ * {@link WView}, or the window if there is none, are created and laid out. Rows scrolled out of view are kept for when
+ * they come back until too many pile up. The width grows to fit the widest row created so far.
+ */
+public class WVirtualList<T> extends WContainer {
+    private static final int MAX_CACHED_ROWS = 256;
+
+    private final Function<T, WWidget> factory;
+    private final Reference2ObjectMap<T, Cell<WWidget>> rows = new Reference2ObjectOpenHashMap<>();
+
+    private List<T> values = List.of();
+    private double rowHeight = -1;
+    private double rowWidth;
+
+    // Range of values that currently have a cell, last is exclusive
+    private int first, last;
+
+    public WVirtualList(Function<T, WWidget> factory) {
+        this.factory = factory;
+    }
+
+    public void set(List<T> values) {
+        this.values = values;
+
+        rows.clear();
+        cells.clear();
+        first = last = 0;
+        rowHeight = -1;
+        rowWidth = 0;
+
+        invalidate();
+    }
+
+    public int size() {
+        return values.size();
+    }
+
+    // Layout
+
+    @Override
+    protected void onCalculateSize() {
+        if (rowHeight == -1 && !values.isEmpty()) {
+            Cell<WWidget> cell = getRow(values.getFirst());
+            rowHeight = cell.widget().height;
+        }
+
+        for (Cell<?> cell : cells) rowWidth = Math.max(rowWidth, cell.widget().width);
+
+        width = rowWidth;
+        height = values.isEmpty() ? 0 : values.size() * rowHeight;
+    }
+
+    @Override
+    protected void onCalculateWidgetPositions() {
+        for (int i = first; i < last; i++) {
+            position(rows.get(values.get(i)), i);
+        }
+    }
+
+    private void position(Cell<?> cell, int index) {
+        cell.x = x;
+        cell.y = y + index * rowHeight;
+        cell.width = width;
+        cell.height = rowHeight;
+
+        cell.alignWidget();
+        cell.widget().calculateWidgetPositions();
+    }
+
+    // Rendering
+
+    @Override
+    public boolean render(GuiRenderer renderer, double mouseX, double mouseY, double delta) {
+        if (visible && rowHeight > 0) updateVisibleRows();
+
+        return super.render(renderer, mouseX, mouseY, delta);
+    }
+
+    private void updateVisibleRows() {
+        double top = 0, bottom = getWindowHeight();
+
+        for (WWidget widget = parent; widget != null; widget = widget.parent) {
+            if (widget instanceof WView view) {
+                top = Math.max(top, view.y);
+                bottom = Math.min(bottom, view.y + view.height);
+                break;
+            }
+        }
+
+        int newFirst = Math.clamp((long) Math.floor((top - y) / rowHeight), 0, values.size());
+        int newLast = Math.clamp((long) Math.ceil((bottom - y) / rowHeight), newFirst, values.size());
+        if (newFirst == first && newLast == last) return;
+
+        first = newFirst;
+        last = newLast;
+
+        cells.clear();
+        boolean wider = false;
+
+        for (int i = first; i < last; i++) {
+            Cell<WWidget> cell = getRow(values.get(i));
+            cells.add(cell);
+
+            if (cell.widget().width > rowWidth) wider = true;
+            position(cell, i);
+        }
+
+        if (rows.size() > MAX_CACHED_ROWS) {
+            rows.values().removeIf(cell -> !cells.contains(cell));
+        }
+
+        // Rows are only measured once created, the list and everything around it has to make room for a wider one
+        if (wider) invalidate();
+    }
+
+    private Cell<WWidget> getRow(T value) {
+        Cell<WWidget> cell = rows.get(value);
+
+        if (cell == null) {
+            WWidget widget = factory.apply(value);
+            widget.parent = this;
+            widget.theme = theme;
+            widget.init();
+            widget.calculateSize();
+
+            cell = new Cell<>(widget).expandX();
+            rows.put(value, cell);
+        }
+
+        return cell;
+    }
+}
@@ -5,6 +5,7 @@
 
 package meteordevelopment.meteorclient.gui.widgets.containers;
 
+import meteordevelopment.meteorclient.gui.renderer.GuiRenderCache;
 import meteordevelopment.meteorclient.gui.renderer.GuiRenderer;
 import meteordevelopment.meteorclient.gui.utils.Cell;
 import meteordevelopment.meteorclient.gui.utils.WindowConfig;
@@ -19,6 +20,9 @@ import static meteordevelopment.meteorclient.utils.Utils.getWindowWidth;
 import static org.lwjgl.glfw.GLFW.GLFW_MOUSE_BUTTON_RIGHT;
 
 public abstract class WWindow extends WVerticalList {
+    /** How long a retained window keeps rendering normally after a change, so widget animations can finish. */
+    private static final double SETTLE_TIME = 1;
+
     public double padding = 8;
     public Consumer<WContainer> beforeHeaderInit;
     public String id;
@@ -40,6 +44,15 @@ public abstract class WWindow extends WVerticalList {
 
     private boolean propagateEventsExpanded;
 
+    /**
+     * Replays the geometry recorded on a previous frame while the window is settled and not under the mouse. Only for
+     * windows whose widgets change as a result of input events or an {@link GuiRenderer#invalidateRetained()} call.
+     */
+    public boolean retained;
+    private final GuiRenderCache renderCache = new GuiRenderCache();
+    private double settleTimer = SETTLE_TIME;
+    private int generation;
+
     public WWindow(WWidget icon, String title) {
         this.icon = icon;
         this.title = title;
@@ -103,6 +116,7 @@ public abstract class WWindow extends WVerticalList {
         }
 
         super.onCalculateWidgetPositions();
+        markDirty();
 
         if (moved) {
             move(movedX - x, movedY - y);
@@ -114,6 +128,29 @@ public abstract class WWindow extends WVerticalList {
         if (!visible) return true;
 
         boolean scissor = (animProgress != 0 && animProgress != 1) || (expanded && animProgress != 1);
+
+        if (retained) {
+            if (generation != GuiRenderer.getGeneration()) {
+                generation = GuiRenderer.getGeneration();
+                markDirty();
+            }
+
+            if (scissor || dragging || isOver(mouseX, mouseY) || !renderer.canRetain()) markDirty();
+            else if (settleTimer > 0) settleTimer -= delta;
+            else if (renderCache.isValid(generation)) {
+                renderer.replay(renderCache);
+                return false;
+            }
+            // Windows using post tasks, textures or tooltips are rendered directly until they are marked dirty
+            else if (!renderCache.isUncacheable(generation)) {
+                renderer.beginRecording(renderCache);
+                boolean toReturn = super.render(renderer, mouseX, mouseY, delta);
+                renderer.endRecording();
+
+                return toReturn;
+            }
+        }
+
         if (scissor) renderer.scissorStart(x, y, width, (height - header.height) * animProgress + header.height);
         boolean toReturn = super.render(renderer, mouseX, mouseY, delta);
         if (scissor) renderer.scissorEnd();
@@ -121,6 +158,55 @@ public abstract class WWindow extends WVerticalList {
         return toReturn;
     }
 
+    public void markDirty() {
+        settleTimer = SETTLE_TIME;
+        renderCache.invalidate();
+    }
+
+    // Anything that can change how the widgets look invalidates the recorded geometry
+
+    @Override
+    public void move(double deltaX, double deltaY) {
+        super.move(deltaX, deltaY);
+        markDirty();
+    }
+
+    @Override
+    public boolean mouseClicked(double mouseX, double mouseY, int button, boolean used) {
+        markDirty();
+        return super.mouseClicked(mouseX, mouseY, button, used);
+    }
+
+    @Override
+    public boolean mouseReleased(double mouseX, double mouseY, int button) {
+        markDirty();
+        return super.mouseReleased(mouseX, mouseY, button);
+    }
+
+    @Override
+    public boolean mouseScrolled(double amount) {
+        markDirty();
+        return super.mouseScrolled(amount);
+    }
+
+    @Override
+    public boolean keyPressed(int key, int modifiers) {
+        markDirty();
+        return super.keyPressed(key, modifiers);
+    }
+
+    @Override
+    public boolean keyRepeated(int key, int modifiers) {
+        markDirty();
+        return super.keyRepeated(key, modifiers);
+    }
+
+    @Override
+    public boolean charTyped(char c) {
+        markDirty();
+        return super.charTyped(c);
+    }
+
     @Override
     protected void renderWidget(WWidget widget, GuiRenderer renderer, double mouseX, double mouseY, double delta) {
         if (expanded || animProgress > 0 || widget instanceof WHeader) {
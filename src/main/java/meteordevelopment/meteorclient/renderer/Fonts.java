@@ -12,6 +12,7 @@ import meteordevelopment.meteorclient.renderer.text.CustomTextRenderer;
 import meteordevelopment.meteorclient.renderer.text.FontFace;
 import meteordevelopment.meteorclient.renderer.text.FontFamily;
 import meteordevelopment.meteorclient.renderer.text.FontInfo;
+import meteordevelopment.meteorclient.renderer.text.GlyphAtlas;
 import meteordevelopment.meteorclient.systems.config.Config;
 import meteordevelopment.meteorclient.utils.PreInit;
 import meteordevelopment.meteorclient.utils.render.FontUtils;
@@ -61,11 +62,18 @@ public class Fonts {
     public static void load(FontFace fontFace) {
         if (RENDERER != null) {
             if (RENDERER.fontFace.equals(fontFace)) return;
-            else RENDERER.destroy();
+
+            GlyphAtlas atlas = RENDERER.getAtlas();
+            MeteorClient.LOG.info("Unloading font {}, glyph atlas used {} KB over {} pages with a {}% hit rate.", RENDERER.fontFace, atlas.getMemoryUsage() / 1024, atlas.getPageCount(), Math.round(atlas.getHitRate() * 100));
+
+            RENDERER.destroy();
         }
 
         try {
+            long start = System.nanoTime();
             RENDERER = new CustomTextRenderer(fontFace);
+            MeteorClient.LOG.info("Loaded font {} in {} ms.", fontFace, (System.nanoTime() - start) / 1_000_000);
+
             MeteorClient.EVENT_BUS.post(CustomFontChangedEvent.get());
         }
         catch (Exception e) {
@@ -7,6 +7,7 @@ package meteordevelopment.meteorclient.renderer;
 
 import com.mojang.blaze3d.buffers.GpuBuffer;
 import com.mojang.blaze3d.pipeline.RenderPipeline;
+import com.mojang.blaze3d.systems.RenderSystem;
 import com.mojang.blaze3d.vertex.VertexFormat;
 import meteordevelopment.meteorclient.utils.Utils;
 import meteordevelopment.meteorclient.utils.render.color.Color;
@@ -15,6 +16,7 @@ import net.minecraft.util.math.Vec3d;
 import org.lwjgl.BufferUtils;
 
 import java.nio.ByteBuffer;
+import java.util.function.Supplier;
 
 import static meteordevelopment.meteorclient.MeteorClient.mc;
 import static org.lwjgl.system.MemoryUtil.*;
@@ -37,7 +39,7 @@ public class MeshBuilder {
     private int vertexI, indicesCount;
 
     private boolean building;
-    private double cameraX, cameraZ;
+    private double originX, originY, originZ;
 
     public MeshBuilder(RenderPipeline pipeline) {
         this(pipeline.getVertexFormat(), pipeline.getVertexFormatMode());
@@ -66,23 +68,37 @@ public class MeshBuilder {
         if (Utils.rendering3D) {
             Vec3d camera = mc.gameRenderer.getCamera().getPos();
 
-            cameraX = camera.x;
-            cameraZ = camera.z;
+            originX = camera.x;
+            originY = 0;
+            originZ = camera.z;
         }
         else {
-            cameraX = 0;
-            cameraZ = 0;
+            originX = 0;
+            originY = 0;
+            originZ = 0;
         }
     }
 
+    /**
+     * Begins building a mesh whose vertices are stored relative to the given origin instead of the camera, used for
+     * meshes which are kept on the GPU across frames, see {@link RetainedMesh}.
+     */
+    public void begin(double originX, double originY, double originZ) {
+        begin();
+
+        this.originX = originX;
+        this.originY = originY;
+        this.originZ = originZ;
+    }
+
     public MeshBuilder vec3(double x, double y, double z) {
         debugVertexBufferCapacity();
 
         long p = verticesPointer;
 
-        memPutFloat(p, (float) (x - cameraX));
-        memPutFloat(p + 4, (float) y);
-        memPutFloat(p + 8, (float) (z - cameraZ));
+        memPutFloat(p, (float) (x - originX));
+        memPutFloat(p + 4, (float) (y - originY));
+        memPutFloat(p + 8, (float) (z - originZ));
 
         verticesPointer += 12;
         return this;
@@ -229,6 +245,20 @@ public class MeshBuilder {
         return format.uploadImmediateIndexBuffer(indices);
     }
 
+    GpuBuffer createVertexBuffer(Supplier<String> label) {
+        vertices.limit(getVerticesOffset());
+        return RenderSystem.getDevice().createBuffer(label, GpuBuffer.USAGE_VERTEX, vertices);
+    }
+
+    GpuBuffer createIndexBuffer(Supplier<String> label) {
+        indices.limit(indicesCount * Integer.BYTES);
+        return RenderSystem.getDevice().createBuffer(label, GpuBuffer.USAGE_INDEX, indices);
+    }
+
+    public int getVertexCount() {
+        return vertexI;
+    }
+
     public int getIndicesCount() {
         return indicesCount;
     }
@@ -37,6 +37,7 @@ public class MeshRenderer {
     private Color clearColor;
     private RenderPipeline pipeline;
     private MeshBuilder mesh;
+    private RetainedMesh retainedMesh;
     private Matrix4f matrix;
     private final HashMap<String, GpuBufferSlice> uniforms = new HashMap<>();
     private final HashMap<String, GpuTextureView> samplers = new HashMap<>();
@@ -90,6 +91,13 @@ public class MeshRenderer {
         return this;
     }
 
+    public MeshRenderer mesh(RetainedMesh mesh, MatrixStack matrices) {
+        this.retainedMesh = mesh;
+        this.pipeline = mesh.getPipeline();
+        this.matrix = matrices.peek().getPositionMatrix();
+        return this;
+    }
+
     public MeshRenderer uniform(String name, GpuBufferSlice slice) {
         uniforms.put(name, slice);
         return this;
@@ -104,11 +112,13 @@ public class MeshRenderer {
     }
 
     public void end() {
-        if (mesh.isBuilding()) {
+        if (mesh != null && mesh.isBuilding()) {
             mesh.end();
         }
 
-        if (mesh.getIndicesCount() > 0) {
+        int indicesCount = retainedMesh != null ? retainedMesh.getIndicesCount() : mesh.getIndicesCount();
+
+        if (indicesCount > 0) {
             if (Utils.rendering3D || matrix != null) {
                 RenderSystem.getModelViewStack().pushMatrix();
             }
@@ -117,12 +127,15 @@ public class MeshRenderer {
                 RenderSystem.getModelViewStack().mul(matrix);
             }
 
-            if (Utils.rendering3D) {
+            if (retainedMesh != null) {
+                applyOrigin(retainedMesh);
+            }
+            else if (Utils.rendering3D) {
                 applyCameraPos();
             }
 
-            GpuBuffer vertexBuffer = mesh.getVertexBuffer();
-            GpuBuffer indexBuffer = mesh.getIndexBuffer();
+            GpuBuffer vertexBuffer = retainedMesh != null ? retainedMesh.getVertexBuffer() : mesh.getVertexBuffer();
+            GpuBuffer indexBuffer = retainedMesh != null ? retainedMesh.getIndexBuffer() : mesh.getIndexBuffer();
 
             {
                 OptionalInt clearColor = this.clearColor != null ?
@@ -148,7 +161,7 @@ public class MeshRenderer {
 
                 pass.setVertexBuffer(0, vertexBuffer);
                 pass.setIndexBuffer(indexBuffer, VertexFormat.IndexType.INT);
-                pass.drawIndexed(0, 0, mesh.getIndicesCount(), 1);
+                pass.drawIndexed(0, 0, indicesCount, 1);
 
                 pass.close();
             }
@@ -163,6 +176,7 @@ public class MeshRenderer {
         clearColor = null;
         pipeline = null;
         mesh = null;
+        retainedMesh = null;
         matrix = null;
         uniforms.clear();
         samplers.clear();
@@ -170,6 +184,17 @@ public class MeshRenderer {
         taken = false;
     }
 
+    private static void applyOrigin(RetainedMesh mesh) {
+        Vec3d cameraPos = mc.gameRenderer.getCamera().getPos();
+
+        // Subtract in double precision, only the small camera relative offset ends up in the float matrix
+        RenderSystem.getModelViewStack().translate(
+            (float) (mesh.getOriginX() - cameraPos.x),
+            (float) (mesh.getOriginY() - cameraPos.y),
+            (float) (mesh.getOriginZ() - cameraPos.z)
+        );
+    }
+
     private static void applyCameraPos() {
         Vec3d cameraPos = mc.gameRenderer.getCamera().getPos();
         RenderSystem.getModelViewStack().translate(0, (float) -cameraPos.y, 0);
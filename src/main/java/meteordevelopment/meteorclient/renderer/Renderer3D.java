@@ -31,6 +31,11 @@ public class Renderer3D {
         triangles.begin();
     }
 
+    public void begin(double originX, double originY, double originZ) {
+        lines.begin(originX, originY, originZ);
+        triangles.begin(originX, originY, originZ);
+    }
+
     public void render(MatrixStack matrices) {
         MeshRenderer.begin()
             .attachments(MinecraftClient.getInstance().getFramebuffer())
@@ -0,0 +1,89 @@
+/*
+ * This file is part of the Meteor Client distribution (https://github.com/MeteorDevelopment/meteor-client).
+ * Copyright (c) Meteor Development.
+ */
+
+package meteordevelopment.meteorclient.renderer;
+
+import com.mojang.blaze3d.buffers.GpuBuffer;
+import com.mojang.blaze3d.pipeline.RenderPipeline;
+
+/**
+ * A mesh which is uploaded to the GPU once and drawn every frame until it is rebuilt. Vertices are stored relative to
+ * an origin and positioned through the model view matrix, so the mesh stays valid while the camera moves.
+ */
+public class RetainedMesh implements AutoCloseable {
+    private final RenderPipeline pipeline;
+
+    private GpuBuffer vertexBuffer, indexBuffer;
+    private int vertexCount, indicesCount;
+
+    private double originX, originY, originZ;
+
+    public RetainedMesh(RenderPipeline pipeline) {
+        this.pipeline = pipeline;
+    }
+
+    /** Replaces the GPU buffers with the contents of a mesh started with {@link MeshBuilder#begin(double, double, double)}. */
+    public void upload(MeshBuilder mesh, double originX, double originY, double originZ) {
+        if (mesh.isBuilding()) mesh.end();
+
+        close();
+
+        this.originX = originX;
+        this.originY = originY;
+        this.originZ = originZ;
+
+        if (mesh.getIndicesCount() == 0) return;
+
+        vertexBuffer = mesh.createVertexBuffer(() -> "Meteor RetainedMesh vertices");
+        indexBuffer = mesh.createIndexBuffer(() -> "Meteor RetainedMesh indices");
+
+        vertexCount = mesh.getVertexCount();
+        indicesCount = mesh.getIndicesCount();
+    }
+
+    public RenderPipeline getPipeline() {
+        return pipeline;
+    }
+
+    public GpuBuffer getVertexBuffer() {
+        return vertexBuffer;
+    }
+
+    public GpuBuffer getIndexBuffer() {
+        return indexBuffer;
+    }
+
+    public int getVertexCount() {
+        return vertexCount;
+    }
+
+    public int getIndicesCount() {
+        return indicesCount;
+    }
+
+    public double getOriginX() {
+        return originX;
+    }
+
+    public double getOriginY() {
+        return originY;
+    }
+
+    public double getOriginZ() {
+        return originZ;
+    }
+
+    @Override
+    public void close() {
+        if (vertexBuffer != null) vertexBuffer.close();
+        if (indexBuffer != null) indexBuffer.close();
+
+        vertexBuffer = null;
+        indexBuffer = null;
+
+        vertexCount = 0;
+        indicesCount = 0;
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * This file is part of the Meteor Client distribution (https://github.com/MeteorDevelopment/meteor-client).
+ * Copyright (c) Meteor Development.
+ */
+
+package meteordevelopment.meteorclient.renderer;
+
+import com.mojang.blaze3d.pipeline.RenderPipeline;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.util.math.MatrixStack;
+
+import java.util.function.Consumer;
+
+/**
+ * Retained counterpart of {@link Renderer3D}. Geometry is emitted through a regular {@link Renderer3D} once, kept in
+ * GPU buffers and only rebuilt when the owner marks it dirty, usually one instance per chunk.
+ */
+public class RetainedRenderer3D implements AutoCloseable {
+    private static Renderer3D builder;
+
+    public final RetainedMesh lines;
+    public final RetainedMesh triangles;
+
+    private boolean dirty = true;
+
+    public RetainedRenderer3D(RenderPipeline lines, RenderPipeline triangles) {
+        this.lines = new RetainedMesh(lines);
+        this.triangles = new RetainedMesh(triangles);
+    }
+
+    public void markDirty() {
+        dirty = true;
+    }
+
+    public boolean isDirty() {
+        return dirty;
+    }
+
+    /** Rebuilds both meshes, vertices are written relative to the origin to keep float precision far from 0, 0. */
+    public void build(double originX, double originY, double originZ, Consumer<Renderer3D> consumer) {
+        // The builder is only used to tessellate, so a single one is shared by every retained renderer
+        if (builder == null) builder = new Renderer3D(MeteorRenderPipelines.WORLD_COLORED_LINES, MeteorRenderPipelines.WORLD_COLORED);
+
+        builder.begin(originX, originY, originZ);
+        consumer.accept(builder);
+
+        lines.upload(builder.lines, originX, originY, originZ);
+        triangles.upload(builder.triangles, originX, originY, originZ);
+
+        dirty = false;
+    }
+
+    public void render(MatrixStack matrices) {
+        MeshRenderer.begin()
+            .attachments(MinecraftClient.getInstance().getFramebuffer())
+            .mesh(lines, matrices)
+            .end();
+
+        MeshRenderer.begin()
+            .attachments(MinecraftClient.getInstance().getFramebuffer())
+            .mesh(triangles, matrices)
+            .end();
+    }
+
+    public int getVertexCount() {
+        return lines.getVertexCount() + triangles.getVertexCount();
+    }
+
+    @Override
+    public void close() {
+        lines.close();
+        triangles.close();
+
+        dirty = true;
+    }
+}
@@ -47,6 +47,11 @@ public class Texture extends AbstractTexture {
         image.close();
     }
 
+    /** Uploads a region of the image to the same region of the texture. */
+    public void upload(NativeImage image, int x, int y, int width, int height) {
+        RenderSystem.getDevice().createCommandEncoder().writeToTexture(glTexture, image, 0, 0, x, y, width, height, x, y);
+    }
+
     private @NotNull NativeImage getImage() {
         NativeImage.Format imageFormat = switch (glTexture.getFormat()) {
             case RGBA8 -> NativeImage.Format.RGBA;
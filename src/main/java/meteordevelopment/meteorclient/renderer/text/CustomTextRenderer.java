@@ -5,23 +5,20 @@
 
 package meteordevelopment.meteorclient.renderer.text;
 
-import meteordevelopment.meteorclient.renderer.MeshBuilder;
-import meteordevelopment.meteorclient.renderer.MeshRenderer;
-import meteordevelopment.meteorclient.renderer.MeteorRenderPipelines;
 import meteordevelopment.meteorclient.utils.Utils;
 import meteordevelopment.meteorclient.utils.render.color.Color;
-import net.minecraft.client.MinecraftClient;
 import org.lwjgl.BufferUtils;
+import org.lwjgl.stb.STBTTFontinfo;
 
 import java.nio.ByteBuffer;
 
 public class CustomTextRenderer implements TextRenderer {
     public static final Color SHADOW_COLOR = new Color(60, 60, 60, 180);
 
-    private final MeshBuilder mesh = new MeshBuilder(MeteorRenderPipelines.UI_TEXT);
-
     public final FontFace fontFace;
 
+    private final GlyphAtlas atlas;
+
     private final Font[] fonts;
     private Font font;
 
@@ -36,22 +33,26 @@ public class CustomTextRenderer implements TextRenderer {
         byte[] bytes = Utils.readBytes(fontFace.toStream());
         ByteBuffer buffer = BufferUtils.createByteBuffer(bytes.length).put(bytes).flip();
 
+        // All sizes share one lazily filled atlas
+        atlas = new GlyphAtlas(buffer);
+        STBTTFontinfo fontInfo = Font.createFontInfo(buffer);
+
         fonts = new Font[5];
         for (int i = 0; i < fonts.length; i++) {
-            fonts[i] = new Font(buffer, (int) Math.round(27 * ((i * 0.5) + 1)));
+            fonts[i] = new Font(atlas, fontInfo, (int) Math.round(27 * ((i * 0.5) + 1)));
         }
     }
 
     @Override
     public void setAlpha(double a) {
-        mesh.alpha = a;
+        atlas.setAlpha(a);
     }
 
     @Override
     public void begin(double scale, boolean scaleOnly, boolean big) {
         if (building) throw new RuntimeException("CustomTextRenderer.begin() called twice");
 
-        if (!scaleOnly) mesh.begin();
+        atlas.beginBatch();
 
         if (big) {
             this.font = fonts[fonts.length - 1];
@@ -100,13 +101,13 @@ public class CustomTextRenderer implements TextRenderer {
             int preShadowA = SHADOW_COLOR.a;
             SHADOW_COLOR.a = (int) (color.a / 255.0 * preShadowA);
 
-            width = font.render(mesh, text, x + fontScale * scale / 1.5, y + fontScale * scale / 1.5, SHADOW_COLOR, scale / 1.5);
-            font.render(mesh, text, x, y, color, scale / 1.5);
+            width = font.render(text, x + fontScale * scale / 1.5, y + fontScale * scale / 1.5, SHADOW_COLOR, scale / 1.5);
+            font.render(text, x, y, color, scale / 1.5);
 
             SHADOW_COLOR.a = preShadowA;
         }
         else {
-            width = font.render(mesh, text, x, y, color, scale / 1.5);
+            width = font.render(text, x, y, color, scale / 1.5);
         }
 
         if (!wasBuilding) end();
@@ -122,24 +123,19 @@ public class CustomTextRenderer implements TextRenderer {
     public void end() {
         if (!building) throw new RuntimeException("CustomTextRenderer.end() called without calling begin()");
 
-        if (!scaleOnly) {
-            mesh.end();
-
-            MeshRenderer.begin()
-                .attachments(MinecraftClient.getInstance().getFramebuffer())
-                .pipeline(MeteorRenderPipelines.UI_TEXT)
-                .mesh(mesh)
-                .sampler("u_Texture", font.texture.getGlTextureView())
-                .end();
-        }
+        // Glyphs can be spread over several atlas pages, each page is drawn with its own texture
+        if (scaleOnly) atlas.discard();
+        else atlas.draw(null);
 
         building = false;
         scale = 1;
     }
 
+    public GlyphAtlas getAtlas() {
+        return atlas;
+    }
+
     public void destroy() {
-        for (Font font : this.fonts) {
-            font.texture.close();
-        }
+        atlas.close();
     }
 }
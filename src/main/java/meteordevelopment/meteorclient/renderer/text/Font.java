@@ -5,109 +5,72 @@
 
 package meteordevelopment.meteorclient.renderer.text;
 
-import com.mojang.blaze3d.textures.FilterMode;
-import com.mojang.blaze3d.textures.TextureFormat;
 import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
 import meteordevelopment.meteorclient.renderer.MeshBuilder;
-import meteordevelopment.meteorclient.renderer.Texture;
+import meteordevelopment.meteorclient.renderer.text.GlyphAtlas.Glyph;
 import meteordevelopment.meteorclient.utils.render.color.Color;
-import org.lwjgl.BufferUtils;
-import org.lwjgl.stb.*;
+import org.lwjgl.stb.STBTTFontinfo;
+import org.lwjgl.stb.STBTruetype;
 import org.lwjgl.system.MemoryStack;
 
 import java.nio.ByteBuffer;
 import java.nio.IntBuffer;
 
 public class Font {
-    public final Texture texture;
+    private final GlyphAtlas atlas;
+    private final STBTTFontinfo fontInfo;
     private final int height;
     private final float scale;
     private final float ascent;
-    private final Int2ObjectOpenHashMap<CharData> charMap = new Int2ObjectOpenHashMap<>();
-    private static final int size = 2048;
+    private final Int2ObjectOpenHashMap<Glyph> glyphs = new Int2ObjectOpenHashMap<>();
 
-    public Font(ByteBuffer buffer, int height) {
+    public Font(GlyphAtlas atlas, STBTTFontinfo fontInfo, int height) {
+        this.atlas = atlas;
+        this.fontInfo = fontInfo;
         this.height = height;
 
-        // Initialize font
-        STBTTFontinfo fontInfo = STBTTFontinfo.create();
-        STBTruetype.stbtt_InitFont(fontInfo, buffer);
-
-        // Allocate buffers
-        ByteBuffer bitmap = BufferUtils.createByteBuffer(size * size);
-        STBTTPackedchar.Buffer[] cdata = {
-            STBTTPackedchar.create(95), // Basic Latin
-            STBTTPackedchar.create(96), // Latin 1 Supplement
-            STBTTPackedchar.create(128), // Latin Extended-A
-            STBTTPackedchar.create(144), // Greek and Coptic
-            STBTTPackedchar.create(256), // Cyrillic
-            STBTTPackedchar.create(1) // infinity symbol
-        };
-
-        // create and initialise packing context
-        STBTTPackContext packContext = STBTTPackContext.create();
-        STBTruetype.stbtt_PackBegin(packContext, bitmap, size, size, 0 ,1);
-
-        // create the pack range, populate with the specific packing ranges
-        STBTTPackRange.Buffer packRange = STBTTPackRange.create(cdata.length);
-        packRange.put(STBTTPackRange.create().set(height, 32, null, 95, cdata[0], (byte) 2, (byte) 2));
-        packRange.put(STBTTPackRange.create().set(height, 160, null, 96, cdata[1], (byte) 2, (byte) 2));
-        packRange.put(STBTTPackRange.create().set(height, 256, null, 128, cdata[2], (byte) 2, (byte) 2));
-        packRange.put(STBTTPackRange.create().set(height, 880, null, 144, cdata[3], (byte) 2, (byte) 2));
-        packRange.put(STBTTPackRange.create().set(height, 1024, null, 256, cdata[4], (byte) 2, (byte) 2));
-        packRange.put(STBTTPackRange.create().set(height, 8734, null, 1, cdata[5], (byte) 2, (byte) 2)); // lol
-        packRange.flip();
-
-        // write and finish
-        STBTruetype.stbtt_PackFontRanges(packContext, buffer, 0, packRange);
-        STBTruetype.stbtt_PackEnd(packContext);
-
-        // Create texture object and get font scale
-        texture = new Texture(size, size, TextureFormat.RED8, FilterMode.LINEAR, FilterMode.LINEAR);
-        texture.upload(bitmap);
+        // Get font scale and vertical ascent, glyphs themselves are only rasterized once they are drawn
         scale = STBTruetype.stbtt_ScaleForPixelHeight(fontInfo, height);
 
-        // Get font vertical ascent
         try (MemoryStack stack = MemoryStack.stackPush()) {
             IntBuffer ascent = stack.mallocInt(1);
             STBTruetype.stbtt_GetFontVMetrics(fontInfo, ascent, null, null);
             this.ascent = ascent.get(0);
         }
+    }
+
+    public static STBTTFontinfo createFontInfo(ByteBuffer buffer) {
+        STBTTFontinfo fontInfo = STBTTFontinfo.create();
+        if (!STBTruetype.stbtt_InitFont(fontInfo, buffer)) throw new IllegalArgumentException("Invalid font data.");
+        return fontInfo;
+    }
 
-        for (int i = 0; i < cdata.length; i++) {
-            STBTTPackedchar.Buffer cbuf = cdata[i];
-            int offset = packRange.get(i).first_unicode_codepoint_in_range();
-
-            for (int j = 0; j < cbuf.capacity(); j++) {
-                STBTTPackedchar packedChar = cbuf.get(j);
-
-                float ipw = 1f / size; // pixel width and height
-                float iph = 1f / size;
-
-                charMap.put(j + offset, new CharData(
-                    packedChar.xoff(),
-                    packedChar.yoff(),
-                    packedChar.xoff2(),
-                    packedChar.yoff2(),
-                    packedChar.x0() * ipw,
-                    packedChar.y0() * iph,
-                    packedChar.x1() * ipw,
-                    packedChar.y1() * iph,
-                    packedChar.xadvance()
-                ));
+    private Glyph getGlyph(int cp) {
+        Glyph glyph = glyphs.get(cp);
+        if (glyph != null) return glyph;
+
+        // Codepoints missing from the font are drawn as a space
+        if (cp != 32 && STBTruetype.stbtt_FindGlyphIndex(fontInfo, cp) == 0) glyph = getGlyph(32);
+        else {
+            try (MemoryStack stack = MemoryStack.stackPush()) {
+                IntBuffer advance = stack.mallocInt(1);
+                STBTruetype.stbtt_GetCodepointHMetrics(fontInfo, cp, advance, null);
+                glyph = new Glyph(cp, advance.get(0) * scale);
             }
         }
+
+        glyphs.put(cp, glyph);
+        return glyph;
     }
 
     public double getWidth(String string, int length) {
         double width = 0;
 
-        for (int i = 0; i < length; i++) {
-            int cp = string.charAt(i);
-            CharData c = charMap.get(cp);
-            if (c == null) c = charMap.get(32);
+        for (int i = 0; i < length; ) {
+            int cp = string.codePointAt(i);
+            i += Character.charCount(cp);
 
-            width += c.xAdvance;
+            width += getGlyph(cp).xAdvance;
         }
 
         return width;
@@ -117,16 +80,20 @@ public class Font {
         return height;
     }
 
-    public double render(MeshBuilder mesh, String string, double x, double y, Color color, double scale) {
+    public double render(String string, double x, double y, Color color, double scale) {
         y += ascent * this.scale * scale;
 
         int length = string.length();
-        mesh.ensureCapacity(length * 4, length * 6);
 
-        for (int i = 0; i < length; i++) {
-            int cp = string.charAt(i);
-            CharData c = charMap.get(cp);
-            if (c == null) c = charMap.get(32);
+        for (int i = 0; i < length; ) {
+            int cp = string.codePointAt(i);
+            i += Character.charCount(cp);
+
+            Glyph c = getGlyph(cp);
+            atlas.ensureRasterized(this, c);
+
+            MeshBuilder mesh = atlas.getMesh(c.page);
+            mesh.ensureQuadCapacity();
 
             mesh.quad(
                 mesh.vec2(x + c.x0 * scale, y + c.y0 * scale).vec2(c.u0, c.v0).color(color).next(),
@@ -140,6 +107,4 @@ public class Font {
 
         return x;
     }
-
-    private record CharData(float x0, float y0, float x1, float y1, float u0, float v0, float u1, float v1, float xAdvance) {}
 }
@@ -0,0 +1,266 @@
+/*
+ * This file is part of the Meteor Client distribution (https://github.com/MeteorDevelopment/meteor-client).
+ * Copyright (c) Meteor Development.
+ */
+
+package meteordevelopment.meteorclient.renderer.text;
+
+import com.mojang.blaze3d.textures.FilterMode;
+import com.mojang.blaze3d.textures.TextureFormat;
+import meteordevelopment.meteorclient.renderer.MeshBuilder;
+import meteordevelopment.meteorclient.renderer.MeshRenderer;
+import meteordevelopment.meteorclient.renderer.MeteorRenderPipelines;
+import meteordevelopment.meteorclient.renderer.Texture;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.texture.NativeImage;
+import org.lwjgl.stb.STBTTPackContext;
+import org.lwjgl.stb.STBTTPackRange;
+import org.lwjgl.stb.STBTTPackedchar;
+import org.lwjgl.stb.STBTruetype;
+import org.lwjgl.system.MemoryStack;
+import org.lwjgl.system.MemoryUtil;
+
+import javax.annotation.Nullable;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Glyph cache shared by all sizes of a font face. Glyphs are rasterized the first time they are drawn into fixed size
+ * pages, only the changed part of a page is uploaded and the least recently used page is recycled once the page
+ * limit is reached.
+ */
+public class GlyphAtlas {
+    private static final int PAGE_SIZE = 1024;
+    private static final int MAX_PAGES = 8;
+
+    private final ByteBuffer fontData;
+    final List<Page> pages = new ArrayList<>();
+
+    private double alpha = 1;
+    private int batch;
+
+    private long lookups, misses;
+
+    public GlyphAtlas(ByteBuffer fontData) {
+        this.fontData = fontData;
+    }
+
+    void setAlpha(double alpha) {
+        this.alpha = alpha;
+    }
+
+    /** Starts a new batch, pages used by it are not recycled until the next one. */
+    public void beginBatch() {
+        batch++;
+    }
+
+    /** Returns the mesh the quads of glyphs on the given page are written to, starting it if needed. */
+    MeshBuilder getMesh(Page page) {
+        if (!page.mesh.isBuilding()) page.mesh.begin();
+        page.mesh.alpha = alpha;
+
+        return page.mesh;
+    }
+
+    /** Makes sure the glyph is present in the atlas, rasterizing it if it was never drawn or its page was recycled. */
+    void ensureRasterized(Font font, Glyph glyph) {
+        lookups++;
+
+        if (glyph.page != null && glyph.generation == glyph.page.generation) {
+            glyph.page.lastUsed = batch;
+            return;
+        }
+
+        misses++;
+
+        Page page = pages.isEmpty() ? addPage() : pages.getLast();
+        if (!page.pack(font, glyph)) {
+            page = pages.size() < MAX_PAGES ? addPage() : recyclePage();
+            page.pack(font, glyph);
+        }
+
+        page.lastUsed = batch;
+    }
+
+    private Page addPage() {
+        Page page = new Page();
+        pages.add(page);
+        return page;
+    }
+
+    private Page recyclePage() {
+        Page oldest = null;
+
+        for (Page page : pages) {
+            // Pages used by the batch being built still have quads referencing them
+            if (page.lastUsed == batch) continue;
+            if (oldest == null || page.lastUsed < oldest.lastUsed) oldest = page;
+        }
+
+        if (oldest == null) return addPage();
+
+        oldest.reset();
+        pages.remove(oldest);
+        pages.add(oldest);
+
+        return oldest;
+    }
+
+    /** Uploads the parts of each page that were rasterized since the last upload. */
+    void upload() {
+        for (Page page : pages) page.upload();
+    }
+
+    /**
+     * Uploads new glyphs and draws the quads written to each page since the last draw with that page's texture.
+     * {@code onDraw} is called with every mesh right before it is drawn.
+     */
+    public void draw(@Nullable Consumer<MeshBuilder> onDraw) {
+        upload();
+
+        for (Page page : pages) {
+            if (!page.mesh.isBuilding()) continue;
+
+            if (onDraw != null) onDraw.accept(page.mesh);
+
+            MeshRenderer.begin()
+                .attachments(MinecraftClient.getInstance().getFramebuffer())
+                .pipeline(MeteorRenderPipelines.UI_TEXT)
+                .mesh(page.mesh)
+                .sampler("u_Texture", page.texture.getGlTextureView())
+                .end();
+        }
+    }
+
+    /** Drops the quads written since the last draw without drawing them. */
+    void discard() {
+        for (Page page : pages) {
+            if (page.mesh.isBuilding()) page.mesh.end();
+        }
+    }
+
+    public int getPageCount() {
+        return pages.size();
+    }
+
+    /** Memory used by the atlas in bytes, counting both the CPU side bitmaps and the GPU textures. */
+    public long getMemoryUsage() {
+        return pages.size() * (long) PAGE_SIZE * PAGE_SIZE * 2;
+    }
+
+    public double getHitRate() {
+        return lookups == 0 ? 1 : 1 - (double) misses / lookups;
+    }
+
+    public void close() {
+        for (Page page : pages) page.close();
+        pages.clear();
+    }
+
+    static class Glyph {
+        public final int codepoint;
+        public final float xAdvance;
+
+        public float x0, y0, x1, y1;
+        public float u0, v0, u1, v1;
+
+        public Page page;
+        public int generation;
+
+        public Glyph(int codepoint, float xAdvance) {
+            this.codepoint = codepoint;
+            this.xAdvance = xAdvance;
+        }
+    }
+
+    class Page {
+        public final Texture texture = new Texture(PAGE_SIZE, PAGE_SIZE, TextureFormat.RED8, FilterMode.LINEAR, FilterMode.LINEAR);
+        public final MeshBuilder mesh = new MeshBuilder(MeteorRenderPipelines.UI_TEXT);
+
+        private final NativeImage image = new NativeImage(NativeImage.Format.LUMINANCE, PAGE_SIZE, PAGE_SIZE, true);
+        private final STBTTPackContext packContext = STBTTPackContext.malloc();
+
+        public int generation;
+        public int lastUsed;
+
+        // The whole page is uploaded once so the padding around glyphs is cleared on the GPU as well
+        private int dirtyX1, dirtyY1, dirtyX2 = PAGE_SIZE, dirtyY2 = PAGE_SIZE;
+
+        public Page() {
+            begin();
+        }
+
+        private void begin() {
+            ByteBuffer pixels = MemoryUtil.memByteBuffer(image.imageId(), PAGE_SIZE * PAGE_SIZE);
+            STBTruetype.stbtt_PackBegin(packContext, pixels, PAGE_SIZE, PAGE_SIZE, 0, 1);
+        }
+
+        public boolean pack(Font font, Glyph glyph) {
+            try (MemoryStack stack = MemoryStack.stackPush()) {
+                STBTTPackedchar.Buffer cdata = STBTTPackedchar.calloc(1, stack);
+                STBTTPackRange.Buffer packRange = STBTTPackRange.calloc(1, stack);
+                packRange.get(0).set(font.getHeight(), glyph.codepoint, null, 1, cdata, (byte) 2, (byte) 2);
+
+                if (STBTruetype.stbtt_PackFontRanges(packContext, fontData, 0, packRange) == 0) return false;
+
+                STBTTPackedchar packedChar = cdata.get(0);
+
+                float ipw = 1f / PAGE_SIZE; // pixel width and height
+                float iph = 1f / PAGE_SIZE;
+
+                glyph.x0 = packedChar.xoff();
+                glyph.y0 = packedChar.yoff();
+                glyph.x1 = packedChar.xoff2();
+                glyph.y1 = packedChar.yoff2();
+                glyph.u0 = packedChar.x0() * ipw;
+                glyph.v0 = packedChar.y0() * iph;
+                glyph.u1 = packedChar.x1() * ipw;
+                glyph.v1 = packedChar.y1() * iph;
+
+                glyph.page = this;
+                glyph.generation = generation;
+
+                dirtyX1 = Math.min(dirtyX1, packedChar.x0());
+                dirtyY1 = Math.min(dirtyY1, packedChar.y0());
+                dirtyX2 = Math.max(dirtyX2, packedChar.x1());
+                dirtyY2 = Math.max(dirtyY2, packedChar.y1());
+
+                return true;
+            }
+        }
+
+        public void reset() {
+            STBTruetype.stbtt_PackEnd(packContext);
+            begin();
+
+            // Invalidates every glyph still pointing at this page
+            generation++;
+
+            dirtyX1 = 0;
+            dirtyY1 = 0;
+            dirtyX2 = PAGE_SIZE;
+            dirtyY2 = PAGE_SIZE;
+        }
+
+        public void upload() {
+            if (dirtyX1 >= dirtyX2 || dirtyY1 >= dirtyY2) return;
+
+            texture.upload(image, dirtyX1, dirtyY1, dirtyX2 - dirtyX1, dirtyY2 - dirtyY1);
+
+            dirtyX1 = PAGE_SIZE;
+            dirtyY1 = PAGE_SIZE;
+            dirtyX2 = 0;
+            dirtyY2 = 0;
+        }
+
+        public void close() {
+            STBTruetype.stbtt_PackEnd(packContext);
+            packContext.free();
+
+            image.close();
+            texture.close();
+        }
+    }
+}
@@ -5,6 +5,7 @@
 
 package meteordevelopment.meteorclient.settings;
 
+import meteordevelopment.meteorclient.utils.misc.RawIdBitSet;
 import net.minecraft.block.Block;
 import net.minecraft.nbt.NbtCompound;
 import net.minecraft.nbt.NbtElement;
@@ -21,11 +22,24 @@ import java.util.function.Predicate;
 
 public class BlockListSetting extends Setting<List<Block>> {
     public final Predicate<Block> filter;
+    private final RawIdBitSet<Block> ids = new RawIdBitSet<>(Registries.BLOCK);
 
     public BlockListSetting(String name, String description, List<Block> defaultValue, Consumer<List<Block>> onChanged, Consumer<Setting<List<Block>>> onModuleActivated, Predicate<Block> filter, IVisible visible) {
         super(name, description, defaultValue, onChanged, onModuleActivated, visible);
 
         this.filter = filter;
+        ids.set(value);
+    }
+
+    @Override
+    public void onChanged() {
+        ids.set(value);
+        super.onChanged();
+    }
+
+    /** Constant time equivalent of {@code get().contains(block)} that can be called from any thread. */
+    public boolean contains(Block block) {
+        return ids.contains(block);
     }
 
     @Override
@@ -7,6 +7,7 @@ package meteordevelopment.meteorclient.settings;
 
 import it.unimi.dsi.fastutil.objects.ObjectOpenHashSet;
 import meteordevelopment.meteorclient.utils.entity.EntityUtils;
+import meteordevelopment.meteorclient.utils.misc.RawIdBitSet;
 import net.minecraft.entity.EntityType;
 import net.minecraft.entity.SpawnGroup;
 import net.minecraft.nbt.NbtCompound;
@@ -24,6 +25,7 @@ import java.util.function.Predicate;
 
 public class EntityTypeListSetting extends Setting<Set<EntityType<?>>> {
     public final Predicate<EntityType<?>> filter;
+    private final RawIdBitSet<EntityType<?>> ids = new RawIdBitSet<>(Registries.ENTITY_TYPE);
     private List<String> suggestions;
     private final static List<String> groups = List.of("animal", "wateranimal", "monster", "ambient", "misc");
 
@@ -31,6 +33,18 @@ public class EntityTypeListSetting extends Setting<Set<EntityType<?>>> {
         super(name, description, defaultValue, onChanged, onModuleActivated, visible);
 
         this.filter = filter;
+        ids.set(value);
+    }
+
+    @Override
+    public void onChanged() {
+        ids.set(value);
+        super.onChanged();
+    }
+
+    /** Constant time equivalent of {@code get().contains(entityType)} that can be called from any thread. */
+    public boolean contains(EntityType<?> entityType) {
+        return ids.contains(entityType);
     }
 
     @Override
@@ -5,6 +5,7 @@
 
 package meteordevelopment.meteorclient.settings;
 
+import meteordevelopment.meteorclient.utils.misc.RawIdBitSet;
 import net.minecraft.item.Item;
 import net.minecraft.nbt.NbtCompound;
 import net.minecraft.nbt.NbtElement;
@@ -21,6 +22,7 @@ import java.util.function.Predicate;
 
 public class ItemListSetting extends Setting<List<Item>> {
     public final Predicate<Item> filter;
+    private final RawIdBitSet<Item> ids = new RawIdBitSet<>(Registries.ITEM);
     private final boolean bypassFilterWhenSavingAndLoading;
 
     public ItemListSetting(String name, String description, List<Item> defaultValue, Consumer<List<Item>> onChanged, Consumer<Setting<List<Item>>> onModuleActivated, IVisible visible, Predicate<Item> filter, boolean bypassFilterWhenSavingAndLoading) {
@@ -28,6 +30,7 @@ public class ItemListSetting extends Setting<List<Item>> {
 
         this.filter = filter;
         this.bypassFilterWhenSavingAndLoading = bypassFilterWhenSavingAndLoading;
+        ids.set(value);
     }
 
     @Override
@@ -45,6 +48,17 @@ public class ItemListSetting extends Setting<List<Item>> {
         return items;
     }
 
+    @Override
+    public void onChanged() {
+        ids.set(value);
+        super.onChanged();
+    }
+
+    /** Constant time equivalent of {@code get().contains(item)} that can be called from any thread. */
+    public boolean contains(Item item) {
+        return ids.contains(item);
+    }
+
     @Override
     public void resetImpl() {
         value = new ArrayList<>(defaultValue);
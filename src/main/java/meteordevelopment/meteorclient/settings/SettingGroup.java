@@ -34,7 +34,8 @@ public class SettingGroup implements ISerializable<SettingGroup>, Iterable<Setti
         return null;
     }
 
-    public <T> Setting<T> add(Setting<T> setting) {
+    /** Returns the setting as its own type, so settings like {@link BlockListSetting} can expose their helpers. */
+    public <S extends Setting<?>> S add(S setting) {
         settings.add(setting);
 
         return setting;
@@ -0,0 +1,156 @@
+/*
+ * This file is part of the Meteor Client distribution (https://github.com/MeteorDevelopment/meteor-client).
+ * Copyright (c) Meteor Development.
+ */
+
+package meteordevelopment.meteorclient.systems;
+
+import it.unimi.dsi.fastutil.objects.ReferenceLinkedOpenHashSet;
+import meteordevelopment.meteorclient.MeteorClient;
+import meteordevelopment.meteorclient.utils.files.StreamUtils;
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.nbt.NbtIo;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static meteordevelopment.meteorclient.MeteorClient.mc;
+
+/**
+ * Writes {@link System}s to disk on a dedicated thread. {@link System#save()} only marks a system dirty, repeated
+ * saves within {@link #DEBOUNCE_MS} are coalesced into a single write. Snapshots are always taken with
+ * {@link System#toTag()} on the client thread (or the calling thread for explicit saves), only the file I/O is moved
+ * off-thread. All writes go through the same thread so they land on disk in the order they were requested.
+ */
+public class SaveScheduler {
+    private static final long DEBOUNCE_MS = 1000;
+
+    private static final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(task -> {
+        Thread thread = new Thread(task);
+        thread.setDaemon(true);
+        thread.setName("Meteor-Save");
+        return thread;
+    });
+
+    private static final Set<System<?>> dirty = new ReferenceLinkedOpenHashSet<>();
+    private static ScheduledFuture<?> snapshotTask;
+
+    private static final AtomicInteger queuedWrites = new AtomicInteger();
+    private static volatile long lastWriteTime;
+
+    private SaveScheduler() {
+    }
+
+    /** Marks the system dirty, it is written together with every other save requested in the next {@link #DEBOUNCE_MS}. */
+    public static void schedule(System<?> system) {
+        if (system.getFile() == null) return;
+
+        synchronized (dirty) {
+            dirty.add(system);
+
+            if (snapshotTask == null) snapshotTask = executor.schedule(() -> mc.execute(SaveScheduler::snapshotDirty), DEBOUNCE_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /** Takes a snapshot of the system on the calling thread and queues it to be written. */
+    public static CompletableFuture<Void> submit(System<?> system, File folder) {
+        File file = system.getFile();
+        if (file == null) return CompletableFuture.completedFuture(null);
+
+        NbtCompound tag = system.toTag();
+        if (tag == null) return CompletableFuture.completedFuture(null);
+
+        if (folder != null) file = new File(folder, file.getName());
+        File target = file;
+
+        queuedWrites.incrementAndGet();
+
+        return CompletableFuture.runAsync(() -> {
+            try {
+                long start = java.lang.System.nanoTime();
+                write(system.getName(), tag, target);
+                lastWriteTime = java.lang.System.nanoTime() - start;
+            }
+            finally {
+                queuedWrites.decrementAndGet();
+            }
+        }, executor);
+    }
+
+    /** Writes every dirty system right away and blocks until everything queued so far is on disk. */
+    public static void flush() {
+        for (System<?> system : takeDirty()) submit(system, null);
+        await();
+    }
+
+    /** Drops the dirty systems without writing them, used when all systems are about to be saved anyway. */
+    static void clearDirty() {
+        takeDirty();
+    }
+
+    /** Blocks until every queued write has finished. */
+    public static void await() {
+        CompletableFuture.runAsync(() -> {}, executor).join();
+    }
+
+    private static void snapshotDirty() {
+        for (System<?> system : takeDirty()) submit(system, null);
+    }
+
+    private static List<System<?>> takeDirty() {
+        synchronized (dirty) {
+            if (snapshotTask != null) {
+                snapshotTask.cancel(false);
+                snapshotTask = null;
+            }
+
+            List<System<?>> systems = new ArrayList<>(dirty);
+            dirty.clear();
+
+            return systems;
+        }
+    }
+
+    private static void write(String name, NbtCompound tag, File file) {
+        try {
+            File tempFile = File.createTempFile(MeteorClient.MOD_ID, file.getName());
+            NbtIo.write(tag, tempFile.toPath());
+
+            file.getParentFile().mkdirs();
+
+            try {
+                Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                StreamUtils.copy(tempFile, file);
+            }
+
+            tempFile.delete();
+        } catch (IOException e) {
+            MeteorClient.LOG.error("Error saving {}. Possibly corrupted?", name, e);
+        }
+    }
+
+    /** Number of systems waiting to be written, both dirty ones and snapshots queued on the save thread. */
+    public static int getQueueDepth() {
+        synchronized (dirty) {
+            return dirty.size() + queuedWrites.get();
+        }
+    }
+
+    /** Duration of the last file write in nanoseconds. */
+    public static long getLastWriteTime() {
+        return lastWriteTime;
+    }
+}
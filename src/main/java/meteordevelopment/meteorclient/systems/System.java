@@ -40,35 +40,14 @@ public abstract class System<T> implements ISerializable<T> {
 
     public void init() {}
 
+    /** Writes the system to the given folder, or its default location if null, and blocks until it is on disk. */
     public void save(File folder) {
-        File file = getFile();
-        if (file == null) return;
-
-        NbtCompound tag = toTag();
-        if (tag == null) return;
-
-        try {
-            File tempFile = File.createTempFile(MeteorClient.MOD_ID, file.getName());
-            NbtIo.write(tag, tempFile.toPath());
-
-            if (folder != null) file = new File(folder, file.getName());
-
-            file.getParentFile().mkdirs();
-
-            try {
-                Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
-            } catch (AtomicMoveNotSupportedException e) {
-                StreamUtils.copy(tempFile, file);
-            }
-
-            tempFile.delete();
-        } catch (IOException e) {
-            MeteorClient.LOG.error("Error saving {}. Possibly corrupted?", this.name, e);
-        }
+        SaveScheduler.submit(this, folder).join();
     }
 
+    /** Schedules the system to be written in the background, see {@link SaveScheduler}. */
     public void save() {
-        save(null);
+        SaveScheduler.schedule(this);
     }
 
     public void load(File folder) {
@@ -79,7 +79,11 @@ public class Systems {
         long start = java.lang.System.currentTimeMillis();
         MeteorClient.LOG.info("Saving");
 
-        for (System<?> system : systems.values()) system.save(folder);
+        // Every system is written below, pending background saves would only write the same data again
+        if (folder == null) SaveScheduler.clearDirty();
+
+        for (System<?> system : systems.values()) SaveScheduler.submit(system, folder);
+        SaveScheduler.await();
 
         MeteorClient.LOG.info("Saved in {} milliseconds.", java.lang.System.currentTimeMillis() - start);
     }
@@ -10,6 +10,7 @@ import meteordevelopment.meteorclient.utils.misc.ISerializable;
 import meteordevelopment.meteorclient.utils.network.Http;
 import meteordevelopment.meteorclient.utils.render.PlayerHeadTexture;
 import meteordevelopment.meteorclient.utils.render.PlayerHeadUtils;
+import meteordevelopment.meteorclient.utils.social.SocialIndex;
 import net.minecraft.entity.player.PlayerEntity;
 import net.minecraft.nbt.NbtCompound;
 import net.minecraft.nbt.NbtList;
@@ -18,10 +19,13 @@ import org.jetbrains.annotations.NotNull;
 
 import javax.annotation.Nullable;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class AltAccount implements ISerializable<AltAccount>, Comparable<AltAccount> {
     public volatile String mainAccount;
     public volatile Set<String> altAccounts;
+    // Lowercase names of the main account and every alt, so lookups don't depend on the group size
+    private final Set<String> names = ConcurrentHashMap.newKeySet();
     private volatile @Nullable PlayerHeadTexture headTexture;
     private volatile boolean updating;
 
@@ -29,12 +33,17 @@ public class AltAccount implements ISerializable<AltAccount>, Comparable<AltAcco
         this.mainAccount = mainAccount;
         this.altAccounts = new HashSet<>();
         this.headTexture = null;
+
+        names.add(mainAccount.toLowerCase(Locale.ROOT));
     }
 
     public AltAccount(String mainAccount, Set<String> altAccounts) {
         this.mainAccount = mainAccount;
-        this.altAccounts = new HashSet<>(altAccounts);
+        this.altAccounts = new HashSet<>();
         this.headTexture = null;
+
+        names.add(mainAccount.toLowerCase(Locale.ROOT));
+        for (String alt : altAccounts) addAlt(alt);
     }
 
     public AltAccount(PlayerEntity player) {
@@ -49,40 +58,55 @@ public class AltAccount implements ISerializable<AltAccount>, Comparable<AltAcco
         return new HashSet<>(altAccounts);
     }
 
-    public void addAlt(String altName) {
+    /** Adds the alt unless the group already has the account in any case, returns whether it was added. */
+    public boolean addAlt(String altName) {
+        if (!names.add(altName.toLowerCase(Locale.ROOT))) return false;
+
         altAccounts.add(altName);
+        return true;
     }
 
     public void removeAlt(String altName) {
-        altAccounts.remove(altName);
+        if (hasAlt(altName) && altAccounts.removeIf(alt -> alt.equalsIgnoreCase(altName))) {
+            names.remove(altName.toLowerCase(Locale.ROOT));
+        }
+    }
+
+    /** Replaces the main account by one of the alts, the group must have at least one. */
+    public void promoteAlt() {
+        String newMain = altAccounts.iterator().next();
+        altAccounts.remove(newMain);
+
+        names.remove(mainAccount.toLowerCase(Locale.ROOT));
+        mainAccount = newMain;
     }
 
     public boolean hasAlt(String altName) {
-        return altAccounts.contains(altName);
+        return !mainAccount.equalsIgnoreCase(altName) && names.contains(altName.toLowerCase(Locale.ROOT));
     }
 
     public boolean isMainOrAlt(String playerName) {
-        return mainAccount.equals(playerName) || altAccounts.contains(playerName);
+        return names.contains(playerName.toLowerCase(Locale.ROOT));
     }
 
     public String getDisplayText(String currentPlayer) {
-        if (mainAccount.equals(currentPlayer)) {
+        if (mainAccount.equalsIgnoreCase(currentPlayer)) {
             if (altAccounts.isEmpty()) return mainAccount;
             return mainAccount + " (+" + altAccounts.size() + " alts)";
-        } else if (altAccounts.contains(currentPlayer)) {
+        } else if (hasAlt(currentPlayer)) {
             return currentPlayer + " (" + mainAccount + ")";
         }
         return currentPlayer;
     }
 
     public String getDisplayText(String currentPlayer, Collection<String> onlinePlayers) {
-        if (mainAccount.equals(currentPlayer)) {
+        if (mainAccount.equalsIgnoreCase(currentPlayer)) {
             if (altAccounts.isEmpty()) return mainAccount;
             // Count only online alts
-            long onlineAlts = altAccounts.stream().filter(onlinePlayers::contains).count();
+            long onlineAlts = onlinePlayers.stream().filter(this::hasAlt).count();
             if (onlineAlts == 0) return mainAccount;
             return mainAccount + " (+" + onlineAlts + ")";
-        } else if (altAccounts.contains(currentPlayer)) {
+        } else if (hasAlt(currentPlayer)) {
             return currentPlayer + " (" + mainAccount + ")";
         }
         return currentPlayer;
@@ -103,7 +127,10 @@ public class AltAccount implements ISerializable<AltAccount>, Comparable<AltAcco
         updating = true;
         APIResponse res = Http.get("https://api.mojang.com/users/profiles/minecraft/" + mainAccount).sendJson(APIResponse.class);
         if (res == null || res.name == null || res.id == null) return;
+        names.remove(mainAccount.toLowerCase(Locale.ROOT));
+        names.add(res.name.toLowerCase(Locale.ROOT));
         mainAccount = res.name;
+        SocialIndex.invalidate();
         UUID id = UndashedUuid.fromStringLenient(res.id);
         headTexture = PlayerHeadUtils.fetchHead(id);
         updating = false;
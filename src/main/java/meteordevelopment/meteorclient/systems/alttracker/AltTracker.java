@@ -5,10 +5,12 @@
 
 package meteordevelopment.meteorclient.systems.alttracker;
 
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
 import meteordevelopment.meteorclient.systems.System;
 import meteordevelopment.meteorclient.systems.Systems;
 import meteordevelopment.meteorclient.utils.misc.NbtUtils;
 import meteordevelopment.meteorclient.utils.network.MeteorExecutor;
+import meteordevelopment.meteorclient.utils.social.SocialIndex;
 import net.minecraft.client.network.PlayerListEntry;
 import net.minecraft.entity.player.PlayerEntity;
 import net.minecraft.nbt.NbtCompound;
@@ -34,39 +36,41 @@ public class AltTracker extends System<AltTracker> implements Iterable<AltAccoun
     public boolean addAltGroup(AltAccount altAccount) {
         if (altAccount.mainAccount.isEmpty() || altAccount.mainAccount.contains(" ")) return false;
 
-        // Check if main account already exists
-        AltAccount existing = getByMainAccount(altAccount.mainAccount);
-        if (existing != null) {
-            // Merge alt accounts
-            existing.altAccounts.addAll(altAccount.altAccounts);
-            save();
-            return true;
-        }
+        // Find every group already tracking one of the accounts, the main account is checked first so its group is kept
+        AltAccount existing = null;
+        Set<AltAccount> merged = new ReferenceOpenHashSet<>();
 
-        // Check if any account in this group is already tracked elsewhere
         for (String account : altAccount.getAllAccounts()) {
-            AltAccount existingGroup = getGroupByPlayer(account);
-            if (existingGroup != null) {
-                // Merge groups
-                Set<String> allAccounts = new HashSet<>(altAccount.getAllAccounts());
-                allAccounts.addAll(existingGroup.getAllAccounts());
-                allAccounts.remove(existingGroup.mainAccount); // Remove main from alt list
-
-                existingGroup.altAccounts.clear();
-                existingGroup.altAccounts.addAll(allAccounts);
-                existingGroup.altAccounts.remove(existingGroup.mainAccount); // Ensure main isn't in alt list
-                save();
-                return true;
-            }
+            AltAccount group = getGroupByPlayer(account);
+            if (group == null) continue;
+
+            if (existing == null) existing = group;
+            else if (group != existing) merged.add(group);
         }
 
-        altAccounts.add(altAccount);
+        if (existing == null) {
+            altAccounts.add(altAccount);
+        } else {
+            // Union of the groups, the others are folded into the existing one
+            for (AltAccount group : merged) merge(existing, group.getAllAccounts());
+            merge(existing, altAccount.getAllAccounts());
+
+            if (!merged.isEmpty()) altAccounts.removeIf(merged::contains);
+        }
+
+        SocialIndex.invalidate();
         save();
         return true;
     }
 
+    /** Adds the accounts as alts of the group, skipping the ones it already has in any case. */
+    private static void merge(AltAccount group, Collection<String> accounts) {
+        for (String account : accounts) group.addAlt(account);
+    }
+
     public boolean remove(AltAccount altAccount) {
         if (altAccounts.remove(altAccount)) {
+            SocialIndex.invalidate();
             save();
             return true;
         }
@@ -77,42 +81,34 @@ public class AltTracker extends System<AltTracker> implements Iterable<AltAccoun
         AltAccount group = getGroupByPlayer(playerName);
         if (group == null) return false;
 
-        if (group.mainAccount.equals(playerName)) {
+        if (group.mainAccount.equalsIgnoreCase(playerName)) {
             // Removing main account - either delete group or promote an alt
             if (group.altAccounts.isEmpty()) {
                 return remove(group);
             } else {
                 // Promote first alt to main
-                String newMain = group.altAccounts.iterator().next();
-                group.altAccounts.remove(newMain);
-                group.mainAccount = newMain;
+                group.promoteAlt();
+                SocialIndex.invalidate();
                 save();
                 return true;
             }
         } else {
             // Removing alt account
             group.removeAlt(playerName);
+            SocialIndex.invalidate();
             save();
             return true;
         }
     }
 
     public AltAccount getByMainAccount(String mainAccount) {
-        for (AltAccount altAccount : altAccounts) {
-            if (altAccount.mainAccount.equals(mainAccount)) {
-                return altAccount;
-            }
-        }
-        return null;
+        AltAccount group = getGroupByPlayer(mainAccount);
+        return group != null && group.mainAccount.equalsIgnoreCase(mainAccount) ? group : null;
     }
 
     public AltAccount getGroupByPlayer(String playerName) {
-        for (AltAccount altAccount : altAccounts) {
-            if (altAccount.isMainOrAlt(playerName)) {
-                return altAccount;
-            }
-        }
-        return null;
+        SocialIndex.Relations relations = SocialIndex.get(playerName);
+        return relations != null ? relations.getAltGroup() : null;
     }
 
     public AltAccount get(PlayerEntity player) {
@@ -145,7 +141,7 @@ public class AltTracker extends System<AltTracker> implements Iterable<AltAccoun
         if (group == null) return Collections.emptyList();
         
         List<String> alts = new ArrayList<>(group.altAccounts);
-        if (!group.mainAccount.equals(playerName)) {
+        if (!group.mainAccount.equalsIgnoreCase(playerName)) {
             alts.add(0, group.mainAccount); // Add main account if current player is an alt
         }
         return alts;
@@ -173,19 +169,19 @@ public class AltTracker extends System<AltTracker> implements Iterable<AltAccoun
         } else if (group1 == null) {
             // Add player1 to group2
             group2.addAlt(player1);
+            SocialIndex.invalidate();
             save();
             return true;
         } else if (group2 == null) {
             // Add player2 to group1
             group1.addAlt(player2);
+            SocialIndex.invalidate();
             save();
             return true;
         } else {
             // Merge two existing groups
-            group1.altAccounts.addAll(group2.altAccounts);
-            group1.altAccounts.add(group2.mainAccount);
+            merge(group1, group2.getAllAccounts());
             remove(group2);
-            save();
             return true;
         }
     }
@@ -223,20 +219,22 @@ public class AltTracker extends System<AltTracker> implements Iterable<AltAccoun
     @Override
     public AltTracker fromTag(NbtCompound tag) {
         altAccounts.clear();
+        Set<String> names = new HashSet<>();
 
         for (NbtElement itemTag : tag.getList("altAccounts", 10)) {
             NbtCompound altAccountTag = (NbtCompound) itemTag;
             if (!altAccountTag.contains("mainAccount")) continue;
 
             String mainAccount = altAccountTag.getString("mainAccount");
-            if (getByMainAccount(mainAccount) != null) continue;
+            if (!names.add(mainAccount.toLowerCase(Locale.ROOT))) continue;
 
             AltAccount altAccount = new AltAccount(mainAccount);
             
             if (altAccountTag.contains("altAccounts")) {
                 NbtList altList = altAccountTag.getList("altAccounts", 8); // 8 = String type
                 for (NbtElement altElement : altList) {
-                    altAccount.addAlt(altElement.asString());
+                    String alt = altElement.asString();
+                    if (names.add(alt.toLowerCase(Locale.ROOT))) altAccount.addAlt(alt);
                 }
             }
 
@@ -244,6 +242,7 @@ public class AltTracker extends System<AltTracker> implements Iterable<AltAccoun
         }
 
         Collections.sort(altAccounts);
+        SocialIndex.invalidate();
 
         MeteorExecutor.execute(() -> altAccounts.forEach(AltAccount::updateInfo));
 
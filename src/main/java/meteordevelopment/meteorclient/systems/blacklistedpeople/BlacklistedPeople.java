@@ -10,16 +10,14 @@ import meteordevelopment.meteorclient.systems.System;
 import meteordevelopment.meteorclient.systems.Systems;
 import meteordevelopment.meteorclient.utils.misc.NbtUtils;
 import meteordevelopment.meteorclient.utils.network.MeteorExecutor;
+import meteordevelopment.meteorclient.utils.social.SocialIndex;
 import net.minecraft.client.network.PlayerListEntry;
 import net.minecraft.entity.player.PlayerEntity;
 import net.minecraft.nbt.NbtCompound;
 import net.minecraft.nbt.NbtElement;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Iterator;
-import java.util.List;
+import java.util.*;
 
 public class BlacklistedPeople extends System<BlacklistedPeople> implements Iterable<BlacklistedPerson> {
     private final List<BlacklistedPerson> blacklistedPeople = new ArrayList<>();
@@ -37,6 +35,7 @@ public class BlacklistedPeople extends System<BlacklistedPeople> implements Iter
 
         if (!blacklistedPeople.contains(blacklistedPerson)) {
             blacklistedPeople.add(blacklistedPerson);
+            SocialIndex.invalidate();
             save();
 
             return true;
@@ -47,6 +46,7 @@ public class BlacklistedPeople extends System<BlacklistedPeople> implements Iter
 
     public boolean remove(BlacklistedPerson blacklistedPerson) {
         if (blacklistedPeople.remove(blacklistedPerson)) {
+            SocialIndex.invalidate();
             save();
             return true;
         }
@@ -55,21 +55,18 @@ public class BlacklistedPeople extends System<BlacklistedPeople> implements Iter
     }
 
     public BlacklistedPerson get(String name) {
-        for (BlacklistedPerson blacklistedPerson : blacklistedPeople) {
-            if (blacklistedPerson.name.equals(name)) {
-                return blacklistedPerson;
-            }
-        }
-
-        return null;
+        SocialIndex.Relations relations = SocialIndex.get(name);
+        return relations != null ? relations.getBlacklistedPerson() : null;
     }
 
     public BlacklistedPerson get(PlayerEntity player) {
-        return get(player.getName().getString());
+        SocialIndex.Relations relations = SocialIndex.get(player);
+        return relations != null ? relations.getBlacklistedPerson() : null;
     }
 
     public BlacklistedPerson get(PlayerListEntry player) {
-        return get(player.getProfile().getName());
+        SocialIndex.Relations relations = SocialIndex.get(player);
+        return relations != null ? relations.getBlacklistedPerson() : null;
     }
 
     public boolean isBlacklisted(PlayerEntity player) {
@@ -109,13 +106,14 @@ public class BlacklistedPeople extends System<BlacklistedPeople> implements Iter
     @Override
     public BlacklistedPeople fromTag(NbtCompound tag) {
         blacklistedPeople.clear();
+        Set<String> names = new HashSet<>();
 
         for (NbtElement itemTag : tag.getList("blacklistedpeople", 10)) {
             NbtCompound blacklistedPersonTag = (NbtCompound) itemTag;
             if (!blacklistedPersonTag.contains("name")) continue;
 
             String name = blacklistedPersonTag.getString("name");
-            if (get(name) != null) continue;
+            if (!names.add(name.toLowerCase(Locale.ROOT))) continue;
 
             String uuid = blacklistedPersonTag.getString("id");
             BlacklistedPerson blacklistedPerson = !uuid.isBlank()
@@ -126,6 +124,7 @@ public class BlacklistedPeople extends System<BlacklistedPeople> implements Iter
         }
 
         Collections.sort(blacklistedPeople);
+        SocialIndex.invalidate();
 
         MeteorExecutor.execute(() -> blacklistedPeople.forEach(BlacklistedPerson::updateInfo));
 
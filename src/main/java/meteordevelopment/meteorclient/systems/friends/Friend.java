@@ -12,6 +12,7 @@ import meteordevelopment.meteorclient.utils.network.FailedHttpResponse;
 import meteordevelopment.meteorclient.utils.network.Http;
 import meteordevelopment.meteorclient.utils.render.PlayerHeadTexture;
 import meteordevelopment.meteorclient.utils.render.PlayerHeadUtils;
+import meteordevelopment.meteorclient.utils.social.SocialIndex;
 import net.minecraft.entity.player.PlayerEntity;
 import net.minecraft.nbt.NbtCompound;
 import org.jetbrains.annotations.NotNull;
@@ -46,6 +47,10 @@ public class Friend implements ISerializable<Friend>, Comparable<Friend> {
         return name;
     }
 
+    public @Nullable UUID getId() {
+        return id;
+    }
+
     public PlayerHeadTexture getHead() {
         return headTexture != null ? headTexture : PlayerHeadUtils.STEVE_HEAD;
     }
@@ -78,6 +83,7 @@ public class Friend implements ISerializable<Friend>, Comparable<Friend> {
             id = null;
         }
 
+        SocialIndex.invalidate();
         updating = false;
     }
 
@@ -10,16 +10,14 @@ import meteordevelopment.meteorclient.systems.System;
 import meteordevelopment.meteorclient.systems.Systems;
 import meteordevelopment.meteorclient.utils.misc.NbtUtils;
 import meteordevelopment.meteorclient.utils.network.MeteorExecutor;
+import meteordevelopment.meteorclient.utils.social.SocialIndex;
 import net.minecraft.client.network.PlayerListEntry;
 import net.minecraft.entity.player.PlayerEntity;
 import net.minecraft.nbt.NbtCompound;
 import net.minecraft.nbt.NbtElement;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Iterator;
-import java.util.List;
+import java.util.*;
 
 public class Friends extends System<Friends> implements Iterable<Friend> {
     private final List<Friend> friends = new ArrayList<>();
@@ -37,6 +35,7 @@ public class Friends extends System<Friends> implements Iterable<Friend> {
 
         if (!friends.contains(friend)) {
             friends.add(friend);
+            SocialIndex.invalidate();
             save();
 
             return true;
@@ -47,6 +46,7 @@ public class Friends extends System<Friends> implements Iterable<Friend> {
 
     public boolean remove(Friend friend) {
         if (friends.remove(friend)) {
+            SocialIndex.invalidate();
             save();
             return true;
         }
@@ -55,21 +55,18 @@ public class Friends extends System<Friends> implements Iterable<Friend> {
     }
 
     public Friend get(String name) {
-        for (Friend friend : friends) {
-            if (friend.name.equalsIgnoreCase(name)) {
-                return friend;
-            }
-        }
-
-        return null;
+        SocialIndex.Relations relations = SocialIndex.get(name);
+        return relations != null ? relations.getFriend() : null;
     }
 
     public Friend get(PlayerEntity player) {
-        return get(player.getName().getString());
+        SocialIndex.Relations relations = SocialIndex.get(player);
+        return relations != null ? relations.getFriend() : null;
     }
 
     public Friend get(PlayerListEntry player) {
-        return get(player.getProfile().getName());
+        SocialIndex.Relations relations = SocialIndex.get(player);
+        return relations != null ? relations.getFriend() : null;
     }
 
     public boolean isFriend(PlayerEntity player) {
@@ -109,13 +106,14 @@ public class Friends extends System<Friends> implements Iterable<Friend> {
     @Override
     public Friends fromTag(NbtCompound tag) {
         friends.clear();
+        Set<String> names = new HashSet<>();
 
         for (NbtElement itemTag : tag.getListOrEmpty("friends")) {
             NbtCompound friendTag = (NbtCompound) itemTag;
             if (!friendTag.contains("name")) continue;
 
             String name = friendTag.getString("name", "");
-            if (get(name) != null) continue;
+            if (!names.add(name.toLowerCase(Locale.ROOT))) continue;
 
             String uuid = friendTag.getString("id", "");
             Friend friend = !uuid.isBlank()
@@ -126,6 +124,7 @@ public class Friends extends System<Friends> implements Iterable<Friend> {
         }
 
         Collections.sort(friends);
+        SocialIndex.invalidate();
 
         MeteorExecutor.execute(() -> friends.forEach(Friend::updateInfo));
 
@@ -5,16 +5,16 @@
 
 package meteordevelopment.meteorclient.systems.hud;
 
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
+import com.mojang.blaze3d.textures.GpuTextureView;
 import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
 import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
 import meteordevelopment.meteorclient.MeteorClient;
 import meteordevelopment.meteorclient.events.meteor.CustomFontChangedEvent;
 import meteordevelopment.meteorclient.renderer.*;
 import meteordevelopment.meteorclient.renderer.text.CustomTextRenderer;
 import meteordevelopment.meteorclient.renderer.text.Font;
+import meteordevelopment.meteorclient.renderer.text.GlyphAtlas;
 import meteordevelopment.meteorclient.renderer.text.VanillaTextRenderer;
 import meteordevelopment.meteorclient.utils.Utils;
 import meteordevelopment.meteorclient.utils.render.RenderUtils;
@@ -28,12 +28,12 @@ import net.minecraft.util.Identifier;
 import org.joml.Quaternionf;
 import org.joml.Vector3f;
 import org.lwjgl.BufferUtils;
+import org.lwjgl.stb.STBTTFontinfo;
 
 import java.nio.ByteBuffer;
-import java.time.Duration;
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 import static meteordevelopment.meteorclient.MeteorClient.mc;
 
@@ -45,15 +45,16 @@ public class HudRenderer {
     private final Hud hud = Hud.get();
     private final List<Runnable> postTasks = new ArrayList<>();
 
-    private final Int2ObjectMap<FontHolder> fontsInUse = new Int2ObjectOpenHashMap<>();
-    private final LoadingCache<Integer, FontHolder> fontCache = CacheBuilder.newBuilder()
-        .maximumSize(4)
-        .expireAfterAccess(Duration.ofMinutes(10))
-        .removalListener(notification -> {
-            if (notification.wasEvicted())
-                ((FontHolder) notification.getValue()).destroy();
-        })
-        .build(CacheLoader.from(HudRenderer::loadFont));
+    // Geometry is batched for the whole frame, post tasks get their own batch drawn after all of them ran
+    private final Renderer2D postColor = new Renderer2D(false);
+    private final Map<Identifier, Renderer2D> textures = new Object2ObjectOpenHashMap<>();
+    private Renderer2D color;
+
+    private int drawCalls, vertices;
+    private int lastDrawCalls, lastVertices;
+
+    // Sizes of the custom font, created when first used
+    private FontHolder fontHolder;
 
     public DrawContext drawContext;
     public double delta;
@@ -63,76 +64,114 @@ public class HudRenderer {
     }
 
     public void begin(DrawContext drawContext) {
-        Renderer2D.COLOR.begin();
+        color = Renderer2D.COLOR;
+        color.begin();
+
+        drawCalls = 0;
+        vertices = 0;
 
         this.drawContext = drawContext;
         this.delta = Utils.frameTime;
 
         drawContext.createNewRootLayer();
 
-        if (!hud.hasCustomFont()) {
+        if (hud.hasCustomFont()) {
+            getFontHolder().atlas.beginBatch();
+        }
+        else {
             VanillaTextRenderer.INSTANCE.scaleIndividually = true;
             VanillaTextRenderer.INSTANCE.begin();
         }
     }
 
     public void end() {
-        Renderer2D.COLOR.render();
+        // Textures used to be drawn as soon as they were requested, below everything else
+        flushTextures();
+        flush(Renderer2D.COLOR, null);
 
         if (hud.hasCustomFont()) {
-            // Render fonts that were visited this frame and move to cache which weren't visited
-            for (Iterator<FontHolder> it = fontsInUse.values().iterator(); it.hasNext(); ) {
-                FontHolder fontHolder = it.next();
-
-                if (fontHolder.visited) {
-                    MeshRenderer.begin()
-                        .attachments(mc.getFramebuffer())
-                        .pipeline(MeteorRenderPipelines.UI_TEXT)
-                        .mesh(fontHolder.getMesh())
-                        .sampler("u_Texture", fontHolder.font.texture.getGlTextureView())
-                        .end();
-                }
-                else {
-                    it.remove();
-                    fontCache.put(fontHolder.font.getHeight(), fontHolder);
-                }
-
-                fontHolder.visited = false;
-            }
+            // Text of every size is drawn once per atlas page it uses, each page counts as a draw call
+            getFontHolder().atlas.draw(this::count);
         }
         else {
             VanillaTextRenderer.INSTANCE.end();
             VanillaTextRenderer.INSTANCE.scaleIndividually = false;
         }
 
+        color = postColor;
+        color.begin();
+
         for (Runnable task : postTasks) task.run();
         postTasks.clear();
 
+        flushTextures();
+        flush(postColor, null);
+        color = Renderer2D.COLOR;
+
+        lastDrawCalls = drawCalls;
+        lastVertices = vertices;
+
         drawContext.createNewRootLayer();
 
         drawContext = null;
     }
 
+    private void flushTextures() {
+        for (Map.Entry<Identifier, Renderer2D> entry : textures.entrySet()) {
+            Renderer2D batch = entry.getValue();
+            if (batch.triangles.isBuilding()) flush(batch, mc.getTextureManager().getTexture(entry.getKey()).getGlTextureView());
+        }
+    }
+
+    private void flush(Renderer2D renderer, GpuTextureView texture) {
+        if (renderer.lines.isBuilding()) count(renderer.lines);
+        if (renderer.triangles.isBuilding()) count(renderer.triangles);
+
+        if (texture != null) renderer.render(texture);
+        else renderer.render();
+    }
+
+    private void count(MeshBuilder mesh) {
+        if (mesh.getIndicesCount() == 0) return;
+
+        drawCalls++;
+        vertices += mesh.getVertexCount();
+    }
+
+    /** Meshes submitted by the last frame, items, entities and vanilla text are batched by the game and not counted. */
+    public int getDrawCalls() {
+        return lastDrawCalls;
+    }
+
+    public int getVertexCount() {
+        return lastVertices;
+    }
+
     public void line(double x1, double y1, double x2, double y2, Color color) {
-        Renderer2D.COLOR.line(x1, y1, x2, y2, color);
+        this.color.line(x1, y1, x2, y2, color);
+    }
+
+    public void boxLines(double x, double y, double width, double height, Color color) {
+        this.color.boxLines(x, y, width, height, color);
     }
 
     public void quad(double x, double y, double width, double height, Color color) {
-        Renderer2D.COLOR.quad(x, y, width, height, color);
+        this.color.quad(x, y, width, height, color);
     }
 
     public void quad(double x, double y, double width, double height, Color cTopLeft, Color cTopRight, Color cBottomRight, Color cBottomLeft) {
-        Renderer2D.COLOR.quad(x, y, width, height, cTopLeft, cTopRight, cBottomRight, cBottomLeft);
+        this.color.quad(x, y, width, height, cTopLeft, cTopRight, cBottomRight, cBottomLeft);
     }
 
     public void triangle(double x1, double y1, double x2, double y2, double x3, double y3, Color color) {
-        Renderer2D.COLOR.triangle(x1, y1, x2, y2, x3, y3, color);
+        this.color.triangle(x1, y1, x2, y2, x3, y3, color);
     }
 
     public void texture(Identifier id, double x, double y, double width, double height, Color color) {
-        Renderer2D.TEXTURE.begin();
-        Renderer2D.TEXTURE.texQuad(x, y, width, height, color);
-        Renderer2D.TEXTURE.render(mc.getTextureManager().getTexture(id).getGlTextureView());
+        Renderer2D batch = textures.computeIfAbsent(id, i -> new Renderer2D(true));
+        if (!batch.triangles.isBuilding()) batch.begin();
+
+        batch.texQuad(x, y, width, height, color);
     }
 
     public double text(String text, double x, double y, Color color, boolean shadow, double scale) {
@@ -143,10 +182,7 @@ public class HudRenderer {
             return VanillaTextRenderer.INSTANCE.render(text, x, y, color, shadow);
         }
 
-        FontHolder fontHolder = getFontHolder(scale, true);
-
-        Font font = fontHolder.font;
-        MeshBuilder mesh = fontHolder.getMesh();
+        Font font = getFont(scale);
 
         double width;
 
@@ -154,13 +190,13 @@ public class HudRenderer {
             int preShadowA = CustomTextRenderer.SHADOW_COLOR.a;
             CustomTextRenderer.SHADOW_COLOR.a = (int) (color.a / 255.0 * preShadowA);
 
-            width = font.render(mesh, text, x + 1, y + 1, CustomTextRenderer.SHADOW_COLOR, scale);
-            font.render(mesh, text, x, y, color, scale);
+            width = font.render(text, x + 1, y + 1, CustomTextRenderer.SHADOW_COLOR, scale);
+            font.render(text, x, y, color, scale);
 
             CustomTextRenderer.SHADOW_COLOR.a = preShadowA;
         }
         else {
-            width = font.render(mesh, text, x, y, color, scale);
+            width = font.render(text, x, y, color, scale);
         }
 
         return width;
@@ -255,74 +291,52 @@ public class HudRenderer {
         drawContext.addEntity(state, scale, translation, rotation, null, x1, y1, x2, y2);
     }
 
-    private FontHolder getFontHolder(double scale, boolean render) {
+    private FontHolder getFontHolder() {
+        if (fontHolder == null) fontHolder = loadFont();
+        return fontHolder;
+    }
+
+    private Font getFont(double scale) {
         // Calculate font height
         if (scale == -1) scale = hud.getTextScale();
         int height = (int) Math.round(scale / SCALE_TO_HEIGHT);
 
-        // Check fonts in use
-        FontHolder fontHolder = fontsInUse.get(height);
-        if (fontHolder != null) {
-            if (render) fontHolder.visited = true;
-            return fontHolder;
-        }
-
-        // Create font if not in cache otherwise remove from cache and add to fonts in use
-        if (render) {
-            fontHolder = fontCache.getIfPresent(height);
-            if (fontHolder == null) fontHolder = loadFont(height);
-            else fontCache.invalidate(height);
-
-            fontsInUse.put(height, fontHolder);
-            fontHolder.visited = true;
-
-            return fontHolder;
-        }
-
-        // Otherwise get from cache
-        return fontCache.getUnchecked(height);
-    }
-
-    private Font getFont(double scale) {
-        return getFontHolder(scale, false).font;
+        return getFontHolder().get(height);
     }
 
     @EventHandler
     private void onCustomFontChanged(CustomFontChangedEvent event) {
-        // Need to destroy both fonts in use and in cache because they were not evicted from the cache automatically
-        for (FontHolder fontHolder : fontsInUse.values()) fontHolder.destroy();
-        for (FontHolder fontHolder : fontCache.asMap().values()) fontHolder.destroy();
-
-        // Clear collections
-        fontsInUse.clear();
-        fontCache.invalidateAll();
+        if (fontHolder != null) {
+            fontHolder.destroy();
+            fontHolder = null;
+        }
     }
 
-    private static FontHolder loadFont(int height) {
+    private static FontHolder loadFont() {
         byte[] data = Utils.readBytes(Fonts.RENDERER.fontFace.toStream());
         ByteBuffer buffer = BufferUtils.createByteBuffer(data.length).put(data).flip();
 
-        return new FontHolder(new Font(buffer, height));
+        return new FontHolder(buffer);
     }
 
+    /** Every height of the custom font, all sharing one glyph atlas so only glyphs that are drawn take up space. */
     private static class FontHolder {
-        public final Font font;
-        public boolean visited;
+        public final GlyphAtlas atlas;
 
-        private MeshBuilder mesh;
+        private final STBTTFontinfo fontInfo;
+        private final Int2ObjectMap<Font> fonts = new Int2ObjectOpenHashMap<>();
 
-        public FontHolder(Font font) {
-            this.font = font;
+        public FontHolder(ByteBuffer buffer) {
+            atlas = new GlyphAtlas(buffer);
+            fontInfo = Font.createFontInfo(buffer);
         }
 
-        public MeshBuilder getMesh() {
-            if (mesh == null) mesh = new MeshBuilder(MeteorRenderPipelines.UI_TEXT);
-            if (!mesh.isBuilding()) mesh.begin();
-            return mesh;
+        public Font get(int height) {
+            return fonts.computeIfAbsent(height, h -> new Font(atlas, fontInfo, h));
         }
 
         public void destroy() {
-            font.texture.close();
+            atlas.close();
         }
     }
 }
@@ -9,7 +9,6 @@ import com.mojang.blaze3d.systems.RenderSystem;
 import it.unimi.dsi.fastutil.objects.Object2IntMap;
 import it.unimi.dsi.fastutil.objects.ObjectIntImmutablePair;
 import it.unimi.dsi.fastutil.objects.ObjectIntPair;
-import meteordevelopment.meteorclient.renderer.Renderer2D;
 import meteordevelopment.meteorclient.renderer.text.TextRenderer;
 import meteordevelopment.meteorclient.settings.*;
 import meteordevelopment.meteorclient.systems.config.Config;
@@ -228,6 +227,20 @@ public class CombatHud extends HudElement {
 
     @Override
     public void render(HudRenderer renderer) {
+        if (isInEditor()) playerEntity = mc.player;
+        else playerEntity = TargetUtils.getPlayerTarget(range.get(), SortPriority.LowestDistance);
+
+        if (playerEntity == null && !isInEditor()) return;
+
+        // Batched with the other elements, below everything drawn in the post task
+        if (background.get()) renderer.quad(x, y, getWidth(), getHeight(), backgroundColor.get());
+
+        if (playerEntity == null) {
+            renderer.line(x, y, x + getWidth(), y + getHeight(), Color.GRAY);
+            renderer.line(x + getWidth(), y, x, y + getHeight(), Color.GRAY);
+            return;
+        }
+
         renderer.post(() -> {
             double x = this.x;
             double y = this.y;
@@ -236,26 +249,6 @@ public class CombatHud extends HudElement {
             Color primaryColor = TextHud.getSectionColor(0);
             Color secondaryColor = TextHud.getSectionColor(1);
 
-            if (isInEditor()) playerEntity = mc.player;
-            else playerEntity = TargetUtils.getPlayerTarget(range.get(), SortPriority.LowestDistance);
-
-            if (playerEntity == null && !isInEditor()) return;
-
-            if (background.get()) {
-                Renderer2D.COLOR.begin();
-                Renderer2D.COLOR.quad(x, y, getWidth(), getHeight(), backgroundColor.get());
-            }
-
-            if (playerEntity == null) {
-                if (isInEditor()) {
-                    renderer.line(x, y, x + getWidth(), y + getHeight(), Color.GRAY);
-                    renderer.line(x + getWidth(), y, x, y + getHeight(), Color.GRAY);
-                    Renderer2D.COLOR.render(); // I know, ill fix it soon
-                }
-                return;
-            }
-            Renderer2D.COLOR.render();
-
             // Player Model
             renderer.entity(
                 playerEntity,
@@ -409,23 +402,16 @@ public class CombatHud extends HudElement {
 
             TextRenderer.get().end();
 
-            y = (int) (this.y + 75 * getScale());
-            x = this.x;
-
-            // Health bar
-
-            x /= getScale();
-            y /= getScale();
+            // Health bar, in unscaled coordinates since it is drawn with the batch of all post tasks
+            double s = getScale();
 
-            x += 5;
-            y += 5;
+            x = this.x + 5 * s;
+            y = (int) (this.y + 75 * s) + 5 * s;
 
-            Renderer2D.COLOR.begin();
-            Renderer2D.COLOR.boxLines(x, y, 165, 11, BLACK);
-            Renderer2D.COLOR.render();
+            renderer.boxLines(x, y, 165 * s, 11 * s, BLACK);
 
-            x += 2;
-            y += 2;
+            x += 2 * s;
+            y += 2 * s;
 
             float maxHealth = playerEntity.getMaxHealth();
             int maxAbsorb = 16;
@@ -443,10 +429,8 @@ public class CombatHud extends HudElement {
             int healthWidth = (int) (totalHealthWidth * healthPercent);
             int absorbWidth = (int) (totalAbsorbWidth * absorbPercent);
 
-            Renderer2D.COLOR.begin();
-            Renderer2D.COLOR.quad(x, y, healthWidth, 7, healthColor1.get(), healthColor2.get(), healthColor2.get(), healthColor1.get());
-            Renderer2D.COLOR.quad(x + healthWidth, y, absorbWidth, 7, healthColor2.get(), healthColor3.get(), healthColor3.get(), healthColor2.get());
-            Renderer2D.COLOR.render();
+            renderer.quad(x, y, healthWidth * s, 7 * s, healthColor1.get(), healthColor2.get(), healthColor2.get(), healthColor1.get());
+            renderer.quad(x + healthWidth * s, y, absorbWidth * s, 7 * s, healthColor2.get(), healthColor3.get(), healthColor3.get(), healthColor2.get());
 
             matrices.popMatrix();
         });
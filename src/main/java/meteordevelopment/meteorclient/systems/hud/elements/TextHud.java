@@ -12,10 +12,10 @@ import meteordevelopment.meteorclient.systems.hud.Hud;
 import meteordevelopment.meteorclient.systems.hud.HudElement;
 import meteordevelopment.meteorclient.systems.hud.HudElementInfo;
 import meteordevelopment.meteorclient.systems.hud.HudRenderer;
+import meteordevelopment.meteorclient.utils.misc.CachedScript;
 import meteordevelopment.meteorclient.utils.misc.MeteorStarscript;
 import meteordevelopment.meteorclient.utils.render.color.Color;
 import meteordevelopment.meteorclient.utils.render.color.SettingColor;
-import org.meteordev.starscript.Script;
 import org.meteordev.starscript.Section;
 import org.meteordev.starscript.compiler.Compiler;
 import org.meteordev.starscript.compiler.Parser;
@@ -132,7 +132,7 @@ public class TextHud extends HudElement {
         .build()
     );
 
-    private Script script, conditionScript;
+    private CachedScript script, conditionScript;
     private Section section;
 
     private boolean firstTick = true;
@@ -198,10 +198,10 @@ public class TextHud extends HudElement {
                 section = new Section(0, result.errors.getFirst().toString());
                 calculateSize(renderer);
             }
-            else script = Compiler.compile(result);
+            else script = new CachedScript(Compiler.compile(result));
 
             if (shown.get() != Shown.Always) {
-                conditionScript = Compiler.compile(Parser.parse(condition.get()));
+                conditionScript = new CachedScript(Compiler.compile(Parser.parse(condition.get())));
             }
 
             needsCompile = false;
@@ -209,8 +209,13 @@ public class TextHud extends HudElement {
 
         try {
             if (script != null) {
-                section = MeteorStarscript.ss.run(script);
-                calculateSize(renderer);
+                // The same section is returned while nothing the script reads changed
+                Section s = script.run();
+
+                if (s != section) {
+                    section = s;
+                    calculateSize(renderer);
+                }
             }
         }
         catch (StarscriptError error) {
@@ -219,7 +224,7 @@ public class TextHud extends HudElement {
         }
 
         if (shown.get() != Shown.Always && conditionScript != null) {
-            String text = MeteorStarscript.run(conditionScript);
+            String text = runCondition();
             if (text == null) visible = false;
             else visible = shown.get() == Shown.WhenTrue ? text.equalsIgnoreCase("true") : text.equalsIgnoreCase("false");
         }
@@ -227,6 +232,16 @@ public class TextHud extends HudElement {
         firstTick = false;
     }
 
+    private String runCondition() {
+        try {
+            return conditionScript.run().toString();
+        }
+        catch (StarscriptError error) {
+            MeteorStarscript.printChatError(error);
+            return null;
+        }
+    }
+
     @Override
     public void render(HudRenderer renderer) {
         if (firstTick) runTick(renderer);
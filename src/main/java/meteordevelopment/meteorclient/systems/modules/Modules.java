@@ -5,6 +5,8 @@
 
 package meteordevelopment.meteorclient.systems.modules;
 
+import it.unimi.dsi.fastutil.objects.Reference2IntMap;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
 import it.unimi.dsi.fastutil.objects.Reference2ReferenceOpenHashMap;
 import meteordevelopment.meteorclient.MeteorClient;
 import meteordevelopment.meteorclient.events.game.GameJoinedEvent;
@@ -33,10 +35,11 @@ import meteordevelopment.meteorclient.systems.modules.render.marker.Marker;
 import meteordevelopment.meteorclient.systems.modules.world.Timer;
 import meteordevelopment.meteorclient.systems.modules.world.*;
 import meteordevelopment.meteorclient.utils.Utils;
+import meteordevelopment.meteorclient.utils.misc.FuzzySearchIndex;
 import meteordevelopment.meteorclient.utils.misc.Keybind;
-import meteordevelopment.meteorclient.utils.misc.ValueComparableMap;
 import meteordevelopment.meteorclient.utils.misc.input.Input;
 import meteordevelopment.meteorclient.utils.misc.input.KeyAction;
+import meteordevelopment.meteorclient.utils.network.PacketListeners;
 import meteordevelopment.orbit.EventHandler;
 import meteordevelopment.orbit.EventPriority;
 import net.minecraft.nbt.NbtCompound;
@@ -57,6 +60,10 @@ public class Modules extends System<Modules> {
     private final Map<Category, List<Module>> groups = new Reference2ReferenceOpenHashMap<>();
 
     private final List<Module> active = new ArrayList<>();
+
+    private final FuzzySearchIndex<Module> titleIndex = new FuzzySearchIndex<>();
+    private final FuzzySearchIndex<Module> aliasIndex = new FuzzySearchIndex<>();
+    private final FuzzySearchIndex<Module> settingIndex = new FuzzySearchIndex<>();
     private Module moduleToBind;
     private boolean awaitingKeyRelease = false;
 
@@ -143,37 +150,27 @@ public class Modules extends System<Modules> {
     }
 
     public Set<Module> searchTitles(String text) {
-        Map<Module, Integer> modules = new ValueComparableMap<>(Comparator.naturalOrder());
-
-        for (Module module : this.moduleInstances.values()) {
-            int score = Utils.searchLevenshteinDefault(module.title, text, false);
-            if (Config.get().moduleAliases.get()) {
-                for (String alias : module.aliases) {
-                    int aliasScore = Utils.searchLevenshteinDefault(alias, text, false);
-                    if (aliasScore < score) score = aliasScore;
-                }
-            }
-            modules.put(module, modules.getOrDefault(module, 0) + score);
-        }
+        Reference2IntMap<Module> scores = new Reference2IntOpenHashMap<>();
 
-        return modules.keySet();
+        titleIndex.search(text, scores);
+        if (Config.get().moduleAliases.get()) aliasIndex.search(text, scores);
+
+        return top(scores);
     }
 
     public Set<Module> searchSettingTitles(String text) {
-        Map<Module, Integer> modules = new ValueComparableMap<>(Comparator.naturalOrder());
-
-        for (Module module : this.moduleInstances.values()) {
-            int lowest = Integer.MAX_VALUE;
-            for (SettingGroup sg : module.settings) {
-                for (Setting<?> setting : sg) {
-                    int score = Utils.searchLevenshteinDefault(setting.title, text, false);
-                    if (score < lowest) lowest = score;
-                }
-            }
-            modules.put(module, modules.getOrDefault(module, 0) + lowest);
-        }
+        Reference2IntMap<Module> scores = new Reference2IntOpenHashMap<>();
+        settingIndex.search(text, scores);
 
-        return modules.keySet();
+        return top(scores);
+    }
+
+    private Set<Module> top(Reference2IntMap<Module> scores) {
+        List<Module> modules = new ArrayList<>(scores.keySet());
+        modules.sort(Comparator.<Module>comparingInt(scores::getInt).thenComparing(Comparator.naturalOrder()));
+
+        int count = Math.min(modules.size(), Config.get().moduleSearchCount.get());
+        return new LinkedHashSet<>(modules.subList(0, count));
     }
 
     void addActive(Module module) {
@@ -290,6 +287,7 @@ public class Modules extends System<Modules> {
             for (Module module : getAll()) {
                 if (module.isActive() && !module.runInMainMenu) {
                     MeteorClient.EVENT_BUS.subscribe(module);
+                    PacketListeners.subscribe(module);
                     module.onActivate();
                 }
             }
@@ -302,6 +300,7 @@ public class Modules extends System<Modules> {
             for (Module module : getAll()) {
                 if (module.isActive() && !module.runInMainMenu) {
                     MeteorClient.EVENT_BUS.unsubscribe(module);
+                    PacketListeners.unsubscribe(module);
                     module.onDeactivate();
                 }
             }
@@ -365,12 +364,25 @@ public class Modules extends System<Modules> {
             return false;
         })) {
             getGroup(removedModule.get().category).remove(removedModule.get());
+
+            titleIndex.remove(removedModule.get());
+            aliasIndex.remove(removedModule.get());
+            settingIndex.remove(removedModule.get());
         }
 
         // Add the module
         moduleInstances.put(module.getClass(), module);
         getGroup(module.category).add(module);
 
+        // Index the module for the search in the click gui
+        titleIndex.add(module, module.title);
+        titleIndex.add(module, module.description);
+        for (String alias : module.aliases) aliasIndex.add(module, alias);
+
+        for (SettingGroup sg : module.settings) {
+            for (Setting<?> setting : sg) settingIndex.add(module, setting.title);
+        }
+
         // Register color settings for the module
         module.settings.registerColorSettings(module);
     }
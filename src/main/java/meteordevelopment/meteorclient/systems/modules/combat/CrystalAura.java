@@ -5,11 +5,9 @@
 
 package meteordevelopment.meteorclient.systems.modules.combat;
 
-import com.google.common.util.concurrent.AtomicDouble;
 import it.unimi.dsi.fastutil.ints.*;
 import meteordevelopment.meteorclient.events.entity.EntityAddedEvent;
 import meteordevelopment.meteorclient.events.entity.EntityRemovedEvent;
-import meteordevelopment.meteorclient.events.packets.PacketEvent;
 import meteordevelopment.meteorclient.events.render.Render2DEvent;
 import meteordevelopment.meteorclient.events.render.Render3DEvent;
 import meteordevelopment.meteorclient.events.world.TickEvent;
@@ -23,9 +21,12 @@ import meteordevelopment.meteorclient.systems.friends.Friends;
 import meteordevelopment.meteorclient.systems.modules.Categories;
 import meteordevelopment.meteorclient.systems.modules.Module;
 import meteordevelopment.meteorclient.utils.entity.DamageUtils;
+import meteordevelopment.meteorclient.utils.entity.EntityIndex;
 import meteordevelopment.meteorclient.utils.entity.EntityUtils;
 import meteordevelopment.meteorclient.utils.entity.Target;
 import meteordevelopment.meteorclient.utils.misc.Keybind;
+import meteordevelopment.meteorclient.utils.misc.WorkerPool;
+import meteordevelopment.meteorclient.utils.network.PacketListeners;
 import meteordevelopment.meteorclient.utils.player.FindItemResult;
 import meteordevelopment.meteorclient.utils.player.InvUtils;
 import meteordevelopment.meteorclient.utils.player.PlayerUtils;
@@ -63,8 +64,6 @@ import org.joml.Vector3d;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
-import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicReference;
 
 public class CrystalAura extends Module {
     private final SettingGroup sgGeneral = settings.getDefaultGroup();
@@ -560,6 +559,8 @@ public class CrystalAura extends Module {
 
     private int breakTimer, placeTimer, switchTimer, ticksPassed;
     private final List<LivingEntity> targets = new ArrayList<>();
+    private final List<Entity> entitiesInRange = new ArrayList<>();
+    private final List<PlaceCandidate> placeCandidates = new ArrayList<>();
 
     private final Vec3d vec3d = new Vec3d(0, 0, 0);
     private final Vec3d playerEyePos = new Vec3d(0, 0, 0);
@@ -602,6 +603,9 @@ public class CrystalAura extends Module {
 
     public CrystalAura() {
         super(Categories.Combat, "crystal-aura", "Automatically places and attacks crystals.");
+
+        PacketListeners.onSend(this, UpdateSelectedSlotC2SPacket.class, (event, packet) -> switchTimer = switchDelay.get());
+        PacketListeners.onSent(this, PlayerMoveC2SPacket.class, (event, packet) -> serverYaw = packet.getYaw((float) serverYaw));
     }
 
     @Override
@@ -765,7 +769,7 @@ public class CrystalAura extends Module {
         Entity crystal = null;
 
         // Find best crystal to break
-        for (Entity entity : mc.world.getEntities()) {
+        for (Entity entity : EntityIndex.get(EntityType.END_CRYSTAL)) {
             float damage = getBreakDamage(entity, true);
 
             if (damage > bestDamage) {
@@ -881,13 +885,6 @@ public class CrystalAura extends Module {
         attacks++;
     }
 
-    @EventHandler
-    private void onPacketSend(PacketEvent.Send event) {
-        if (event.packet instanceof UpdateSelectedSlotC2SPacket) {
-            switchTimer = switchDelay.get();
-        }
-    }
-
     // Place
 
     private void doPlace() {
@@ -909,20 +906,18 @@ public class CrystalAura extends Module {
         } else if (mainItem != Items.END_CRYSTAL && offItem != Items.END_CRYSTAL) return;
 
         // Check for multiplace
-        for (Entity entity : mc.world.getEntities()) {
+        for (Entity entity : EntityIndex.get(EntityType.END_CRYSTAL)) {
             if (getBreakDamage(entity, false) > 0) return;
         }
 
-        // Setup variables
-        AtomicDouble bestDamage = new AtomicDouble(0);
-        AtomicReference<BlockPos.Mutable> bestBlockPos = new AtomicReference<>(new BlockPos.Mutable());
-        AtomicBoolean isSupport = new AtomicBoolean(support.get() != SupportMode.Disabled);
+        // Collect the positions a crystal could be placed on
+        placeCandidates.clear();
+        boolean supportEnabled = support.get() != SupportMode.Disabled;
 
-        // Find best position to place the crystal on
         BlockIterator.register((int) Math.ceil(placeRange.get()), (int) Math.ceil(placeRange.get()), (bp, blockState) -> {
-            // Check if its bedrock or obsidian and return if isSupport is false
+            // Check if its bedrock or obsidian and return if support is disabled
             boolean hasBlock = blockState.isOf(Blocks.BEDROCK) || blockState.isOf(Blocks.OBSIDIAN);
-            if (!hasBlock && (!isSupport.get() || !blockState.isReplaceable())) return;
+            if (!hasBlock && (!supportEnabled || !blockState.isReplaceable())) return;
 
             // Check if there is air on top
             blockPos.set(bp.getX(), bp.getY() + 1, bp.getZ());
@@ -938,40 +933,55 @@ public class CrystalAura extends Module {
             blockPos.set(bp).move(0, 1, 0);
             if (isOutOfRange(vec3d, blockPos, true)) return;
 
-            // Check damage to self and anti suicide
-            float selfDamage = DamageUtils.crystalDamage(mc.player, vec3d, predictMovement.get(), bp);
-            if (selfDamage > maxDamage.get() || (antiSuicide.get() && selfDamage >= EntityUtils.getTotalHealth(mc.player))) return;
+            placeCandidates.add(new PlaceCandidate(bp.toImmutable(), hasBlock));
+        });
 
-            // Check damage to targets and face place
-            float damage = getDamageToTargets(vec3d, bp, false, !hasBlock && support.get() == SupportMode.Fast);
+        // Find best position to place the crystal on
+        BlockIterator.after(() -> {
+            // Damage calculations don't depend on each other so they are done in parallel, picking the best position is not
+            LivingEntity nearestTarget = support.get() == SupportMode.Fast ? getNearestTarget() : null;
+            WorkerPool.forEachParallel(placeCandidates, candidate -> candidate.calculateDamage(nearestTarget));
+
+            float bestDamage = 0;
+            BlockPos bestBlockPos = null;
+            boolean isSupport = supportEnabled;
 
             boolean shouldFacePlace = shouldFacePlace();
             double minimumDamage = Math.min(minDamage.get(), shouldFacePlace ? 1.5 : minDamage.get());
 
-            if (damage < minimumDamage) return;
+            for (PlaceCandidate candidate : placeCandidates) {
+                if (!candidate.hasBlock && !isSupport) continue;
 
-            // Check if it can be placed
-            double x = bp.getX();
-            double y = bp.getY() + 1;
-            double z = bp.getZ();
-            ((IBox) box).meteor$set(x, y, z, x + 1, y + (placement112.get() ? 1 : 2), z + 1);
+                // Check damage to self and anti suicide
+                if (!candidate.safe) continue;
 
-            if (intersectsWithEntities(box)) return;
+                // Check damage to targets and face place
+                float damage = candidate.getDamageToTargets();
+                if (damage < minimumDamage) continue;
 
-            // Compare damage
-            if (damage > bestDamage.get() || (isSupport.get() && hasBlock)) {
-                bestDamage.set(damage);
-                bestBlockPos.get().set(bp);
-            }
+                // Check if it can be placed
+                double x = candidate.pos.getX();
+                double y = candidate.pos.getY() + 1;
+                double z = candidate.pos.getZ();
+                ((IBox) box).meteor$set(x, y, z, x + 1, y + (placement112.get() ? 1 : 2), z + 1);
 
-            if (hasBlock) isSupport.set(false);
-        });
+                if (intersectsWithEntities(box)) continue;
 
-        // Place the crystal
-        BlockIterator.after(() -> {
-            if (bestDamage.get() == 0) return;
+                // Compare damage
+                if (damage > bestDamage || (isSupport && candidate.hasBlock)) {
+                    bestDamage = damage;
+                    bestBlockPos = candidate.pos;
+                }
+
+                if (candidate.hasBlock) isSupport = false;
+            }
+
+            // Place the crystal
+            if (bestDamage == 0) return;
 
-            BlockHitResult result = getPlaceInfo(bestBlockPos.get());
+            BlockHitResult result = getPlaceInfo(bestBlockPos);
+            double damage = bestDamage;
+            BlockPos supportPos = isSupport ? bestBlockPos : null;
 
             ((IVec3d) vec3d).meteor$set(
                     result.getBlockPos().getX() + 0.5 + result.getSide().getVector().getX() * 1.0 / 2.0,
@@ -985,13 +995,13 @@ public class CrystalAura extends Module {
 
                 if (yawStepMode.get() == YawStepMode.Break || doYawSteps(yaw, pitch)) {
                     setRotation(true, vec3d, 0, 0);
-                    Rotations.rotate(yaw, pitch, 50, () -> placeCrystal(result, bestDamage.get(), isSupport.get() ? bestBlockPos.get() : null));
+                    Rotations.rotate(yaw, pitch, 50, () -> placeCrystal(result, damage, supportPos));
 
                     placeTimer += placeDelay.get();
                 }
             }
             else {
-                placeCrystal(result, bestDamage.get(), isSupport.get() ? bestBlockPos.get() : null);
+                placeCrystal(result, damage, supportPos);
                 placeTimer += placeDelay.get();
             }
         });
@@ -1077,13 +1087,6 @@ public class CrystalAura extends Module {
 
     // Yaw steps
 
-    @EventHandler
-    private void onPacketSent(PacketEvent.Sent event) {
-        if (event.packet instanceof PlayerMoveC2SPacket) {
-            serverYaw = ((PlayerMoveC2SPacket) event.packet).getYaw((float) serverYaw);
-        }
-    }
-
     public boolean doYawSteps(double targetYaw, double targetPitch) {
         targetYaw = MathHelper.wrapDegrees(targetYaw) + 180;
         double serverYaw = MathHelper.wrapDegrees(this.serverYaw) + 180;
@@ -1213,7 +1216,9 @@ public class CrystalAura extends Module {
         targets.clear();
 
         // Living Entities
-        for (Entity entity : mc.world.getEntities()) {
+        EntityIndex.getInRange(mc.player.getX(), mc.player.getY(), mc.player.getZ(), targetRange.get(), entitiesInRange);
+
+        for (Entity entity : entitiesInRange) {
             // Ignore non-living
             if (!(entity instanceof LivingEntity livingEntity)) continue;
 
@@ -1341,6 +1346,63 @@ public class CrystalAura extends Module {
         }
     }
 
+    private class PlaceCandidate {
+        private final BlockPos pos;
+        private final boolean hasBlock;
+
+        private boolean safe, fast;
+        private float[] damages;
+
+        public PlaceCandidate(BlockPos pos, boolean hasBlock) {
+            this.pos = pos;
+            this.hasBlock = hasBlock;
+        }
+
+        /** Only reads the world and the targets, can run on any thread while the client thread waits. */
+        public void calculateDamage(LivingEntity nearestTarget) {
+            Vec3d crystal = new Vec3d(pos.getX() + 0.5, pos.getY() + 1, pos.getZ() + 0.5);
+
+            float selfDamage = DamageUtils.crystalDamage(mc.player, crystal, predictMovement.get(), pos);
+            safe = selfDamage <= maxDamage.get() && (!antiSuicide.get() || selfDamage < EntityUtils.getTotalHealth(mc.player));
+            if (!safe) return;
+
+            fast = !hasBlock && support.get() == SupportMode.Fast;
+
+            if (fast) {
+                damages = new float[] { DamageUtils.crystalDamage(nearestTarget, crystal, predictMovement.get(), pos) };
+            }
+            else {
+                damages = new float[targets.size()];
+
+                for (int i = 0; i < damages.length; i++) {
+                    damages[i] = DamageUtils.crystalDamage(targets.get(i), crystal, predictMovement.get(), pos);
+                }
+            }
+        }
+
+        /** Same as {@link #getDamageToTargets(Vec3d, BlockPos, boolean, boolean)} when not breaking, using the precalculated damages. */
+        public float getDamageToTargets() {
+            if (fast) return damages[0];
+
+            float damage = 0;
+
+            for (int i = 0; i < damages.length; i++) {
+                float dmg = damages[i];
+
+                // Update best target
+                if (dmg > bestTargetDamage) {
+                    bestTarget = targets.get(i);
+                    bestTargetDamage = dmg;
+                    bestTargetTimer = 10;
+                }
+
+                damage += dmg;
+            }
+
+            return damage;
+        }
+    }
+
     public enum YawStepMode {
         Break,
         All,
@@ -22,10 +22,10 @@ import meteordevelopment.meteorclient.utils.render.color.SettingColor;
 import meteordevelopment.meteorclient.utils.world.BlockIterator;
 import meteordevelopment.meteorclient.utils.world.BlockUtils;
 import meteordevelopment.meteorclient.utils.world.Dir;
+import meteordevelopment.meteorclient.utils.world.SectionOccupancy;
 import meteordevelopment.orbit.EventHandler;
 import meteordevelopment.orbit.EventPriority;
 import net.minecraft.block.Block;
-import net.minecraft.block.BlockState;
 import net.minecraft.block.Blocks;
 import net.minecraft.entity.player.PlayerEntity;
 import net.minecraft.util.hit.BlockHitResult;
@@ -272,17 +272,13 @@ public class HoleFiller extends Module {
             for (Direction direction : Direction.values()) {
                 if (direction == Direction.UP) continue;
 
-                BlockState state = mc.world.getBlockState(blockPos.offset(direction));
-
-                if (state.getBlock().getBlastResistance() >= 600) surroundBlocks++;
+                if (SectionOccupancy.isBlastProof(blockPos.offset(direction))) surroundBlocks++;
                 else if (direction == Direction.DOWN) return;
                 else if (validHole(blockPos.offset(direction)) && air == null) {
                     for (Direction dir : Direction.values()) {
                         if (dir == direction.getOpposite() || dir == Direction.UP) continue;
 
-                        BlockState state1 = mc.world.getBlockState(blockPos.offset(direction).offset(dir));
-
-                        if (state1.getBlock().getBlastResistance() >= 600) surroundBlocks++;
+                        if (SectionOccupancy.isBlastProof(blockPos.offset(direction).offset(dir))) surroundBlocks++;
                         else return;
                     }
 
@@ -331,7 +327,7 @@ public class HoleFiller extends Module {
         if (!BlockUtils.canPlace(blockPos)) return false;
 
         // Hole must have air above it
-        if (!mc.world.getBlockState(blockPos.up()).isReplaceable()) return false;
+        if (!SectionOccupancy.isReplaceable(blockPos.up())) return false;
 
         // Check raycast and range
         if (isOutOfRange(blockPos)) return false;
@@ -364,9 +360,7 @@ public class HoleFiller extends Module {
 
     private boolean isSurrounded(PlayerEntity target) {
         for (Direction dir : DirectionAccessor.meteor$getHorizontal()) {
-            BlockPos blockPos = target.getBlockPos().offset(dir);
-            Block block = mc.world.getBlockState(blockPos).getBlock();
-            if (block.getBlastResistance() < 600) return false;
+            if (!SectionOccupancy.isBlastProof(target.getBlockPos().offset(dir))) return false;
         }
 
         return true;
@@ -23,9 +23,9 @@ import meteordevelopment.meteorclient.utils.render.color.Color;
 import meteordevelopment.meteorclient.utils.render.color.SettingColor;
 import meteordevelopment.meteorclient.utils.world.BlockUtils;
 import meteordevelopment.meteorclient.utils.world.Dir;
+import meteordevelopment.meteorclient.utils.world.SectionOccupancy;
 import meteordevelopment.orbit.EventHandler;
 import net.minecraft.block.Block;
-import net.minecraft.block.BlockState;
 import net.minecraft.block.Blocks;
 import net.minecraft.entity.Entity;
 import net.minecraft.entity.decoration.EndCrystalEntity;
@@ -335,15 +335,15 @@ public class Surround extends Module {
             BlockPos placePos = playerPos.offset(direction);
 
             // Place support blocks if air place is disabled
-            if (!airPlace.get() && isAirPlace(placePos) && mc.world.getBlockState(placePos).isReplaceable()){
+            if (!airPlace.get() && isAirPlace(placePos) && SectionOccupancy.isReplaceable(placePos)){
                 if (place(placePos.down(), block) && ++placedCount >= blocksPerTick.get()) break;
 
-                if (mc.world.getBlockState(placePos.down()).isReplaceable()) complete = false;
+                if (SectionOccupancy.isReplaceable(placePos.down())) complete = false;
             }
 
             if (place(placePos, block) && ++placedCount >= blocksPerTick.get()) break;
 
-            if (mc.world.getBlockState(placePos).isReplaceable()) complete = false;
+            if (SectionOccupancy.isReplaceable(placePos)) complete = false;
         }
 
         // Placing head blocks
@@ -352,7 +352,7 @@ public class Surround extends Module {
                 BlockPos placePos = playerPos.offset(direction).up();
                 if (place(placePos, block) && ++placedCount >= blocksPerTick.get()) break;
 
-                if (mc.world.getBlockState(placePos).isReplaceable()) complete = false;
+                if (SectionOccupancy.isReplaceable(placePos)) complete = false;
             }
         }
 
@@ -381,7 +381,7 @@ public class Surround extends Module {
             }
         }
 
-        boolean isThreat = mc.world.getBlockState(placePos).isReplaceable() || beingMined;
+        boolean isThreat = SectionOccupancy.isReplaceable(placePos) || beingMined;
 
         // If the block is air or is being mined, destroy nearby crystals to be safe
         if (protect.get() && !placed && isThreat) {
@@ -421,12 +421,10 @@ public class Surround extends Module {
     }
 
     private BlockType getBlockType(BlockPos pos) {
-        BlockState blockState = mc.world.getBlockState(pos);
-
         // Unbreakable eg. bedrock
-        if (blockState.getBlock().getHardness() < 0) return BlockType.Safe;
+        if (SectionOccupancy.isUnbreakable(pos)) return BlockType.Safe;
         // Blast resistant eg. obsidian
-        else if (blockState.getBlock().getBlastResistance() >= 600) return BlockType.Normal;
+        else if (SectionOccupancy.isBlastProof(pos)) return BlockType.Normal;
         // Anything else
         else return BlockType.Unsafe;
     }
@@ -449,7 +447,7 @@ public class Surround extends Module {
 
     private boolean isAirPlace(BlockPos blockPos) {
         for (Direction direction : Direction.values()) {
-            if (!mc.world.getBlockState(blockPos.offset(direction)).isReplaceable()) return false;
+            if (!SectionOccupancy.isReplaceable(blockPos.offset(direction))) return false;
         }
         return true;
     }
@@ -21,6 +21,7 @@ import meteordevelopment.meteorclient.renderer.text.TextRenderer;
 import meteordevelopment.meteorclient.settings.*;
 import meteordevelopment.meteorclient.systems.modules.Categories;
 import meteordevelopment.meteorclient.systems.modules.Module;
+import meteordevelopment.meteorclient.utils.network.MeteorExecutor;
 import meteordevelopment.meteorclient.utils.notebot.NotebotUtils;
 import meteordevelopment.meteorclient.utils.notebot.decoder.SongDecoder;
 import meteordevelopment.meteorclient.utils.notebot.decoder.SongDecoders;
@@ -448,7 +449,7 @@ public class Notebot extends Module {
                 return;
             }
 
-            if (song.getNotesMap().containsKey(currentTick)) {
+            if (song.hasNotes(currentTick)) {
                 if (playingMode == PlayingMode.Preview) onTickPreview();
                 else if (mc.player.getAbilities().creativeMode) {
                     error("You need to be in survival mode.");
@@ -728,12 +729,18 @@ public class Notebot extends Module {
             } catch (Exception e) {
                 throw new RuntimeException(e);
             }
-        });
+        }, MeteorExecutor.executor);
         loadingSongFuture.completeOnTimeout(null, 60, TimeUnit.SECONDS);
 
         stage = Stage.LoadingSong;
         long time1 = System.currentTimeMillis();
-        loadingSongFuture.whenComplete((song ,ex) -> {
+        CompletableFuture<Song> future = loadingSongFuture;
+
+        // Finish on the client thread, the module state is only touched from there
+        loadingSongFuture.whenCompleteAsync((song, ex) -> {
+            // Superseded by another song, cancellations are still reported
+            if (future != loadingSongFuture && !(ex instanceof CancellationException)) return;
+
             if (ex == null) {
                 // Song is null only when it times out
                 if (song == null) {
@@ -757,7 +764,7 @@ public class Notebot extends Module {
                     onSongEnd();
                 }
             }
-        });
+        }, mc);
         return true;
     }
 
@@ -793,7 +800,7 @@ public class Notebot extends Module {
     }
 
     private void onTickPreview() {
-        for (Note note : song.getNotesMap().get(currentTick)) {
+        for (Note note : song.getNotes(currentTick)) {
             if (mode.get() == NotebotUtils.NotebotMode.ExactInstruments) {
                 mc.player.playSound(note.getInstrument().getSound().value(), 2f, (float) Math.pow(2.0D, (note.getNoteLevel() - 12) / 12.0D));
             } else {
@@ -888,7 +895,7 @@ public class Notebot extends Module {
     }
 
     private void onTickPlay() {
-        Collection<Note> notes = song.getNotesMap().get(this.currentTick);
+        List<Note> notes = song.getNotes(this.currentTick);
         if (!notes.isEmpty()) {
 
             // Rotate player's head
@@ -5,66 +5,176 @@
 
 package meteordevelopment.meteorclient.systems.modules.misc.swarm;
 
-import meteordevelopment.meteorclient.utils.player.ChatUtils;
-
-import java.io.DataOutputStream;
 import java.io.IOException;
-import java.net.Socket;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+/**
+ * One end of a swarm link. Frames are a 4 byte length followed by a type byte and the payload, they can be queued from
+ * any thread but are only read and written by the thread owning the selector the channel is registered with.
+ */
+public class SwarmConnection {
+    private static final byte MESSAGE = 0;
+    private static final byte PING = 1;
+    private static final byte PONG = 2;
+
+    private static final int MAX_FRAME_SIZE = 1024 * 1024;
+
+    public final SocketChannel channel;
+    private final String address;
+    private SelectionKey key;
+
+    private final Queue<ByteBuffer> outbound = new ConcurrentLinkedQueue<>();
+    private ByteBuffer inbound = ByteBuffer.allocate(1024);
 
-public class SwarmConnection extends Thread {
-    public final Socket socket;
-    public String messageToSend;
+    private final long connectedAt = System.nanoTime();
+    private volatile long latency = -1;
+    private volatile long bytesSent, bytesReceived;
+    private volatile int messagesSent, messagesReceived;
 
-    public SwarmConnection(Socket socket) {
-        this.socket = socket;
-        start();
+    public SwarmConnection(SocketChannel channel) {
+        this.channel = channel;
+
+        InetSocketAddress remote = (InetSocketAddress) channel.socket().getRemoteSocketAddress();
+        this.address = getIp(remote.getAddress().getHostAddress()) + ":" + remote.getPort();
     }
 
-    @Override
-    public void run() {
-        ChatUtils.infoPrefix("Swarm", "New worker connected on %s.", getIp(socket.getInetAddress().getHostAddress()));
+    void register(Selector selector) throws ClosedChannelException {
+        key = channel.register(selector, SelectionKey.OP_READ, this);
+    }
 
-        try {
-            DataOutputStream out = new DataOutputStream(socket.getOutputStream());
-
-            while (!isInterrupted()) {
-                if (messageToSend != null) {
-                    try {
-                        out.writeUTF(messageToSend);
-                        out.flush();
-                    } catch (Exception e) {
-                        ChatUtils.errorPrefix("Swarm", "Encountered error when sending command.");
-                        e.printStackTrace();
-                    }
-
-                    messageToSend = null;
+    /** Encodes a message frame once so it can be handed to any number of connections. */
+    static ByteBuffer encode(String message) {
+        return frame(MESSAGE, message.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static ByteBuffer frame(byte type, byte[] payload) {
+        ByteBuffer buffer = ByteBuffer.allocate(5 + payload.length);
+        buffer.putInt(1 + payload.length).put(type).put(payload).flip();
+        return buffer.asReadOnlyBuffer();
+    }
+
+    /** Queues an encoded frame, the selector has to be woken up for it to be written right away. */
+    void send(ByteBuffer frame) {
+        // Each connection gets its own position into the shared frame
+        outbound.add(frame.duplicate());
+    }
+
+    void ping() {
+        send(frame(PING, ByteBuffer.allocate(8).putLong(System.nanoTime()).array()));
+    }
+
+    boolean hasPendingWrites() {
+        return !outbound.isEmpty();
+    }
+
+    /** Writes as much of the queue as the socket accepts and only listens for write readiness if something is left. */
+    void write() throws IOException {
+        ByteBuffer buffer;
+
+        while ((buffer = outbound.peek()) != null) {
+            bytesSent += channel.write(buffer);
+            if (buffer.hasRemaining()) break;
+
+            outbound.poll();
+            if (buffer.get(4) == MESSAGE) messagesSent++;
+        }
+
+        key.interestOps(outbound.isEmpty() ? SelectionKey.OP_READ : SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+    }
+
+    /** Reads every complete frame available, returns false once the other end closed the connection. */
+    boolean read(Consumer<String> onMessage) throws IOException {
+        int read = channel.read(inbound);
+        if (read == -1) return false;
+        bytesReceived += read;
+
+        inbound.flip();
+
+        while (inbound.remaining() >= 4) {
+            int length = inbound.getInt(inbound.position());
+            if (length <= 0 || length > MAX_FRAME_SIZE) throw new IOException("Invalid swarm frame length " + length + ".");
+
+            if (inbound.remaining() < 4 + length) {
+                if (inbound.capacity() < 4 + length) {
+                    ByteBuffer bigger = ByteBuffer.allocate(4 + length);
+                    bigger.put(inbound);
+                    inbound = bigger;
+                    return true;
                 }
+
+                break;
             }
 
-            out.close();
-        } catch (IOException e) {
-            ChatUtils.infoPrefix("Swarm", "Error creating a connection with %s on port %s.", getIp(socket.getInetAddress().getHostAddress()), socket.getPort());
-            e.printStackTrace();
+            inbound.getInt();
+            byte type = inbound.get();
+            byte[] payload = new byte[length - 1];
+            inbound.get(payload);
+
+            switch (type) {
+                case MESSAGE -> {
+                    messagesReceived++;
+                    onMessage.accept(new String(payload, StandardCharsets.UTF_8));
+                }
+                case PING -> send(frame(PONG, payload));
+                case PONG -> latency = System.nanoTime() - ByteBuffer.wrap(payload).getLong();
+            }
         }
+
+        inbound.compact();
+        return true;
     }
 
     public void disconnect() {
+        if (key != null) key.cancel();
+
         try {
-            socket.close();
+            channel.close();
         } catch (IOException e) {
             e.printStackTrace();
         }
+    }
+
+    public String getConnection() {
+        return address;
+    }
 
-        ChatUtils.infoPrefix("Swarm", "Worker disconnected on ip: %s.", socket.getInetAddress().getHostAddress());
+    /** Round trip time of the last ping in milliseconds, -1 until the first pong arrives. */
+    public double getLatency() {
+        return latency == -1 ? -1 : latency / 1_000_000.0;
+    }
 
-        interrupt();
+    public long getBytesSent() {
+        return bytesSent;
     }
 
-    public String getConnection() {
-        return getIp(socket.getInetAddress().getHostAddress()) + ":" + socket.getPort();
+    public long getBytesReceived() {
+        return bytesReceived;
+    }
+
+    public int getMessagesSent() {
+        return messagesSent;
+    }
+
+    public int getMessagesReceived() {
+        return messagesReceived;
+    }
+
+    /** Average bytes per second sent and received since the connection was made. */
+    public double getThroughput() {
+        double seconds = (System.nanoTime() - connectedAt) / 1_000_000_000.0;
+        return seconds <= 0 ? 0 : (bytesSent + bytesReceived) / seconds;
     }
 
-    private String getIp(String ip) {
+    private static String getIp(String ip) {
         return ip.equals("127.0.0.1") ? "localhost" : ip;
     }
 }
@@ -5,21 +5,41 @@
 
 package meteordevelopment.meteorclient.systems.modules.misc.swarm;
 
-import meteordevelopment.meteorclient.utils.network.MeteorExecutor;
 import meteordevelopment.meteorclient.utils.player.ChatUtils;
 
 import java.io.IOException;
-import java.net.ServerSocket;
-import java.net.Socket;
-
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+
+/**
+ * Accepts workers and writes to all of them from a single selector thread.
+ */
 public class SwarmHost extends Thread {
-    private ServerSocket socket;
+    private static final long PING_INTERVAL = 1000;
+
+    private Selector selector;
+    private ServerSocketChannel socket;
     private final SwarmConnection[] clientConnections = new SwarmConnection[50];
 
     public SwarmHost(int port) {
+        super("Meteor-Swarm-Host");
+        setDaemon(true);
+
         try {
-            socket = new ServerSocket(port);
+            selector = Selector.open();
+            socket = ServerSocketChannel.open();
+            socket.bind(new InetSocketAddress(port));
+            socket.configureBlocking(false);
+            socket.register(selector, SelectionKey.OP_ACCEPT);
         } catch (IOException e) {
+            close();
             socket = null;
             ChatUtils.errorPrefix("Swarm", "Couldn't start a server on port %s.", port);
             e.printStackTrace();
@@ -30,52 +50,147 @@ public class SwarmHost extends Thread {
 
     @Override
     public void run() {
-        ChatUtils.infoPrefix("Swarm", "Listening for incoming connections on port %s.", socket.getLocalPort());
-
-        while (!isInterrupted()) {
-            try {
-                Socket connection = socket.accept();
-                assignConnectionToSubServer(connection);
-            } catch (IOException e) {
-                ChatUtils.errorPrefix("Swarm", "Error making a connection to worker.");
-                e.printStackTrace();
+        ChatUtils.infoPrefix("Swarm", "Listening for incoming connections on port %s.", socket.socket().getLocalPort());
+
+        long lastPing = 0;
+
+        try {
+            while (!isInterrupted()) {
+                selector.select(PING_INTERVAL);
+
+                for (Iterator<SelectionKey> it = selector.selectedKeys().iterator(); it.hasNext(); ) {
+                    SelectionKey key = it.next();
+                    it.remove();
+
+                    if (!key.isValid()) continue;
+
+                    if (key.isAcceptable()) accept();
+                    else handle((SwarmConnection) key.attachment(), key);
+                }
+
+                long time = System.currentTimeMillis();
+                boolean ping = time - lastPing >= PING_INTERVAL;
+                if (ping) lastPing = time;
+
+                // Frames queued from other threads since the last select
+                for (SwarmConnection connection : clientConnections) {
+                    if (connection == null) continue;
+
+                    if (ping) connection.ping();
+                    if (connection.hasPendingWrites()) {
+                        try {
+                            connection.write();
+                        } catch (IOException | CancelledKeyException e) {
+                            remove(connection);
+                        }
+                    }
+                }
             }
+        } catch (ClosedSelectorException ignored) {
+            // Closed by disconnect()
+        } catch (IOException e) {
+            ChatUtils.errorPrefix("Swarm", "Error making a connection to worker.");
+            e.printStackTrace();
         }
     }
 
-    public void assignConnectionToSubServer(Socket connection) {
-        for (int i = 0; i < clientConnections.length; i++) {
-            if (this.clientConnections[i] == null) {
-                this.clientConnections[i] = new SwarmConnection(connection);
-                break;
+    private void accept() {
+        try {
+            SocketChannel channel = socket.accept();
+            if (channel == null) return;
+
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true);
+
+            assignConnectionToSubServer(channel);
+        } catch (IOException e) {
+            ChatUtils.errorPrefix("Swarm", "Error making a connection to worker.");
+            e.printStackTrace();
+        }
+    }
+
+    private void handle(SwarmConnection connection, SelectionKey key) {
+        try {
+            // Workers don't send commands back, only pongs and pings are handled by the connection itself
+            if (key.isReadable() && !connection.read(message -> {})) {
+                remove(connection);
+                return;
             }
+
+            if (key.isValid() && key.isWritable()) connection.write();
+        } catch (IOException | CancelledKeyException e) {
+            remove(connection);
         }
     }
 
+    public void assignConnectionToSubServer(SocketChannel channel) throws IOException {
+        synchronized (clientConnections) {
+            for (int i = 0; i < clientConnections.length; i++) {
+                if (this.clientConnections[i] == null) {
+                    SwarmConnection connection = new SwarmConnection(channel);
+                    connection.register(selector);
+
+                    this.clientConnections[i] = connection;
+                    ChatUtils.infoPrefix("Swarm", "New worker connected on %s.", connection.getConnection());
+                    return;
+                }
+            }
+        }
+
+        ChatUtils.warningPrefix("Swarm", "Refused worker, the maximum of %s connections was reached.", clientConnections.length);
+        channel.close();
+    }
+
+    private void remove(SwarmConnection connection) {
+        synchronized (clientConnections) {
+            for (int i = 0; i < clientConnections.length; i++) {
+                if (clientConnections[i] == connection) clientConnections[i] = null;
+            }
+        }
+
+        connection.disconnect();
+        ChatUtils.infoPrefix("Swarm", "Worker disconnected on ip: %s.", connection.getConnection());
+    }
+
     public void disconnect() {
-        for (SwarmConnection connection : clientConnections) {
-            if (connection != null) connection.disconnect();
+        interrupt();
+        if (socket == null) return;
+
+        synchronized (clientConnections) {
+            for (int i = 0; i < clientConnections.length; i++) {
+                if (clientConnections[i] != null) {
+                    clientConnections[i].disconnect();
+                    clientConnections[i] = null;
+                }
+            }
         }
 
+        int port = socket.socket().getLocalPort();
+        close();
+
+        ChatUtils.infoPrefix("Swarm", "Server closed on port %s.", port);
+    }
+
+    private void close() {
         try {
-            socket.close();
+            if (socket != null) socket.close();
+            if (selector != null) selector.close();
         } catch (IOException e) {
             e.printStackTrace();
         }
-
-        ChatUtils.infoPrefix("Swarm", "Server closed on port %s.", socket.getLocalPort());
-
-        interrupt();
     }
 
+    /** Encodes the message once and queues the same frame on every connection. */
     public void sendMessage(String s) {
-        MeteorExecutor.execute(() -> {
+        ByteBuffer frame = SwarmConnection.encode(s);
+
+        synchronized (clientConnections) {
             for (SwarmConnection connection : clientConnections) {
-                if (connection != null) {
-                    connection.messageToSend = s;
-                }
+                if (connection != null) connection.send(frame);
             }
-        });
+        }
+
+        selector.wakeup();
     }
 
     public SwarmConnection[] getConnections() {
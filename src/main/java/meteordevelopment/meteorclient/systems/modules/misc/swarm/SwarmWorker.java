@@ -10,50 +10,77 @@ import meteordevelopment.meteorclient.pathing.PathManagers;
 import meteordevelopment.meteorclient.utils.player.ChatUtils;
 import net.minecraft.block.Block;
 
-import java.io.DataInputStream;
 import java.io.IOException;
-import java.net.Socket;
+import java.net.InetSocketAddress;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
 
 public class SwarmWorker extends Thread {
-    private Socket socket;
+    private static final long PING_INTERVAL = 1000;
+
+    private Selector selector;
+    private SwarmConnection connection;
     public Block target;
 
     public SwarmWorker(String ip, int port) {
+        super("Meteor-Swarm-Worker");
+        setDaemon(true);
+
         try {
-            socket = new Socket(ip, port);
+            SocketChannel channel = SocketChannel.open(new InetSocketAddress(ip, port));
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true);
+
+            selector = Selector.open();
+            connection = new SwarmConnection(channel);
+            connection.register(selector);
         } catch (Exception e) {
-            socket = null;
+            if (connection != null) connection.disconnect();
+            connection = null;
             ChatUtils.warningPrefix("Swarm", "Server not found at %s on port %s.", ip, port);
             e.printStackTrace();
         }
 
-        if (socket != null) start();
+        if (connection != null) start();
     }
 
     @Override
     public void run() {
-        ChatUtils.infoPrefix("Swarm", "Connected to Swarm host on at %s on port %s.", getIp(socket.getInetAddress().getHostAddress()), socket.getPort());
-
-        try {
-            DataInputStream in = new DataInputStream(socket.getInputStream());
+        ChatUtils.infoPrefix("Swarm", "Connected to Swarm host on at %s.", connection.getConnection());
 
+        long lastPing = 0;
 
+        try {
             while (!isInterrupted()) {
-                String read = in.readUTF();
+                selector.select(PING_INTERVAL);
 
-                if (read.startsWith("swarm")) {
-                    ChatUtils.infoPrefix("Swarm", "Received command: (highlight)%s", read);
+                for (Iterator<SelectionKey> it = selector.selectedKeys().iterator(); it.hasNext(); ) {
+                    SelectionKey key = it.next();
+                    it.remove();
 
-                    try {
-                        Commands.dispatch(read);
-                    } catch (Exception e) {
-                        ChatUtils.error("Error fetching command.");
-                        e.printStackTrace();
+                    if (key.isValid() && key.isReadable() && !connection.read(this::onMessage)) {
+                        ChatUtils.errorPrefix("Swarm", "Host closed the connection.");
+                        disconnect();
+                        return;
                     }
+
+                    if (key.isValid() && key.isWritable()) connection.write();
                 }
-            }
 
-            in.close();
+                long time = System.currentTimeMillis();
+                if (time - lastPing >= PING_INTERVAL) {
+                    connection.ping();
+                    lastPing = time;
+                }
+
+                if (connection.hasPendingWrites()) connection.write();
+            }
+        } catch (ClosedSelectorException | CancelledKeyException ignored) {
+            // Closed by disconnect()
         } catch (IOException e) {
             ChatUtils.errorPrefix("Swarm", "Error in connection to host.");
             e.printStackTrace();
@@ -61,9 +88,26 @@ public class SwarmWorker extends Thread {
         }
     }
 
+    private void onMessage(String read) {
+        if (read.startsWith("swarm")) {
+            ChatUtils.infoPrefix("Swarm", "Received command: (highlight)%s", read);
+
+            try {
+                Commands.dispatch(read);
+            } catch (Exception e) {
+                ChatUtils.error("Error fetching command.");
+                e.printStackTrace();
+            }
+        }
+    }
+
     public void disconnect() {
+        interrupt();
+
+        if (connection != null) connection.disconnect();
+
         try {
-            socket.close();
+            if (selector != null) selector.close();
         } catch (IOException e) {
             e.printStackTrace();
         }
@@ -71,8 +115,6 @@ public class SwarmWorker extends Thread {
         PathManagers.get().stop();
 
         ChatUtils.infoPrefix("Swarm", "Disconnected from host.");
-
-        interrupt();
     }
 
     public void tick() {
@@ -85,10 +127,10 @@ public class SwarmWorker extends Thread {
     }
 
     public String getConnection() {
-        return getIp(socket.getInetAddress().getHostAddress()) + ":" + socket.getPort();
+        return connection.getConnection();
     }
 
-    private String getIp(String ip) {
-        return ip.equals("127.0.0.1") ? "localhost" : ip;
+    public SwarmConnection getHost() {
+        return connection;
     }
 }
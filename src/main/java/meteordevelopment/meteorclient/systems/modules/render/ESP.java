@@ -14,6 +14,7 @@ import meteordevelopment.meteorclient.systems.config.Config;
 import meteordevelopment.meteorclient.systems.friends.Friends;
 import meteordevelopment.meteorclient.systems.modules.Categories;
 import meteordevelopment.meteorclient.systems.modules.Module;
+import meteordevelopment.meteorclient.utils.entity.EntityIndex;
 import meteordevelopment.meteorclient.utils.entity.EntityUtils;
 import meteordevelopment.meteorclient.utils.player.PlayerUtils;
 import meteordevelopment.meteorclient.utils.render.NametagUtils;
@@ -29,6 +30,8 @@ import net.minecraft.util.math.Box;
 import net.minecraft.util.math.MathHelper;
 import org.joml.Vector3d;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 
 public class ESP extends Module {
@@ -209,6 +212,7 @@ public class ESP extends Module {
     private final Vector3d pos1 = new Vector3d();
     private final Vector3d pos2 = new Vector3d();
     private final Vector3d pos = new Vector3d();
+    private final List<Entity> entityList = new ArrayList<>();
 
     private int count;
 
@@ -227,7 +231,7 @@ public class ESP extends Module {
         Entity target = null;
         if (highlightTarget.get() && targetHitbox.get() && mc.crosshairTarget instanceof EntityHitResult hr) target = hr.getEntity();
 
-        for (Entity entity : mc.world.getEntities()) {
+        for (Entity entity : getEntities()) {
             if (target != entity && shouldSkip(entity)) continue;
             if (target == entity || mode.get() == Mode.Box || mode.get() == Mode.Wireframe) drawBoundingBox(event, entity);
             count++;
@@ -270,7 +274,7 @@ public class ESP extends Module {
         Renderer2D.COLOR.begin();
         count = 0;
 
-        for (Entity entity : mc.world.getEntities()) {
+        for (Entity entity : getEntities()) {
             if (shouldSkip(entity)) continue;
 
             Box box = entity.getBoundingBox();
@@ -339,6 +343,17 @@ public class ESP extends Module {
 
     // Utils
 
+    private List<Entity> getEntities() {
+        EntityIndex.get(entities.get(), entityList);
+
+        // The highlighted target is drawn even if its type isn't selected
+        if (highlightTarget.get() && mc.crosshairTarget instanceof EntityHitResult hr && !entities.get().contains(hr.getEntity().getType())) {
+            entityList.add(hr.getEntity());
+        }
+
+        return entityList;
+    }
+
     public boolean drawAsTarget(Entity entity) {
         return highlightTarget.get() && mc.crosshairTarget instanceof EntityHitResult hr && hr.getEntity() == entity;
     }
@@ -7,7 +7,6 @@ package meteordevelopment.meteorclient.systems.modules.render;
 
 import meteordevelopment.meteorclient.events.render.Render3DEvent;
 import meteordevelopment.meteorclient.events.world.TickEvent;
-import meteordevelopment.meteorclient.mixin.AbstractBlockAccessor;
 import meteordevelopment.meteorclient.renderer.Renderer3D;
 import meteordevelopment.meteorclient.renderer.ShapeMode;
 import meteordevelopment.meteorclient.settings.*;
@@ -19,13 +18,11 @@ import meteordevelopment.meteorclient.utils.render.color.Color;
 import meteordevelopment.meteorclient.utils.render.color.SettingColor;
 import meteordevelopment.meteorclient.utils.world.BlockIterator;
 import meteordevelopment.meteorclient.utils.world.Dir;
+import meteordevelopment.meteorclient.utils.world.SectionOccupancy;
 import meteordevelopment.orbit.EventHandler;
-import net.minecraft.block.Block;
 import net.minecraft.block.Blocks;
 import net.minecraft.util.math.BlockPos;
-import net.minecraft.util.math.ChunkSectionPos;
 import net.minecraft.util.math.Direction;
-import net.minecraft.world.chunk.WorldChunk;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -60,6 +57,7 @@ public class HoleESP extends Module {
         .defaultValue(3)
         .min(1)
         .sliderMin(1)
+        .onChanged(v -> BlockIterator.invalidate(this))
         .build()
     );
 
@@ -67,6 +65,7 @@ public class HoleESP extends Module {
         .name("doubles")
         .description("Highlights double holes that can be stood across.")
         .defaultValue(true)
+        .onChanged(v -> BlockIterator.invalidate(this))
         .build()
     );
 
@@ -81,6 +80,7 @@ public class HoleESP extends Module {
         .name("webs")
         .description("Whether to show holes that have webs inside of them.")
         .defaultValue(false)
+        .onChanged(v -> BlockIterator.invalidate(this))
         .build()
     );
 
@@ -171,58 +171,67 @@ public class HoleESP extends Module {
         for (Hole hole : holes) holePool.free(hole);
         holes.clear();
 
-        // Probe for holes
-        BlockIterator.register(horizontalRadius.get(), verticalRadius.get(), (blockPos, blockState) -> {
-            if (!validHole(blockPos)) return;
+        // Probe for holes, matches are cached by the iterator until a block near them changes
+        BlockIterator.registerCached(this, horizontalRadius.get(), verticalRadius.get(), (blockPos, blockState) -> probeHole(blockPos, false), (blockPos, blockState) -> probeHole(blockPos, true));
+    }
+
+    @Override
+    public void onDeactivate() {
+        BlockIterator.invalidate(this);
+    }
 
-            int bedrock = 0, obsidian = 0;
-            Direction air = null;
+    /**
+     * Checks if there is a hole at the given position. Only the world is taken into account unless {@code add} is true,
+     * in which case the hole is also checked against the player position and added to the render list.
+     */
+    private boolean probeHole(BlockPos blockPos, boolean add) {
+        if (!validHole(blockPos, add)) return false;
 
-            for (Direction direction : Direction.values()) {
-                if (direction == Direction.UP) continue;
-                BlockPos offsetPos = blockPos.offset(direction);
-                Block block = mc.world.getBlockState(offsetPos).getBlock();
-                boolean breakable = block.getHardness() >= 0;
+        int bedrock = 0, obsidian = 0;
+        Direction air = null;
 
-                if (((AbstractBlockAccessor) block).meteor$isCollidable() && !breakable) bedrock++;
-                else if (block.getBlastResistance() >= 600 && breakable) obsidian++;
-                else if (direction == Direction.DOWN) return;
-                else if (doubles.get() && air == null && validHole(offsetPos)) {
-                    for (Direction dir : Direction.values()) {
-                        if (dir == direction.getOpposite() || dir == Direction.UP) continue;
+        for (Direction direction : Direction.values()) {
+            if (direction == Direction.UP) continue;
+            BlockPos offsetPos = blockPos.offset(direction);
 
-                        block = mc.world.getBlockState(offsetPos.offset(dir)).getBlock();
-                        breakable = block.getHardness() >= 0;
+            if (SectionOccupancy.isBedrockLike(offsetPos)) bedrock++;
+            else if (SectionOccupancy.isObsidianLike(offsetPos)) obsidian++;
+            else if (direction == Direction.DOWN) return false;
+            else if (doubles.get() && air == null && validHole(offsetPos, add)) {
+                for (Direction dir : Direction.values()) {
+                    if (dir == direction.getOpposite() || dir == Direction.UP) continue;
 
-                        if (((AbstractBlockAccessor) block).meteor$isCollidable() && !breakable) bedrock++;
-                        else if (block.getBlastResistance() >= 600 && breakable) obsidian++;
-                        else return;
-                    }
+                    BlockPos sidePos = offsetPos.offset(dir);
 
-                    air = direction;
+                    if (SectionOccupancy.isBedrockLike(sidePos)) bedrock++;
+                    else if (SectionOccupancy.isObsidianLike(sidePos)) obsidian++;
+                    else return false;
                 }
-            }
 
-            if (obsidian + bedrock == 5 && air == null) {
-                holes.add(holePool.get().set(blockPos, obsidian == 5 ? Hole.Type.Obsidian : (bedrock == 5 ? Hole.Type.Bedrock : Hole.Type.Mixed), NULL));
-            }
-            else if (obsidian + bedrock == 8 && doubles.get() && air != null) {
-                holes.add(holePool.get().set(blockPos, obsidian == 8 ? Hole.Type.Obsidian : (bedrock == 8 ? Hole.Type.Bedrock : Hole.Type.Mixed), Dir.get(air)));
+                air = direction;
             }
-        });
-    }
+        }
 
-    private boolean validHole(BlockPos pos) {
-        if (ignoreOwn.get() && mc.player.getBlockPos().equals(pos)) return false;
+        if (obsidian + bedrock == 5 && air == null) {
+            if (add) holes.add(holePool.get().set(blockPos, obsidian == 5 ? Hole.Type.Obsidian : (bedrock == 5 ? Hole.Type.Bedrock : Hole.Type.Mixed), NULL));
+            return true;
+        }
+        else if (obsidian + bedrock == 8 && doubles.get() && air != null) {
+            if (add) holes.add(holePool.get().set(blockPos, obsidian == 8 ? Hole.Type.Obsidian : (bedrock == 8 ? Hole.Type.Bedrock : Hole.Type.Mixed), Dir.get(air)));
+            return true;
+        }
+
+        return false;
+    }
 
-        WorldChunk chunk = mc.world.getChunk(ChunkSectionPos.getSectionCoord(pos.getX()), ChunkSectionPos.getSectionCoord(pos.getZ()));
-        Block block = chunk.getBlockState(pos).getBlock();
-        if (!webs.get() && block == Blocks.COBWEB) return false;
+    private boolean validHole(BlockPos pos, boolean checkOwn) {
+        if (checkOwn && ignoreOwn.get() && mc.player.getBlockPos().equals(pos)) return false;
 
-        if (((AbstractBlockAccessor) block).meteor$isCollidable()) return false;
+        if (SectionOccupancy.isCollidable(pos)) return false;
+        if (!webs.get() && mc.world.getBlockState(pos).getBlock() == Blocks.COBWEB) return false;
 
-        for (int i = 0; i < holeHeight.get(); i++) {
-            if (((AbstractBlockAccessor) chunk.getBlockState(pos.up(i)).getBlock()).meteor$isCollidable()) return false;
+        for (int i = 1; i < holeHeight.get(); i++) {
+            if (SectionOccupancy.is(pos.getX(), pos.getY() + i, pos.getZ(), SectionOccupancy.COLLIDABLE)) return false;
         }
 
         return true;
@@ -5,9 +5,8 @@
 
 package meteordevelopment.meteorclient.systems.modules.render;
 
-import it.unimi.dsi.fastutil.objects.Object2IntMap;
-import it.unimi.dsi.fastutil.objects.Object2IntMaps;
-import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectMap;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
 import meteordevelopment.meteorclient.events.render.Render2DEvent;
 import meteordevelopment.meteorclient.events.world.TickEvent;
 import meteordevelopment.meteorclient.renderer.Renderer2D;
@@ -20,6 +19,7 @@ import meteordevelopment.meteorclient.systems.modules.Module;
 import meteordevelopment.meteorclient.systems.modules.Modules;
 import meteordevelopment.meteorclient.systems.modules.player.NameProtect;
 import meteordevelopment.meteorclient.utils.Utils;
+import meteordevelopment.meteorclient.utils.entity.EntityIndex;
 import meteordevelopment.meteorclient.utils.entity.EntityUtils;
 import meteordevelopment.meteorclient.utils.misc.Names;
 import meteordevelopment.meteorclient.utils.player.PlayerUtils;
@@ -293,9 +293,12 @@ public class Nametags extends Module {
     private final Color GOLD = new Color(232, 185, 35);
 
     private final Vector3d pos = new Vector3d();
-    private final double[] itemWidths = new double[6];
+
+    private final Reference2ObjectMap<PlayerEntity, PlayerLayout> layouts = new Reference2ObjectOpenHashMap<>();
+    private int layoutTick, layoutKey;
 
     private final List<Entity> entityList = new ArrayList<>();
+    private final List<Entity> candidates = new ArrayList<>();
 
     public Nametags() {
         super(Categories.Render, "nametags", "Displays customizable nametags above players, items and other entities.");
@@ -315,6 +318,11 @@ public class Nametags extends Module {
         }
     }
 
+    @Override
+    public void onDeactivate() {
+        layouts.clear();
+    }
+
     @EventHandler
     private void onTick(TickEvent.Post event) {
         entityList.clear();
@@ -323,9 +331,10 @@ public class Nametags extends Module {
         boolean notThirdPerson = mc.options.getPerspective().isFirstPerson();
         Vec3d cameraPos = mc.gameRenderer.getCamera().getPos();
 
-        for (Entity entity : mc.world.getEntities()) {
+        EntityIndex.get(entities.get(), candidates);
+
+        for (Entity entity : candidates) {
             EntityType<?> type = entity.getType();
-            if (!entities.get().contains(type)) continue;
 
             if (type == EntityType.PLAYER) {
                 if ((ignoreSelf.get() || (freecamNotActive && notThirdPerson)) && entity == mc.player) continue;
@@ -338,7 +347,11 @@ public class Nametags extends Module {
             }
         }
 
-        entityList.sort(Comparator.comparing(e -> e.squaredDistanceTo(cameraPos)));
+        entityList.sort(Comparator.comparingDouble(e -> e.squaredDistanceTo(cameraPos)));
+
+        // Layouts of players that were not rendered for a second are dropped
+        layoutTick++;
+        layouts.values().removeIf(layout -> layoutTick - layout.lastUsed > 20);
     }
 
     @EventHandler
@@ -346,6 +359,9 @@ public class Nametags extends Module {
         int count = getRenderCount();
         boolean shadow = Config.get().customFont.get();
 
+        // Everything cached layouts depend on besides the player
+        layoutKey = Objects.hash(TextRenderer.get(), shadow, itemSpacing.get(), ignoreEmpty.get(), itemDurability.get(), displayEnchants.get(), shownEnchantments.get(), enchantLength.get(), enchantTextScale.get());
+
         for (int i = count - 1; i > -1; i--) {
             Entity entity = entityList.get(i);
 
@@ -393,65 +409,27 @@ public class Nametags extends Module {
         TextRenderer text = TextRenderer.get();
         NametagUtils.begin(pos, event.drawContext);
 
-        // Gamemode
-        GameMode gm = EntityUtils.getGameMode(player);
-        String gmText = "BOT";
-        if (gm != null) {
-            gmText = switch (gm) {
-                case SPECTATOR -> "Sp";
-                case SURVIVAL -> "S";
-                case CREATIVE -> "C";
-                case ADVENTURE -> "A";
-            };
-        }
-
-        gmText = "[" + gmText + "] ";
-
-        // Name
-        String name;
-        Color nameColor = PlayerUtils.getPlayerColor(player, this.nameColor.get());
-
-        if (player == mc.player) name = Modules.get().get(NameProtect.class).getName(player.getName().getString());
-        else name = player.getName().getString();
-
-        // Health
-        float absorption = player.getAbsorptionAmount();
-        int health = Math.round(player.getHealth() + absorption);
-        double healthPercentage = health / (player.getMaxHealth() + absorption);
+        PlayerLayout layout = layouts.get(player);
 
-        String healthText = " " + health;
-        Color healthColor;
-
-        if (healthPercentage <= 0.333) healthColor = RED;
-        else if (healthPercentage <= 0.666) healthColor = AMBER;
-        else healthColor = GREEN;
-
-        // Ping
-        int ping = EntityUtils.getPing(player);
-        String pingText = " [" + ping + "ms]";
+        if (layout == null) {
+            layout = new PlayerLayout();
+            layouts.put(player, layout);
+        }
 
-        // Distance
-        double dist = Math.round(PlayerUtils.distanceToCamera(player) * 10.0) / 10.0;
-        String distText = " " + dist + "m";
+        layout.update(player, text, shadow);
 
         // Calc widths
-        double gmWidth = text.getWidth(gmText, shadow);
-        double nameWidth = text.getWidth(name, shadow);
-        double healthWidth = text.getWidth(healthText, shadow);
-        double pingWidth = text.getWidth(pingText, shadow);
-        double distWidth = text.getWidth(distText, shadow);
-
-        double width = nameWidth;
+        double width = layout.nameWidth;
 
         boolean renderPlayerDistance = player != mc.cameraEntity || Modules.get().isActive(Freecam.class);
 
-        if (displayHealth.get()) width += healthWidth;
-        if (displayGameMode.get()) width += gmWidth;
-        if (displayPing.get()) width += pingWidth;
-        if (displayDistance.get() && renderPlayerDistance) width += distWidth;
+        if (displayHealth.get()) width += layout.healthWidth;
+        if (displayGameMode.get()) width += layout.gmWidth;
+        if (displayPing.get()) width += layout.pingWidth;
+        if (displayDistance.get() && renderPlayerDistance) width += layout.distWidth;
 
         double widthHalf = width / 2;
-        double heightDown = text.getHeight(shadow);
+        double heightDown = layout.heightDown;
 
         drawBg(-widthHalf, -heightDown, width, heightDown);
 
@@ -460,120 +438,76 @@ public class Nametags extends Module {
         double hX = -widthHalf;
         double hY = -heightDown;
 
-        if (displayGameMode.get()) hX = text.render(gmText, hX, hY, gamemodeColor.get(), shadow);
-        hX = text.render(name, hX, hY, nameColor, shadow);
+        if (displayGameMode.get()) hX = text.render(layout.gmText, hX, hY, gamemodeColor.get(), shadow);
+        hX = text.render(layout.name, hX, hY, PlayerUtils.getPlayerColor(player, nameColor.get()), shadow);
 
-        if (displayHealth.get()) hX = text.render(healthText, hX, hY, healthColor, shadow);
-        if (displayPing.get()) hX = text.render(pingText, hX, hY, pingColor.get(), shadow);
+        if (displayHealth.get()) hX = text.render(layout.healthText, hX, hY, layout.healthColor, shadow);
+        if (displayPing.get()) hX = text.render(layout.pingText, hX, hY, pingColor.get(), shadow);
         if (displayDistance.get() && renderPlayerDistance) {
             switch (distanceColorMode.get()) {
-                case Flat ->  text.render(distText, hX, hY, distanceColor.get(), shadow);
-                case Gradient -> text.render(distText, hX, hY, EntityUtils.getColorFromDistance(player), shadow);
+                case Flat ->  text.render(layout.distText, hX, hY, distanceColor.get(), shadow);
+                case Gradient -> text.render(layout.distText, hX, hY, EntityUtils.getColorFromDistance(player), shadow);
             }
         }
 
         text.end();
 
         if (displayItems.get()) {
-            // Item calc
-            Arrays.fill(itemWidths, 0);
-            boolean hasItems = false;
-            int maxEnchantCount = 0;
-
-            for (int i = 0; i < 6; i++) {
-                ItemStack itemStack = getItem(player, i);
-
-                // Setting up widths
-                if (itemWidths[i] == 0 && (!ignoreEmpty.get() || !itemStack.isEmpty()))
-                    itemWidths[i] = 32 + itemSpacing.get();
-
-                if (!itemStack.isEmpty()) hasItems = true;
-
-                if (displayEnchants.get()) {
-                    ItemEnchantmentsComponent enchantments = EnchantmentHelper.getEnchantments(itemStack);
-
-                    int size = 0;
-                    for (RegistryEntry<Enchantment> enchantment : enchantments.getEnchantments()) {
-                        if (enchantment.getKey().isPresent() && !shownEnchantments.get().contains(enchantment.getKey().get())) continue;
-                        String enchantName = Utils.getEnchantSimpleName(enchantment, enchantLength.get()) + " " + enchantments.getLevel(enchantment);
-                        itemWidths[i] = Math.max(itemWidths[i], (text.getWidth(enchantName, shadow) / 2));
-                        size++;
-                    }
-
-                    maxEnchantCount = Math.max(maxEnchantCount, size);
-                }
-            }
-
-            double itemsHeight = (hasItems ? 32 : 0);
-            double itemWidthTotal = 0;
-            for (double w : itemWidths) itemWidthTotal += w;
-            double itemWidthHalf = itemWidthTotal / 2;
+            double itemsHeight = (layout.hasItems ? 32 : 0);
+            double itemWidthHalf = layout.itemWidthTotal / 2;
 
             double y = -heightDown - 7 - itemsHeight;
             double x = -itemWidthHalf;
 
             // Rendering items and enchants
             for (int i = 0; i < 6; i++) {
-                ItemStack stack = getItem(player, i);
+                ItemStack stack = layout.stacks[i];
+                ItemLayout item = layout.items[i];
 
                 RenderUtils.drawItem(event.drawContext, stack, (int) x, (int) y, 2, true, null, false);
 
-                if (stack.isDamageable() && itemDurability.get() != Durability.None) {
+                if (item.damageText != null) {
                     text.begin(0.75, false, true);
-
-                    String damageText = switch (itemDurability.get()) {
-                        case Percentage -> String.format("%.0f%%", ((stack.getMaxDamage() - stack.getDamage()) * 100f) / (float) stack.getMaxDamage());
-                        case Total -> Integer.toString(stack.getMaxDamage() - stack.getDamage());
-                        default -> "err";
-                    };
-                    Color damageColor = new Color(stack.getItemBarColor());
-
-                    text.render(damageText, (int) x, (int) y, damageColor.a(255), true);
+                    text.render(item.damageText, (int) x, (int) y, item.damageColor, true);
                     text.end();
                 }
 
-                if (maxEnchantCount > 0 && displayEnchants.get()) {
+                if (layout.maxEnchantCount > 0 && displayEnchants.get()) {
                     text.begin(0.5 * enchantTextScale.get(), false, true);
 
-                    ItemEnchantmentsComponent enchantments = EnchantmentHelper.getEnchantments(stack);
-                    Object2IntMap<RegistryEntry<Enchantment>> enchantmentsToShow = new Object2IntOpenHashMap<>();
-
-                    for (RegistryEntry<Enchantment> enchantment : enchantments.getEnchantments()) {
-                        if (enchantment.matches(shownEnchantments.get()::contains)) {
-                            enchantmentsToShow.put(enchantment, enchantments.getLevel(enchantment));
-                        }
+                    // Enchant names are measured at the scale they are rendered at
+                    if (!item.measured) {
+                        for (int j = 0; j < item.enchantNames.size(); j++) item.enchantWidths[j] = text.getWidth(item.enchantNames.get(j), shadow);
+                        item.enchantHeight = text.getHeight(shadow);
+                        item.measured = true;
                     }
 
-                    double aW = itemWidths[i];
+                    double aW = layout.itemWidths[i];
                     double enchantY = 0;
+                    int enchantCount = item.enchantNames.size();
 
                     double addY = switch (enchantPos.get()) {
-                        case Above -> -((enchantmentsToShow.size() + 1) * text.getHeight(shadow));
-                        case OnTop -> (itemsHeight - enchantmentsToShow.size() * text.getHeight(shadow)) / 2;
+                        case Above -> -((enchantCount + 1) * item.enchantHeight);
+                        case OnTop -> (itemsHeight - enchantCount * item.enchantHeight) / 2;
                     };
 
                     double enchantX;
 
-                    for (Object2IntMap.Entry<RegistryEntry<Enchantment>> entry : Object2IntMaps.fastIterable(enchantmentsToShow)) {
-                        String enchantName = Utils.getEnchantSimpleName(entry.getKey(), enchantLength.get()) + " " + entry.getIntValue();
-
-                        Color enchantColor = WHITE;
-                        if (entry.getKey().isIn(EnchantmentTags.CURSE)) enchantColor = RED;
-
+                    for (int j = 0; j < enchantCount; j++) {
                         enchantX = switch (enchantPos.get()) {
-                            case Above -> x + (aW / 2) - (text.getWidth(enchantName, shadow) / 2);
-                            case OnTop -> x + (aW - text.getWidth(enchantName, shadow)) / 2;
+                            case Above -> x + (aW / 2) - (item.enchantWidths[j] / 2);
+                            case OnTop -> x + (aW - item.enchantWidths[j]) / 2;
                         };
 
-                        text.render(enchantName, enchantX, y + addY + enchantY, enchantColor, shadow);
+                        text.render(item.enchantNames.get(j), enchantX, y + addY + enchantY, item.enchantColors.get(j), shadow);
 
-                        enchantY += text.getHeight(shadow);
+                        enchantY += item.enchantHeight;
                     }
 
                     text.end();
                 }
 
-                x += itemWidths[i];
+                x += layout.itemWidths[i];
             }
         } else if (displayEnchants.get()) displayEnchants.set(false);
 
@@ -694,6 +628,219 @@ public class Nametags extends Module {
         NametagUtils.end();
     }
 
+    /**
+     * Measured texts and item layout of a player nametag. Every part is only built again when what it shows changed,
+     * the whole layout when one of the settings or the font it was measured with changed.
+     */
+    private class PlayerLayout {
+        private int key, itemsKey;
+        private int lastUsed;
+
+        // Top line
+        private GameMode gameMode;
+        private String gmText;
+        private double gmWidth;
+
+        private String name;
+        private double nameWidth;
+
+        private int health = Integer.MIN_VALUE;
+        private String healthText;
+        private double healthWidth;
+        private Color healthColor;
+
+        private int ping = Integer.MIN_VALUE;
+        private String pingText;
+        private double pingWidth;
+
+        private double distance = Double.NaN;
+        private String distText;
+        private double distWidth;
+
+        private double heightDown;
+
+        // Items
+        private final ItemStack[] stacks = new ItemStack[6];
+        private final int[] damages = new int[6];
+        private final int[] counts = new int[6];
+        private final ItemLayout[] items = new ItemLayout[6];
+
+        private final double[] itemWidths = new double[6];
+        private double itemWidthTotal;
+        private boolean hasItems;
+        private int maxEnchantCount;
+
+        public void update(PlayerEntity player, TextRenderer text, boolean shadow) {
+            lastUsed = layoutTick;
+
+            boolean rebuild = key != layoutKey || gmText == null;
+            key = layoutKey;
+
+            if (rebuild) heightDown = text.getHeight(shadow);
+
+            // Gamemode
+            GameMode gm = EntityUtils.getGameMode(player);
+
+            if (rebuild || gm != gameMode) {
+                gameMode = gm;
+
+                String gmText = "BOT";
+                if (gm != null) {
+                    gmText = switch (gm) {
+                        case SPECTATOR -> "Sp";
+                        case SURVIVAL -> "S";
+                        case CREATIVE -> "C";
+                        case ADVENTURE -> "A";
+                    };
+                }
+
+                this.gmText = "[" + gmText + "] ";
+                gmWidth = text.getWidth(this.gmText, shadow);
+            }
+
+            // Name
+            String name;
+
+            if (player == mc.player) name = Modules.get().get(NameProtect.class).getName(player.getName().getString());
+            else name = player.getGameProfile().getName();
+
+            if (rebuild || !name.equals(this.name)) {
+                this.name = name;
+                nameWidth = text.getWidth(name, shadow);
+            }
+
+            // Health
+            float absorption = player.getAbsorptionAmount();
+            int health = Math.round(player.getHealth() + absorption);
+            double healthPercentage = health / (player.getMaxHealth() + absorption);
+
+            if (healthPercentage <= 0.333) healthColor = RED;
+            else if (healthPercentage <= 0.666) healthColor = AMBER;
+            else healthColor = GREEN;
+
+            if (rebuild || health != this.health) {
+                this.health = health;
+                healthText = " " + health;
+                healthWidth = text.getWidth(healthText, shadow);
+            }
+
+            // Ping
+            int ping = EntityUtils.getPing(player);
+
+            if (rebuild || ping != this.ping) {
+                this.ping = ping;
+                pingText = " [" + ping + "ms]";
+                pingWidth = text.getWidth(pingText, shadow);
+            }
+
+            // Distance
+            double dist = Math.round(PlayerUtils.distanceToCamera(player) * 10.0) / 10.0;
+
+            if (rebuild || dist != distance) {
+                distance = dist;
+                distText = " " + dist + "m";
+                distWidth = text.getWidth(distText, shadow);
+            }
+
+            if (displayItems.get()) updateItems(player, text, shadow);
+        }
+
+        private void updateItems(PlayerEntity player, TextRenderer text, boolean shadow) {
+            // Items are tracked separately since they are skipped while not displayed
+            boolean rebuild = itemsKey != layoutKey || items[0] == null;
+            boolean changed = rebuild;
+            itemsKey = layoutKey;
+
+            for (int i = 0; i < 6; i++) {
+                ItemStack stack = getItem(player, i);
+
+                // Equipment updates replace the stack, the player's own stacks are changed in place
+                if (rebuild || stack != stacks[i] || stack.getDamage() != damages[i] || stack.getCount() != counts[i]) {
+                    stacks[i] = stack;
+                    damages[i] = stack.getDamage();
+                    counts[i] = stack.getCount();
+
+                    if (items[i] == null) items[i] = new ItemLayout();
+                    items[i].set(stack, text, shadow);
+
+                    changed = true;
+                }
+            }
+
+            if (!changed) return;
+
+            hasItems = false;
+            maxEnchantCount = 0;
+            itemWidthTotal = 0;
+
+            for (int i = 0; i < 6; i++) {
+                ItemLayout item = items[i];
+
+                itemWidths[i] = item.width;
+                itemWidthTotal += item.width;
+
+                if (!stacks[i].isEmpty()) hasItems = true;
+                maxEnchantCount = Math.max(maxEnchantCount, item.enchantCount);
+            }
+        }
+    }
+
+    private class ItemLayout {
+        private double width;
+        private int enchantCount;
+
+        private String damageText;
+        private Color damageColor;
+
+        private final List<String> enchantNames = new ArrayList<>();
+        private final List<Color> enchantColors = new ArrayList<>();
+        private double[] enchantWidths = new double[0];
+        private double enchantHeight;
+        private boolean measured;
+
+        public void set(ItemStack stack, TextRenderer text, boolean shadow) {
+            width = !ignoreEmpty.get() || !stack.isEmpty() ? 32 + itemSpacing.get() : 0;
+            enchantCount = 0;
+
+            // Durability
+            damageText = null;
+
+            if (stack.isDamageable() && itemDurability.get() != Durability.None) {
+                damageText = switch (itemDurability.get()) {
+                    case Percentage -> String.format("%.0f%%", ((stack.getMaxDamage() - stack.getDamage()) * 100f) / (float) stack.getMaxDamage());
+                    case Total -> Integer.toString(stack.getMaxDamage() - stack.getDamage());
+                    default -> "err";
+                };
+                damageColor = new Color(stack.getItemBarColor()).a(255);
+            }
+
+            // Enchants
+            enchantNames.clear();
+            enchantColors.clear();
+            measured = false;
+
+            if (!displayEnchants.get()) return;
+
+            ItemEnchantmentsComponent enchantments = EnchantmentHelper.getEnchantments(stack);
+
+            for (RegistryEntry<Enchantment> enchantment : enchantments.getEnchantments()) {
+                if (enchantment.getKey().isPresent() && !shownEnchantments.get().contains(enchantment.getKey().get())) continue;
+                String enchantName = Utils.getEnchantSimpleName(enchantment, enchantLength.get()) + " " + enchantments.getLevel(enchantment);
+                width = Math.max(width, (text.getWidth(enchantName, shadow) / 2));
+                enchantCount++;
+            }
+
+            for (RegistryEntry<Enchantment> enchantment : enchantments.getEnchantments()) {
+                if (!enchantment.matches(shownEnchantments.get()::contains)) continue;
+
+                enchantNames.add(Utils.getEnchantSimpleName(enchantment, enchantLength.get()) + " " + enchantments.getLevel(enchantment));
+                enchantColors.add(enchantment.isIn(EnchantmentTags.CURSE) ? RED : WHITE);
+            }
+
+            if (enchantWidths.length < enchantNames.size()) enchantWidths = new double[enchantNames.size()];
+        }
+    }
+
     private ItemStack getItem(PlayerEntity entity, int index) {
         return switch (index) {
             case 0 -> entity.getMainHandStack();
@@ -18,7 +18,6 @@ import meteordevelopment.meteorclient.renderer.ShapeMode;
 import meteordevelopment.meteorclient.settings.*;
 import meteordevelopment.meteorclient.systems.modules.Categories;
 import meteordevelopment.meteorclient.systems.modules.Module;
-import meteordevelopment.meteorclient.utils.Utils;
 import meteordevelopment.meteorclient.utils.player.PlayerUtils;
 import meteordevelopment.meteorclient.utils.render.MeshBuilderVertexConsumerProvider;
 import meteordevelopment.meteorclient.utils.render.RenderUtils;
@@ -27,6 +26,7 @@ import meteordevelopment.meteorclient.utils.render.color.Color;
 import meteordevelopment.meteorclient.utils.render.color.SettingColor;
 import meteordevelopment.meteorclient.utils.render.postprocess.PostProcessShaders;
 import meteordevelopment.meteorclient.utils.world.Dir;
+import meteordevelopment.meteorclient.utils.world.StorageIndex;
 import meteordevelopment.orbit.EventHandler;
 import net.minecraft.block.BlockState;
 import net.minecraft.block.Blocks;
@@ -36,6 +36,7 @@ import net.minecraft.block.enums.ChestType;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.Direction;
 
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -172,7 +173,6 @@ public class StorageESP extends Module {
 
     private final Color lineColor = new Color(0, 0, 0, 0);
     private final Color sideColor = new Color(0, 0, 0, 0);
-    private boolean render;
     private int count;
 
     private final MeshBuilder mesh;
@@ -185,20 +185,18 @@ public class StorageESP extends Module {
         vertexConsumerProvider = new MeshBuilderVertexConsumerProvider(mesh);
     }
 
-    private void getBlockEntityColor(BlockEntity blockEntity) {
-        render = false;
-
-        if (!storageBlocks.get().contains(blockEntity.getType())) return;
-
-        if (blockEntity instanceof TrappedChestBlockEntity) lineColor.set(trappedChest.get()); // Must come before ChestBlockEntity as it is the superclass of TrappedChestBlockEntity
-        else if (blockEntity instanceof ChestBlockEntity) lineColor.set(chest.get());
-        else if (blockEntity instanceof BarrelBlockEntity) lineColor.set(barrel.get());
-        else if (blockEntity instanceof ShulkerBoxBlockEntity) lineColor.set(shulker.get());
-        else if (blockEntity instanceof EnderChestBlockEntity) lineColor.set(enderChest.get());
-        else if (blockEntity instanceof AbstractFurnaceBlockEntity || blockEntity instanceof BrewingStandBlockEntity || blockEntity instanceof ChiseledBookshelfBlockEntity || blockEntity instanceof CrafterBlockEntity || blockEntity instanceof DispenserBlockEntity || blockEntity instanceof DecoratedPotBlockEntity || blockEntity instanceof HopperBlockEntity) lineColor.set(other.get());
-        else return;
+    private SettingColor getColor(BlockEntityType<?> type) {
+        if (type == BlockEntityType.TRAPPED_CHEST) return trappedChest.get();
+        if (type == BlockEntityType.CHEST) return chest.get();
+        if (type == BlockEntityType.BARREL) return barrel.get();
+        if (type == BlockEntityType.SHULKER_BOX) return shulker.get();
+        if (type == BlockEntityType.ENDER_CHEST) return enderChest.get();
+        if (type == BlockEntityType.FURNACE || type == BlockEntityType.BLAST_FURNACE || type == BlockEntityType.SMOKER || type == BlockEntityType.BREWING_STAND || type == BlockEntityType.CHISELED_BOOKSHELF || type == BlockEntityType.CRAFTER || type == BlockEntityType.DISPENSER || type == BlockEntityType.DROPPER || type == BlockEntityType.DECORATED_POT || type == BlockEntityType.HOPPER) return other.get();
+        return null;
+    }
 
-        render = true;
+    private void setColors(Color color) {
+        lineColor.set(color);
 
         if (shapeMode.get() == ShapeMode.Sides || shapeMode.get() == ShapeMode.Both) {
             sideColor.set(lineColor);
@@ -244,12 +242,32 @@ public class StorageESP extends Module {
     private void onRender(Render3DEvent event) {
         count = 0;
 
-        for (BlockEntity blockEntity : Utils.blockEntities()) {
+        // Tracers also point at storage behind the camera, chunks can only be culled without them
+        StorageIndex.forEach(storageBlocks.get(), !tracers.get(), (type, blockEntities) -> render(event, type, blockEntities));
+
+        if (mode.get() == Mode.Shader && count > 0) {
+            PostProcessShaders.STORAGE_OUTLINE.endRender(() -> MeshRenderer.begin()
+                .attachments(mc.getFramebuffer())
+                .clearColor(Color.CLEAR)
+                .pipeline(MeteorRenderPipelines.WORLD_COLORED)
+                .mesh(mesh, event.matrices)
+                .end()
+            );
+        }
+    }
+
+
+    private void render(Render3DEvent event, BlockEntityType<?> type, Collection<BlockEntity> blockEntities) {
+        // Colors only depend on the type, they are resolved once for every chunk
+        SettingColor color = getColor(type);
+        if (color == null) return;
+
+        for (BlockEntity blockEntity : blockEntities) {
             // Check if the block has been interacted with (opened)
             boolean interacted = interactedBlocks.contains(blockEntity.getPos());
             if (interacted && hideOpened.get()) continue;  // Skip rendering if "hideOpened" is true
 
-            getBlockEntityColor(blockEntity);
+            setColors(color);
 
             // Set the color to openedColor if its alpha is greater than 0
             if (interacted && openedColor.get().a > 0) {
@@ -259,55 +277,42 @@ public class StorageESP extends Module {
                 sideColor.a = fillOpacity.get(); // Maintain fill opacity setting for consistency
             }
 
-            if (render) {
-                double dist = PlayerUtils.squaredDistanceTo(blockEntity.getPos().getX() + 0.5, blockEntity.getPos().getY() + 0.5, blockEntity.getPos().getZ() + 0.5);
-                double a = 1;
-                if (dist <= fadeDistance.get() * fadeDistance.get()) a = dist / (fadeDistance.get() * fadeDistance.get());
+            double dist = PlayerUtils.squaredDistanceTo(blockEntity.getPos().getX() + 0.5, blockEntity.getPos().getY() + 0.5, blockEntity.getPos().getZ() + 0.5);
+            double a = 1;
+            if (dist <= fadeDistance.get() * fadeDistance.get()) a = dist / (fadeDistance.get() * fadeDistance.get());
 
-                if (a < 0.075) continue;
+            if (a < 0.075) continue;
 
-                // Only start a mesh when there's something to render
-                if (count == 0 && mode.get() == Mode.Shader) {
-                    mesh.begin();
-                }
-
-                int prevLineA = lineColor.a;
-                int prevSideA = sideColor.a;
-
-                lineColor.a *= a;
-                sideColor.a *= a;
+            // Only start a mesh when there's something to render
+            if (count == 0 && mode.get() == Mode.Shader) {
+                mesh.begin();
+            }
 
-                if (tracers.get()) {
-                    event.renderer.line(RenderUtils.center.x, RenderUtils.center.y, RenderUtils.center.z, blockEntity.getPos().getX() + 0.5, blockEntity.getPos().getY() + 0.5, blockEntity.getPos().getZ() + 0.5, lineColor);
-                }
+            int prevLineA = lineColor.a;
+            int prevSideA = sideColor.a;
 
-                if (mode.get() == Mode.Box) {
-                    renderBox(event, blockEntity);
-                }
+            lineColor.a *= a;
+            sideColor.a *= a;
 
-                if (mode.get() == Mode.Shader) {
-                    renderShader(event, blockEntity);
-                }
+            if (tracers.get()) {
+                event.renderer.line(RenderUtils.center.x, RenderUtils.center.y, RenderUtils.center.z, blockEntity.getPos().getX() + 0.5, blockEntity.getPos().getY() + 0.5, blockEntity.getPos().getZ() + 0.5, lineColor);
+            }
 
-                lineColor.a = prevLineA;
-                sideColor.a = prevSideA;
+            if (mode.get() == Mode.Box) {
+                renderBox(event, blockEntity);
+            }
 
-                count++;
+            if (mode.get() == Mode.Shader) {
+                renderShader(event, blockEntity);
             }
-        }
 
-        if (mode.get() == Mode.Shader && count > 0) {
-            PostProcessShaders.STORAGE_OUTLINE.endRender(() -> MeshRenderer.begin()
-                .attachments(mc.getFramebuffer())
-                .clearColor(Color.CLEAR)
-                .pipeline(MeteorRenderPipelines.WORLD_COLORED)
-                .mesh(mesh, event.matrices)
-                .end()
-            );
+            lineColor.a = prevLineA;
+            sideColor.a = prevSideA;
+
+            count++;
         }
     }
 
-
     private void renderBox(Render3DEvent event, BlockEntity blockEntity) {
         double x1 = blockEntity.getPos().getX();
         double y1 = blockEntity.getPos().getY();
@@ -14,6 +14,7 @@ import meteordevelopment.meteorclient.systems.friends.Friends;
 import meteordevelopment.meteorclient.systems.modules.Categories;
 import meteordevelopment.meteorclient.systems.modules.Module;
 import meteordevelopment.meteorclient.systems.modules.Modules;
+import meteordevelopment.meteorclient.utils.entity.EntityIndex;
 import meteordevelopment.meteorclient.utils.entity.EntityUtils;
 import meteordevelopment.meteorclient.utils.entity.Target;
 import meteordevelopment.meteorclient.utils.player.PlayerUtils;
@@ -31,6 +32,8 @@ import org.joml.Vector3d;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 
 public class Tracers extends Module {
@@ -212,6 +215,7 @@ public class Tracers extends Module {
 
     private int count;
     private final Instant initTimer = Instant.now();
+    private final List<Entity> entityList = new ArrayList<>();
 
     public Tracers() {
         super(Categories.Render, "tracers", "Displays tracer lines to specified entities.");
@@ -251,7 +255,9 @@ public class Tracers extends Module {
         if (mc.options.hudHidden || style.get() == TracerStyle.Offscreen) return;
         count = 0;
 
-        for (Entity entity : mc.world.getEntities()) {
+        EntityIndex.get(entities.get(), entityList);
+
+        for (Entity entity : entityList) {
             if (shouldBeIgnored(entity)) continue;
 
             Color color = getEntityColor(entity);
@@ -278,7 +284,9 @@ public class Tracers extends Module {
 
         Renderer2D.COLOR.begin();
 
-        for (Entity entity : mc.world.getEntities()) {
+        EntityIndex.get(entities.get(), entityList);
+
+        for (Entity entity : entityList) {
             if (shouldBeIgnored(entity)) continue;
 
             Color color = getEntityColor(entity);
@@ -5,26 +5,29 @@
 
 package meteordevelopment.meteorclient.systems.modules.render;
 
-import it.unimi.dsi.fastutil.ints.IntIterator;
-import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
-import it.unimi.dsi.fastutil.ints.IntSet;
 import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
 import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
-import meteordevelopment.meteorclient.MeteorClient;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import it.unimi.dsi.fastutil.objects.Reference2ByteMap;
+import it.unimi.dsi.fastutil.objects.Reference2ByteOpenHashMap;
 import meteordevelopment.meteorclient.events.render.Render3DEvent;
+import meteordevelopment.meteorclient.events.world.BlockUpdateEvent;
 import meteordevelopment.meteorclient.events.world.TickEvent;
+import meteordevelopment.meteorclient.renderer.MeteorRenderPipelines;
 import meteordevelopment.meteorclient.renderer.Renderer3D;
+import meteordevelopment.meteorclient.renderer.RetainedRenderer3D;
 import meteordevelopment.meteorclient.renderer.ShapeMode;
 import meteordevelopment.meteorclient.settings.*;
 import meteordevelopment.meteorclient.systems.modules.Categories;
 import meteordevelopment.meteorclient.systems.modules.Module;
 import meteordevelopment.meteorclient.utils.Utils;
-import meteordevelopment.meteorclient.utils.network.MeteorExecutor;
+import meteordevelopment.meteorclient.utils.misc.WorkerPool;
 import meteordevelopment.meteorclient.utils.render.color.SettingColor;
 import meteordevelopment.meteorclient.utils.world.Dir;
 import meteordevelopment.orbit.EventHandler;
 import net.minecraft.block.BlockState;
-import net.minecraft.block.Blocks;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.ChunkPos;
 import net.minecraft.util.math.Direction;
@@ -35,7 +38,6 @@ import net.minecraft.world.chunk.ChunkSection;
 import net.minecraft.world.chunk.ChunkStatus;
 
 public class TunnelESP extends Module {
-    private static final BlockPos.Mutable BP = new BlockPos.Mutable();
     private static final Direction[] DIRECTIONS = { Direction.EAST, Direction.NORTH, Direction.SOUTH, Direction.WEST };
 
     private final SettingGroup sgGeneral = settings.getDefaultGroup();
@@ -77,6 +79,8 @@ public class TunnelESP extends Module {
     );
 
     private final Long2ObjectMap<TChunk> chunks = new Long2ObjectOpenHashMap<>();
+    private final LongSet pendingColumns = new LongOpenHashSet();
+    private int lastConfigHash;
 
     public TunnelESP() {
         super(Categories.Render, "tunnel-esp", "Highlights tunnels.");
@@ -84,122 +88,92 @@ public class TunnelESP extends Module {
 
     @Override
     public void onDeactivate() {
-        chunks.clear();
-    }
+        synchronized (chunks) {
+            for (TChunk tChunk : chunks.values()) tChunk.close();
+            chunks.clear();
+        }
 
-    private static int pack(int x, int y, int z) {
-        return ((x & 0xFF) << 24) | ((y & 0xFFFF) << 8) | (z & 0xFF);
+        pendingColumns.clear();
     }
 
-    private static byte getPackedX(int p) {
-        return (byte) (p >> 24 & 0xFF);
+    private static long[] allColumns() {
+        return new long[] { -1, -1, -1, -1 };
     }
 
-    private static short getPackedY(int p) {
-        return (short) (p >> 8 & 0xFFFF);
+    private static boolean hasColumn(long[] mask, int i) {
+        return (mask[i >> 6] & (1L << (i & 63))) != 0;
     }
 
-    private static byte getPackedZ(int p) {
-        return (byte) (p & 0xFF);
+    private static void addColumn(long[] mask, int i) {
+        mask[i >> 6] |= 1L << (i & 63);
     }
 
-    private void searchChunk(Chunk chunk, TChunk tChunk) {
-        // Prepare variables
-        Context ctx = new Context();
-        IntSet set = new IntOpenHashSet();
-
-        int startX = chunk.getPos().getStartX();
-        int startZ = chunk.getPos().getStartZ();
+    /**
+     * Recomputes tunnels of the given columns of a chunk, columns are indexed by {@code x << 4 | z}. Tunnels are found
+     * for the columns in the first mask, then the ones that are only a block long are removed from the second.
+     */
+    private void searchChunk(TChunk tChunk, long[] tunnelMask, long[] filterMask) {
+        if (!isActive() || mc.world == null) return;
 
-        int endX = chunk.getPos().getEndX();
-        int endZ = chunk.getPos().getEndZ();
+        Search search = new Search(mc.world);
+        int startX = tChunk.x << 4;
+        int startZ = tChunk.z << 4;
 
-        // Search for first set of tunnels
-        for (int x = startX; x <= endX; x++) {
-            for (int z = startZ; z <= endZ; z++) {
-                int height = chunk.getHeightmap(Heightmap.Type.WORLD_SURFACE).get(x - startX, z - startZ);
+        synchronized (tChunk) {
+            tChunk.bottomY = search.bottomY;
 
-                for (short y = (short) mc.world.getBottomY(); y < height; y++) {
-                    if (isTunnel(ctx, x, y, z)) set.add(pack(x - startX, y, z - startZ));
-                }
+            for (int i = 0; i < 256; i++) {
+                if (hasColumn(tunnelMask, i)) tChunk.unfiltered[i] = search.getTunnels(startX + (i >> 4), startZ + (i & 15));
             }
-        }
-
-        // Remove tunnels which are 1 block long
-        IntSet positions = new IntOpenHashSet();
 
-        for (IntIterator it = set.iterator(); it.hasNext();) {
-            int packed = it.nextInt();
-
-            byte x = getPackedX(packed);
-            short y = getPackedY(packed);
-            byte z = getPackedZ(packed);
-
-            if (x == 0 || x == 15 || z == 0 || z == 15) positions.add(packed);
-            else {
-                boolean has = false;
-
-                for (Direction dir : DIRECTIONS) {
-                    if (set.contains(pack(x + dir.getOffsetX(), y, z + dir.getOffsetZ()))) {
-                        has = true;
-                        break;
-                    }
-                }
-
-                if (has) positions.add(packed);
+            for (int i = 0; i < 256; i++) {
+                if (hasColumn(filterMask, i)) tChunk.tunnels[i] = filter(tChunk.unfiltered, i >> 4, i & 15);
             }
         }
 
-        tChunk.positions = positions;
+        // Neighbours may need to connect their tunnels to this chunk
+        synchronized (chunks) {
+            tChunk.searched = true;
+            tChunk.dirty = true;
+            markDirty(tChunk.x - 1, tChunk.z);
+            markDirty(tChunk.x + 1, tChunk.z);
+            markDirty(tChunk.x, tChunk.z - 1);
+            markDirty(tChunk.x, tChunk.z + 1);
+        }
     }
 
-    private boolean isTunnel(Context ctx, int x, int y, int z) {
-        if (!canWalkIn(ctx, x, y, z)) return false;
-
-        TunnelSide s1 = getTunnelSide(ctx, x + 1, y, z);
-        if (s1 == TunnelSide.PartiallyBlocked) return false;
-
-        TunnelSide s2 = getTunnelSide(ctx, x - 1, y, z);
-        if (s2 == TunnelSide.PartiallyBlocked) return false;
-
-        TunnelSide s3 = getTunnelSide(ctx, x, y, z + 1);
-        if (s3 == TunnelSide.PartiallyBlocked) return false;
+    /** Removes tunnels which are 1 block long, tunnels on the chunk border are always kept. */
+    private static long[] filter(long[][] unfiltered, int x, int z) {
+        long[] column = unfiltered[x << 4 | z];
+        if (column == null) return null;
+        if (x == 0 || x == 15 || z == 0 || z == 15) return column;
 
-        TunnelSide s4 = getTunnelSide(ctx, x, y, z - 1);
-        if (s4 == TunnelSide.PartiallyBlocked) return false;
+        long[] filtered = new long[column.length];
+        boolean any = false;
 
-        return (s1 == TunnelSide.Walkable && s2 == TunnelSide.Walkable && s3 == TunnelSide.FullyBlocked && s4 == TunnelSide.FullyBlocked) || (s1 == TunnelSide.FullyBlocked && s2 == TunnelSide.FullyBlocked && s3 == TunnelSide.Walkable && s4 == TunnelSide.Walkable);
-    }
-
-    private TunnelSide getTunnelSide(Context ctx, int x, int y, int z) {
-        if (canWalkIn(ctx, x, y, z)) return TunnelSide.Walkable;
-        if (!canWalkThrough(ctx, x, y, z) && !canWalkThrough(ctx, x, y + 1, z)) return TunnelSide.FullyBlocked;
-        return TunnelSide.PartiallyBlocked;
-    }
+        for (int w = 0; w < column.length; w++) {
+            long neighbours = 0;
 
-    private boolean canWalkOn(Context ctx, int x, int y, int z) {
-        BlockState state = ctx.get(x, y, z);
+            for (Direction dir : DIRECTIONS) {
+                long[] neighbour = unfiltered[(x + dir.getOffsetX()) << 4 | (z + dir.getOffsetZ())];
+                if (neighbour != null) neighbours |= neighbour[w];
+            }
 
-        if (state.isAir()) return false;
-        if (!state.getFluidState().isEmpty()) return false;
+            filtered[w] = column[w] & neighbours;
+            if (filtered[w] != 0) any = true;
+        }
 
-        return !state.getCollisionShape(mc.world, BP.set(x, y, z)).isEmpty();
+        return any ? filtered : null;
     }
 
-    private boolean canWalkThrough(Context ctx, int x, int y, int z) {
-        BlockState state = ctx.get(x, y, z);
-
-        if (state.isAir()) return true;
-        if (!state.getFluidState().isEmpty()) return false;
-
-        return state.getCollisionShape(mc.world, BP.set(x, y, z)).isEmpty();
+    private void markDirty(int x, int z) {
+        TChunk tChunk = chunks.get(ChunkPos.toLong(x, z));
+        if (tChunk != null) tChunk.dirty = true;
     }
 
-    private boolean canWalkIn(Context ctx, int x, int y, int z) {
-        if (!canWalkOn(ctx, x, y - 1, z)) return false;
-        if (!canWalkThrough(ctx, x, y, z)) return false;
-        if (canWalkThrough(ctx, x, y + 2, z)) return false;
-        return canWalkThrough(ctx, x, y + 1, z);
+    @EventHandler
+    private void onBlockUpdate(BlockUpdateEvent event) {
+        pendingColumns.add(ChunkPos.toLong(event.pos.getX(), event.pos.getZ()));
     }
 
     @EventHandler
@@ -216,51 +190,118 @@ public class TunnelESP extends Module {
                     TChunk tChunk = new TChunk(chunk.getPos().x, chunk.getPos().z);
                     chunks.put(tChunk.getKey(), tChunk);
 
-                    MeteorExecutor.execute(() -> searchChunk(chunk, tChunk));
+                    WorkerPool.execute(() -> searchChunk(tChunk, allColumns(), allColumns()));
                     added++;
                 }
             }
 
-            chunks.values().removeIf(tChunk -> !tChunk.marked);
+            chunks.values().removeIf(tChunk -> {
+                if (tChunk.marked) return false;
+
+                tChunk.close();
+                return true;
+            });
+
+            updatePendingColumns();
+        }
+    }
+
+    /**
+     * A changed block can change whether its own column and the four next to it are tunnels, which in turn decides
+     * whether tunnels two columns away are longer than a block. Only those columns are searched again.
+     */
+    private void updatePendingColumns() {
+        if (pendingColumns.isEmpty()) return;
+
+        Long2ObjectMap<long[][]> masks = new Long2ObjectOpenHashMap<>();
+
+        for (LongIterator it = pendingColumns.iterator(); it.hasNext();) {
+            long column = it.nextLong();
+            int x = ChunkPos.getPackedX(column);
+            int z = ChunkPos.getPackedZ(column);
+
+            for (int dx = -2; dx <= 2; dx++) {
+                for (int dz = -2; dz <= 2; dz++) {
+                    int cx = x + dx;
+                    int cz = z + dz;
+
+                    long key = ChunkPos.toLong(cx >> 4, cz >> 4);
+                    TChunk tChunk = chunks.get(key);
+                    if (tChunk == null || !tChunk.searched) continue;
+
+                    long[][] mask = masks.computeIfAbsent(key, k -> new long[2][4]);
+                    int i = (cx & 15) << 4 | (cz & 15);
+
+                    if (Math.abs(dx) + Math.abs(dz) <= 1) addColumn(mask[0], i);
+                    addColumn(mask[1], i);
+                }
+            }
+        }
+
+        pendingColumns.clear();
+
+        for (Long2ObjectMap.Entry<long[][]> entry : masks.long2ObjectEntrySet()) {
+            TChunk tChunk = chunks.get(entry.getLongKey());
+            long[][] mask = entry.getValue();
+
+            WorkerPool.execute(() -> searchChunk(tChunk, mask[0], mask[1]));
         }
     }
 
     @EventHandler
     private void onRender3D(Render3DEvent event) {
+        // Tunnel meshes bake in the height, connected, shape mode and color settings so changing any of them rebuilds them all
+        int configHash = getConfigHash();
+        boolean rebuild = configHash != lastConfigHash;
+        lastConfigHash = configHash;
+
         synchronized (chunks) {
-            for (TChunk chunk : chunks.values()) chunk.render(event.renderer);
+            for (TChunk chunk : chunks.values()) chunk.render(event, rebuild);
         }
     }
 
-    private boolean chunkContains(TChunk chunk, int x, int y, int z) {
-        int key;
+    private int getConfigHash() {
+        int hash = Double.hashCode(height.get());
+        hash = hash * 31 + Boolean.hashCode(connected.get());
+        hash = hash * 31 + shapeMode.get().ordinal();
+        hash = hash * 31 + sideColor.get().getPacked();
+        return hash * 31 + lineColor.get().getPacked();
+    }
 
+    private boolean chunkContains(TChunk chunk, int x, int y, int z) {
         if (x == -1) {
             chunk = chunks.get(ChunkPos.toLong(chunk.x - 1, chunk.z));
-            key = pack(15, y, z);
+            x = 15;
         }
         else if (x == 16) {
             chunk = chunks.get(ChunkPos.toLong(chunk.x + 1, chunk.z));
-            key = pack(0, y, z);
+            x = 0;
         }
         else if (z == -1) {
             chunk = chunks.get(ChunkPos.toLong(chunk.x, chunk.z - 1));
-            key = pack(x, y, 15);
+            z = 15;
         }
         else if (z == 16) {
             chunk = chunks.get(ChunkPos.toLong(chunk.x, chunk.z + 1));
-            key = pack(x, y, 0);
+            z = 0;
         }
-        else key = pack(x, y, z);
 
-        return chunk != null && chunk.positions != null && chunk.positions.contains(key);
+        return chunk != null && chunk.searched && chunk.contains(x, y, z);
     }
 
     private class TChunk {
         private final int x, z;
-        public IntSet positions;
+
+        // Tunnels of each column as a bitset over y, starting one block below the bottom of the world
+        private final long[][] unfiltered = new long[256][];
+        private final long[][] tunnels = new long[256][];
+        private int bottomY;
 
         public boolean marked;
+        public volatile boolean searched;
+        public volatile boolean dirty;
+
+        private RetainedRenderer3D mesh;
 
         public TChunk(int x, int z) {
             this.x = x;
@@ -268,29 +309,62 @@ public class TunnelESP extends Module {
             this.marked = true;
         }
 
-        public void render(Renderer3D renderer) {
-            if (positions == null) return;
+        public boolean contains(int x, int y, int z) {
+            long[] column = tunnels[x << 4 | z];
+            int i = y - bottomY + 1;
 
-            // Manual iteration to avoid boxing
-            for (IntIterator it = positions.iterator(); it.hasNext();) {
-                int pos = it.nextInt();
+            return column != null && i >= 0 && i < column.length * 64 && (column[i >> 6] & (1L << (i & 63))) != 0;
+        }
 
-                int x = getPackedX(pos);
-                int y = getPackedY(pos);
-                int z = getPackedZ(pos);
+        public void render(Render3DEvent event, boolean rebuild) {
+            if (!searched) return;
 
-                int excludeDir = 0;
+            if (mesh == null) mesh = new RetainedRenderer3D(MeteorRenderPipelines.WORLD_COLORED_LINES, MeteorRenderPipelines.WORLD_COLORED);
 
-                if (connected.get()) {
-                    for (Direction dir : DIRECTIONS) {
-                        if (chunkContains(this, x + dir.getOffsetX(), y, z + dir.getOffsetZ())) excludeDir |= Dir.get(dir);
-                    }
+            if (dirty || rebuild || mesh.isDirty()) {
+                dirty = false;
+
+                synchronized (this) {
+                    mesh.build(this.x * 16, 0, this.z * 16, this::build);
                 }
+            }
 
-                x += this.x * 16;
-                z += this.z * 16;
+            mesh.render(event.matrices);
+        }
 
-                renderer.box(x, y, z, x + 1, y + height.get(), z + 1, sideColor.get(), lineColor.get(), shapeMode.get(), excludeDir);
+        public void close() {
+            if (mesh != null) mesh.close();
+        }
+
+        private void build(Renderer3D renderer) {
+            for (int i = 0; i < 256; i++) {
+                long[] column = tunnels[i];
+                if (column == null) continue;
+
+                int x = i >> 4;
+                int z = i & 15;
+
+                for (int w = 0; w < column.length; w++) {
+                    long bits = column[w];
+
+                    while (bits != 0) {
+                        int y = bottomY - 1 + (w << 6) + Long.numberOfTrailingZeros(bits);
+                        bits &= bits - 1;
+
+                        int excludeDir = 0;
+
+                        if (connected.get()) {
+                            for (Direction dir : DIRECTIONS) {
+                                if (chunkContains(this, x + dir.getOffsetX(), y, z + dir.getOffsetZ())) excludeDir |= Dir.get(dir);
+                            }
+                        }
+
+                        int bx = x + this.x * 16;
+                        int bz = z + this.z * 16;
+
+                        renderer.box(bx, y, bz, bx + 1, y + height.get(), bz + 1, sideColor.get(), lineColor.get(), shapeMode.get(), excludeDir);
+                    }
+                }
             }
         }
 
@@ -299,39 +373,173 @@ public class TunnelESP extends Module {
         }
     }
 
-    private static class Context {
+    /**
+     * Finds tunnels using bitsets over the height of a column, bit {@code i} is the block at {@code bottomY - 1 + i}.
+     * Blocks outside the world count as air. Walkable and blocked bitsets are computed once per column and shared by
+     * the neighbouring columns searched by the same task.
+     */
+    private static class Search {
+        private static final byte WALK_THROUGH = 1;
+        private static final byte WALK_ON = 2;
+
         private final World world;
+        private final int bottomY, height, words;
 
-        private Chunk lastChunk;
+        private final Reference2ByteMap<BlockState> stateFlags = new Reference2ByteOpenHashMap<>();
+        private final Long2ObjectMap<long[][]> columns = new Long2ObjectOpenHashMap<>();
+        private final BlockPos.Mutable blockPos = new BlockPos.Mutable();
 
-        public Context() {
-            this.world = MeteorClient.mc.world;
+        public Search(World world) {
+            this.world = world;
+            this.bottomY = world.getBottomY();
+            this.height = world.getHeight();
+
+            // One block below and three above the world so shifted neighbours never fall off the bitset
+            this.words = (height + 4 + 63) >> 6;
         }
 
-        public BlockState get(int x, int y, int z) {
-            if (world.isOutOfHeightLimit(y)) return Blocks.VOID_AIR.getDefaultState();
+        /**
+         * A tunnel is a block you can walk in with walkable blocks on two opposite sides and fully blocked ones on the
+         * other two, only blocks below the surface are considered.
+         */
+        public long[] getTunnels(int x, int z) {
+            Chunk chunk = world.getChunk(x >> 4, z >> 4, ChunkStatus.FULL, false);
+            if (chunk == null) return null;
+
+            long[][] center = getColumn(x, z);
+            long[][] east = getColumn(x + 1, z);
+            long[][] west = getColumn(x - 1, z);
+            long[][] south = getColumn(x, z + 1);
+            long[][] north = getColumn(x, z - 1);
 
-            int cx = x >> 4;
-            int cz = z >> 4;
+            int surface = chunk.getHeightmap(Heightmap.Type.WORLD_SURFACE).get(x & 15, z & 15);
+            int maxBit = surface - bottomY;
 
-            Chunk chunk;
+            long[] tunnels = new long[words];
+            boolean any = false;
 
-            if (lastChunk != null && lastChunk.getPos().x == cx && lastChunk.getPos().z == cz) chunk = lastChunk;
-            else chunk = world.getChunk(cx, cz, ChunkStatus.FULL, false);
+            for (int w = 0; w < words; w++) {
+                long xAxis = east[0][w] & west[0][w] & south[1][w] & north[1][w];
+                long zAxis = east[1][w] & west[1][w] & south[0][w] & north[0][w];
 
-            if (chunk == null) return Blocks.VOID_AIR.getDefaultState();
+                long bits = center[0][w] & (xAxis | zAxis);
 
-            ChunkSection section = chunk.getSectionArray()[chunk.getSectionIndex(y)];
-            if (section == null) return Blocks.VOID_AIR.getDefaultState();
+                // Only from the bottom of the world up to the surface
+                bits &= rangeMask(w, 1, maxBit);
 
-            lastChunk = chunk;
-            return section.getBlockState(x & 15, y & 15, z & 15);
+                tunnels[w] = bits;
+                if (bits != 0) any = true;
+            }
+
+            return any ? tunnels : null;
         }
-    }
 
-    private enum TunnelSide {
-        Walkable,
-        PartiallyBlocked,
-        FullyBlocked
+        /** Returns the walkable and fully blocked bitsets of a column. */
+        private long[][] getColumn(int x, int z) {
+            long key = ChunkPos.toLong(x, z);
+
+            long[][] column = columns.get(key);
+            if (column != null) return column;
+
+            long[] through = new long[words];
+            long[] on = new long[words];
+            readColumn(x, z, through, on);
+
+            // Walkable: solid block below, free at feet and head level, something solid right above the head
+            long[] walkable = new long[words];
+            long[] throughUp1 = shiftDown(through, 1);
+            long[] throughUp2 = shiftDown(through, 2);
+            long[] onBelow = shiftUp(on, 1);
+
+            for (int w = 0; w < words; w++) walkable[w] = onBelow[w] & through[w] & throughUp1[w] & ~throughUp2[w];
+
+            // Fully blocked: can't walk through either at feet or head level
+            long[] blocked = new long[words];
+            for (int w = 0; w < words; w++) blocked[w] = ~through[w] & ~throughUp1[w];
+
+            column = new long[][] { walkable, blocked };
+            columns.put(key, column);
+
+            return column;
+        }
+
+        private void readColumn(int x, int z, long[] through, long[] on) {
+            // Everything outside the world is air
+            for (int w = 0; w < words; w++) through[w] = -1;
+
+            Chunk chunk = world.getChunk(x >> 4, z >> 4, ChunkStatus.FULL, false);
+            if (chunk == null) return;
+
+            ChunkSection[] sections = chunk.getSectionArray();
+
+            for (int s = 0; s < sections.length; s++) {
+                ChunkSection section = sections[s];
+                if (section == null || section.isEmpty()) continue;
+
+                int sectionBottomY = bottomY + (s << 4);
+
+                for (int y = 0; y < 16; y++) {
+                    BlockState state = section.getBlockState(x & 15, y, z & 15);
+                    byte flags = getFlags(state, x, sectionBottomY + y, z);
+
+                    int i = sectionBottomY + y - bottomY + 1;
+                    long bit = 1L << (i & 63);
+
+                    if ((flags & WALK_THROUGH) == 0) through[i >> 6] &= ~bit;
+                    if ((flags & WALK_ON) != 0) on[i >> 6] |= bit;
+                }
+            }
+        }
+
+        private byte getFlags(BlockState state, int x, int y, int z) {
+            byte flags = stateFlags.getOrDefault(state, (byte) -1);
+            if (flags != -1) return flags;
+
+            if (state.isAir()) flags = WALK_THROUGH;
+            else if (!state.getFluidState().isEmpty()) flags = 0;
+            else flags = state.getCollisionShape(world, blockPos.set(x, y, z)).isEmpty() ? WALK_THROUGH : WALK_ON;
+
+            // Collision shapes only depend on the state for almost every block
+            stateFlags.put(state, flags);
+            return flags;
+        }
+
+        /** Bit i of the result is bit i + n of the input. */
+        private long[] shiftDown(long[] bits, int n) {
+            long[] result = new long[words];
+
+            for (int w = 0; w < words; w++) {
+                result[w] = bits[w] >>> n;
+                if (w + 1 < words) result[w] |= bits[w + 1] << (64 - n);
+            }
+
+            return result;
+        }
+
+        /** Bit i of the result is bit i - n of the input. */
+        private long[] shiftUp(long[] bits, int n) {
+            long[] result = new long[words];
+
+            for (int w = 0; w < words; w++) {
+                result[w] = bits[w] << n;
+                if (w > 0) result[w] |= bits[w - 1] >>> (64 - n);
+            }
+
+            return result;
+        }
+
+        /** Mask of the bits in word w that are within the inclusive range. */
+        private static long rangeMask(int w, int from, int to) {
+            int start = w << 6;
+            int end = start + 63;
+
+            if (to < start || from > end) return 0;
+
+            long mask = -1;
+            if (from > start) mask &= -1L << (from - start);
+            if (to < end) mask &= -1L >>> (end - to);
+
+            return mask;
+        }
     }
 }
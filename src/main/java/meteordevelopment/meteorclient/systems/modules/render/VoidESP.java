@@ -14,13 +14,10 @@ import meteordevelopment.meteorclient.systems.modules.Module;
 import meteordevelopment.meteorclient.utils.misc.Pool;
 import meteordevelopment.meteorclient.utils.render.color.SettingColor;
 import meteordevelopment.meteorclient.utils.world.Dir;
+import meteordevelopment.meteorclient.utils.world.SectionOccupancy;
 import meteordevelopment.orbit.EventHandler;
-import net.minecraft.block.Block;
-import net.minecraft.block.Blocks;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.Direction;
-import net.minecraft.world.chunk.Chunk;
-import net.minecraft.world.chunk.ChunkStatus;
 import net.minecraft.world.dimension.DimensionTypes;
 
 import java.util.ArrayList;
@@ -127,13 +124,10 @@ public class VoidESP extends Module {
     }
 
     private boolean isBlockWrong(BlockPos blockPos) {
-        Chunk chunk = mc.world.getChunk(blockPos.getX() >> 4, blockPos.getZ() >> 4, ChunkStatus.FULL, false);
-        if (chunk == null) return true;
+        if (!mc.world.getChunkManager().isChunkLoaded(blockPos.getX() >> 4, blockPos.getZ() >> 4)) return true;
 
-        Block block = chunk.getBlockState(blockPos).getBlock();
-
-        if (airOnly.get()) return block != Blocks.AIR;
-        return block == Blocks.BEDROCK;
+        if (airOnly.get()) return !SectionOccupancy.isAir(blockPos);
+        return SectionOccupancy.is(blockPos, SectionOccupancy.BEDROCK);
     }
 
     private boolean isHole(BlockPos.Mutable blockPos, boolean nether) {
@@ -37,8 +37,10 @@ import net.minecraft.util.math.Vec3d;
 import org.joml.Vector3d;
 
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.Iterator;
+import java.util.List;
 
 import static meteordevelopment.meteorclient.utils.player.ChatUtils.formatCoords;
 
@@ -90,36 +92,49 @@ public class WaypointsModule extends Module {
 
     private final SimpleDateFormat dateFormat = new SimpleDateFormat("HH:mm:ss");
 
+    // Reused every frame
+    private final List<Waypoint> inRange = new ArrayList<>();
+    private final List<Waypoint> toRemove = new ArrayList<>();
+    private final Vector3d pos = new Vector3d();
+    private final Vector3d center = new Vector3d();
+
     @EventHandler
     private void onRender2D(Render2DEvent event) {
         TextRenderer text = TextRenderer.get();
-        Vector3d center = new Vector3d(mc.getWindow().getFramebufferWidth() / 2.0, mc.getWindow().getFramebufferHeight() / 2.0, 0);
+        center.set(mc.getWindow().getFramebufferWidth() / 2.0, mc.getWindow().getFramebufferHeight() / 2.0, 0);
         int textRenderDist = textRenderDistance.get();
 
-        for (Iterator<Waypoint> it = Waypoints.get().iterator(); it.hasNext();) {
-            Waypoint waypoint = it.next();
+        Vec3d cameraPos = mc.gameRenderer.getCamera().getPos();
+        Waypoints.get().getInRange(cameraPos.x, cameraPos.z, inRange);
+
+        // Only perform hide when near check if player is alive
+        // Otherwise, death waypoints immediately get hidden
+        boolean playerAlive = (mc.player != null && !mc.player.isDead());
+
+        for (int i = 0; i < inRange.size(); i++) {
+            Waypoint waypoint = inRange.get(i);
 
             // Continue if this waypoint should not be rendered
-            if (!waypoint.visible.get() || !Waypoints.checkDimension(waypoint)) continue;
+            if (!waypoint.visible.get()) continue;
 
             // Calculate distance
             BlockPos blockPos = waypoint.getPos();
-            Vector3d pos = new Vector3d(blockPos.getX() + 0.5, blockPos.getY(), blockPos.getZ() + 0.5);
+            pos.set(blockPos.getX() + 0.5, blockPos.getY(), blockPos.getZ() + 0.5);
             double dist = PlayerUtils.distanceToCamera(pos.x, pos.y, pos.z);
 
-            // Only perform hide when near check if player is alive
-            // Otherwise, death waypoints immediately get hidden
-            boolean playerAlive = (mc.player != null && !mc.player.isDead());
             boolean waypointIsNear = waypoint.actionWhenNearCheck((int) Math.floor(dist));
             if (playerAlive && waypointIsNear) {
                 switch (waypoint.actionWhenNear.get()) {
                     case Hide -> waypoint.visible.set(false);
-                    case Delete -> it.remove();
+                    case Delete -> toRemove.add(waypoint);
                 }
             }
 
             // Continue if this waypoint should not be rendered
             if (dist > waypoint.maxVisible.get()) continue;
+
+            // Icons have a fixed size on screen, the margin has to grow with the distance
+            if (!NametagUtils.isInView(pos.x, pos.y, pos.z, 2 + dist * 0.1)) continue;
             if (!NametagUtils.to2D(pos, waypoint.scale.get() - 0.2)) continue;
 
             // Calculate alpha and distance to center of the screen
@@ -148,7 +163,7 @@ public class WaypointsModule extends Module {
                 text.render(waypoint.name.get(), -text.getWidth(waypoint.name.get()) / 2, -16 - text.getHeight(), TEXT, true);
 
                 // Render distance
-                String distText = String.format("%d blocks", (int) Math.round(dist));
+                String distText = waypoint.getDistanceLabel((int) Math.round(dist));
                 text.render(distText, -text.getWidth(distText) / 2, 16, TEXT, true);
 
                 // End text rendering
@@ -158,6 +173,11 @@ public class WaypointsModule extends Module {
 
             NametagUtils.end();
         }
+
+        if (!toRemove.isEmpty()) {
+            for (Waypoint waypoint : toRemove) Waypoints.get().remove(waypoint);
+            toRemove.clear();
+        }
     }
 
     @EventHandler
@@ -222,48 +242,56 @@ public class WaypointsModule extends Module {
     private void initTable(GuiTheme theme, WTable table) {
         table.clear();
 
-        for (Waypoint waypoint : Waypoints.get()) {
-            boolean validDim = Waypoints.checkDimension(waypoint);
+        List<Waypoint> waypoints = new ArrayList<>();
+        for (Waypoint waypoint : Waypoints.get()) waypoints.add(waypoint);
 
-            table.add(new WIcon(waypoint));
+        // Only the rows scrolled into view get widgets
+        table.add(theme.virtualList((Waypoint waypoint) -> createRow(theme, table, waypoint))).expandX().widget().set(waypoints);
+        table.row();
 
-            WLabel name = table.add(theme.label(waypoint.name.get())).expandCellX().widget();
-            if (!validDim) name.color = GRAY;
+        table.add(theme.horizontalSeparator()).expandX();
+        table.row();
 
-            WCheckbox visible = table.add(theme.checkbox(waypoint.visible.get())).widget();
-            visible.action = () -> {
-                waypoint.visible.set(visible.checked);
-                Waypoints.get().save();
-            };
+        WButton create = table.add(theme.button("Create")).expandX().widget();
+        create.action = () -> mc.setScreen(new EditWaypointScreen(theme, null, () -> initTable(theme, table)));
+    }
 
-            WButton edit = table.add(theme.button(GuiRenderer.EDIT)).widget();
-            edit.action = () -> mc.setScreen(new EditWaypointScreen(theme, waypoint, () -> initTable(theme, table)));
+    private WWidget createRow(GuiTheme theme, WTable table, Waypoint waypoint) {
+        WTable row = theme.table();
+        boolean validDim = Waypoints.checkDimension(waypoint);
 
-            // Goto
-            if (validDim) {
-                WButton gotoB = table.add(theme.button("Goto")).widget();
-                gotoB.action = () -> {
-                    if (PathManagers.get().isPathing())
-                        PathManagers.get().stop();
+        row.add(new WIcon(waypoint));
 
-                    PathManagers.get().moveTo(waypoint.getPos());
-                };
-            }
+        WLabel name = row.add(theme.label(waypoint.name.get())).expandCellX().widget();
+        if (!validDim) name.color = GRAY;
 
-            WConfirmedMinus remove = table.add(theme.confirmedMinus()).widget();
-            remove.action = () -> {
-                Waypoints.get().remove(waypoint);
-                initTable(theme, table);
-            };
+        WCheckbox visible = row.add(theme.checkbox(waypoint.visible.get())).widget();
+        visible.action = () -> {
+            waypoint.visible.set(visible.checked);
+            Waypoints.get().save();
+        };
+
+        WButton edit = row.add(theme.button(GuiRenderer.EDIT)).widget();
+        edit.action = () -> mc.setScreen(new EditWaypointScreen(theme, waypoint, () -> initTable(theme, table)));
+
+        // Goto
+        if (validDim) {
+            WButton gotoB = row.add(theme.button("Goto")).widget();
+            gotoB.action = () -> {
+                if (PathManagers.get().isPathing())
+                    PathManagers.get().stop();
 
-            table.row();
+                PathManagers.get().moveTo(waypoint.getPos());
+            };
         }
 
-        table.add(theme.horizontalSeparator()).expandX();
-        table.row();
+        WConfirmedMinus remove = row.add(theme.confirmedMinus()).widget();
+        remove.action = () -> {
+            Waypoints.get().remove(waypoint);
+            initTable(theme, table);
+        };
 
-        WButton create = table.add(theme.button("Create")).expandX().widget();
-        create.action = () -> mc.setScreen(new EditWaypointScreen(theme, null, () -> initTable(theme, table)));
+        return row;
     }
 
     private static class EditWaypointScreen extends EditSystemScreen<Waypoint> {
@@ -17,15 +17,18 @@ import meteordevelopment.meteorclient.settings.*;
 import meteordevelopment.meteorclient.systems.modules.Categories;
 import meteordevelopment.meteorclient.systems.modules.Module;
 import meteordevelopment.meteorclient.utils.Utils;
+import meteordevelopment.meteorclient.utils.misc.WorkerPool;
 import meteordevelopment.meteorclient.utils.render.color.RainbowColors;
 import meteordevelopment.meteorclient.utils.render.color.SettingColor;
 import meteordevelopment.orbit.EventHandler;
 import net.minecraft.block.Block;
+import net.minecraft.block.BlockState;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.ChunkPos;
 import net.minecraft.world.chunk.Chunk;
 import net.minecraft.world.dimension.DimensionType;
 
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -82,6 +85,13 @@ public class BlockESP extends Module {
     private final Set<ESPGroup> groups = new ReferenceOpenHashSet<>();
     private final ExecutorService workerThread = Executors.newSingleThreadExecutor();
 
+    private final List<ESPChunk> closeQueue = new ArrayList<>();
+    private final List<ESPGroup> splitQueue = new ArrayList<>();
+    private int lastConfigHash;
+
+    private volatile Set<BlockState> targets = new ReferenceOpenHashSet<>();
+    private volatile int searchId;
+
     private DimensionType lastDimension;
 
     public BlockESP() {
@@ -93,10 +103,19 @@ public class BlockESP extends Module {
     @Override
     public void onActivate() {
         synchronized (chunks) {
+            closeChunks();
             chunks.clear();
             groups.clear();
         }
 
+        workerThread.submit(splitQueue::clear);
+
+        Set<BlockState> states = new ReferenceOpenHashSet<>();
+        for (Block block : blocks.get()) states.addAll(block.getStateManager().getStates());
+
+        targets = states;
+        searchId++;
+
         for (Chunk chunk : Utils.chunks()) {
             searchChunk(chunk);
         }
@@ -107,9 +126,30 @@ public class BlockESP extends Module {
     @Override
     public void onDeactivate() {
         synchronized (chunks) {
+            closeChunks();
             chunks.clear();
             groups.clear();
         }
+
+        workerThread.submit(splitQueue::clear);
+
+        searchId++;
+    }
+
+    private void closeChunks() {
+        for (ESPChunk chunk : chunks.values()) chunk.close();
+        for (ESPChunk chunk : closeQueue) chunk.close();
+        closeQueue.clear();
+    }
+
+    private int getConfigHash() {
+        int hash = getConfigHash(defaultBlockConfig.get());
+        for (ESPBlockData blockData : blockConfigs.get().values()) hash = hash * 31 + getConfigHash(blockData);
+        return hash;
+    }
+
+    private static int getConfigHash(ESPBlockData blockData) {
+        return (blockData.shapeMode.ordinal() * 31 + blockData.lineColor.getPacked()) * 31 + blockData.sideColor.getPacked();
     }
 
     private void onTickRainbow() {
@@ -153,19 +193,47 @@ public class BlockESP extends Module {
         }
     }
 
+    /** Called on the worker thread by groups that lost a block and might have to be split. */
+    void queueSplit(ESPGroup group) {
+        splitQueue.add(group);
+    }
+
+    private void splitGroups() {
+        for (ESPGroup group : splitQueue) {
+            // Finding the parts only reads state owned by the worker thread, rendering is only held up while blocks move
+            int[] parts = group.findParts();
+            if (parts == null) continue;
+
+            synchronized (chunks) {
+                group.split(parts);
+            }
+        }
+
+        splitQueue.clear();
+    }
+
     @EventHandler
     private void onChunkData(ChunkDataEvent event) {
         searchChunk(event.chunk());
     }
 
     private void searchChunk(Chunk chunk) {
-        workerThread.submit(() -> {
-            if (!isActive()) return;
-            ESPChunk schunk = ESPChunk.searchChunk(chunk, blocks.get());
+        int id = searchId;
+        Set<BlockState> targets = this.targets;
+
+        WorkerPool.execute(() -> {
+            if (!isActive() || id != searchId) return;
+            ESPChunk schunk = ESPChunk.searchChunk(chunk, targets);
+
+            // Results are merged on the worker thread so they stay ordered with block updates
+            if (schunk.size() > 0) workerThread.submit(() -> {
+                if (!isActive() || id != searchId) return;
 
-            if (schunk.size() > 0) {
                 synchronized (chunks) {
-                    chunks.put(chunk.getPos().toLong(), schunk);
+                    // GPU buffers can only be freed on the render thread
+                    ESPChunk old = chunks.put(chunk.getPos().toLong(), schunk);
+                    if (old != null) closeQueue.add(old);
+
                     schunk.update();
 
                     // Update neighbour chunks
@@ -174,7 +242,7 @@ public class BlockESP extends Module {
                     updateChunk(chunk.getPos().x, chunk.getPos().z - 1);
                     updateChunk(chunk.getPos().x, chunk.getPos().z + 1);
                 }
-            }
+            });
         });
     }
 
@@ -189,8 +257,8 @@ public class BlockESP extends Module {
         int chunkZ = bz >> 4;
         long key = ChunkPos.toLong(chunkX, chunkZ);
 
-        boolean added = blocks.get().contains(event.newState.getBlock()) && !blocks.get().contains(event.oldState.getBlock());
-        boolean removed = !added && !blocks.get().contains(event.newState.getBlock()) && blocks.get().contains(event.oldState.getBlock());
+        boolean added = targets.contains(event.newState) && !targets.contains(event.oldState);
+        boolean removed = !added && !targets.contains(event.newState) && targets.contains(event.oldState);
 
         if (added || removed) {
             workerThread.submit(() -> {
@@ -230,11 +298,21 @@ public class BlockESP extends Module {
 
         if (lastDimension != dimension) onActivate();
         lastDimension = dimension;
+
+        workerThread.submit(this::splitGroups);
     }
 
     @EventHandler
     private void onRender(Render3DEvent event) {
+        // Chunk meshes are retained, they only need to be rebuilt for every chunk when the colors or shape mode change
+        int configHash = getConfigHash();
+        boolean rebuild = configHash != lastConfigHash;
+        lastConfigHash = configHash;
+
         synchronized (chunks) {
+            for (ESPChunk chunk : closeQueue) chunk.close();
+            closeQueue.clear();
+
             for (Iterator<ESPChunk> it = chunks.values().iterator(); it.hasNext();) {
                 ESPChunk chunk = it.next();
 
@@ -246,9 +324,10 @@ public class BlockESP extends Module {
                         }
                     });
 
+                    chunk.close();
                     it.remove();
                 }
-                else chunk.render(event);
+                else chunk.render(event, rebuild);
             }
 
             if (tracers.get()) {
@@ -8,14 +8,16 @@ package meteordevelopment.meteorclient.systems.modules.render.blockesp;
 import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
 import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
 import meteordevelopment.meteorclient.events.render.Render3DEvent;
-import net.minecraft.block.Block;
+import meteordevelopment.meteorclient.renderer.MeteorRenderPipelines;
+import meteordevelopment.meteorclient.renderer.RetainedRenderer3D;
 import net.minecraft.block.BlockState;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.ChunkSectionPos;
 import net.minecraft.world.Heightmap;
 import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.ChunkSection;
 
-import java.util.List;
+import java.util.Set;
 
 import static meteordevelopment.meteorclient.MeteorClient.mc;
 import static meteordevelopment.meteorclient.utils.Utils.getRenderDistance;
@@ -25,6 +27,9 @@ public class ESPChunk {
     private final int x, z;
     public Long2ObjectMap<ESPBlock> blocks;
 
+    private RetainedRenderer3D mesh;
+    private volatile boolean dirty = true;
+
     public ESPChunk(int x, int z) {
         this.x = x;
         this.z = z;
@@ -41,6 +46,7 @@ public class ESPChunk {
         blocks.put(ESPBlock.getKey(blockPos), block);
 
         if (update) block.update();
+        dirty = true;
     }
 
     public void add(BlockPos blockPos) {
@@ -52,18 +58,25 @@ public class ESPChunk {
             ESPBlock block = blocks.remove(ESPBlock.getKey(blockPos));
             if (block != null) block.group.remove(block);
         }
+
+        dirty = true;
     }
 
     public void update() {
         if (blocks != null) {
             for (ESPBlock block : blocks.values()) block.update();
         }
+
+        dirty = true;
     }
 
     public void update(int x, int y, int z) {
         if (blocks != null) {
             ESPBlock block = blocks.get(ESPBlock.getKey(x, y, z));
-            if (block != null) block.update();
+            if (block != null) {
+                block.update();
+                dirty = true;
+            }
         }
     }
 
@@ -79,28 +92,71 @@ public class ESPChunk {
         return x > chunkX + viewDist || x < chunkX - viewDist || z > chunkZ + viewDist || z < chunkZ - viewDist;
     }
 
-    public void render(Render3DEvent event) {
-        if (blocks != null) {
-            for (ESPBlock block : blocks.values()) block.render(event);
+    /** Draws the retained mesh of this chunk, it is only tessellated again after a block changed or if {@code rebuild} is true. */
+    public void render(Render3DEvent event, boolean rebuild) {
+        if (blocks == null) return;
+
+        if (mesh == null) mesh = new RetainedRenderer3D(MeteorRenderPipelines.WORLD_COLORED_LINES, MeteorRenderPipelines.WORLD_COLORED);
+
+        if (dirty || rebuild || mesh.isDirty()) {
+            dirty = false;
+
+            mesh.build(x * 16, 0, z * 16, renderer -> {
+                for (ESPBlock block : blocks.values()) block.render(renderer);
+            });
         }
+
+        mesh.render(event.matrices);
+    }
+
+    /** Frees the GPU buffers, must be called on the render thread. */
+    public void close() {
+        if (mesh != null) mesh.close();
     }
 
 
-    public static ESPChunk searchChunk(Chunk chunk, List<Block> blocks) {
+    public static ESPChunk searchChunk(Chunk chunk, Set<BlockState> targets) {
         ESPChunk schunk = new ESPChunk(chunk.getPos().x, chunk.getPos().z);
         if (schunk.shouldBeDeleted()) return schunk;
 
+        int startX = chunk.getPos().getStartX();
+        int startZ = chunk.getPos().getStartZ();
+
+        // Cache the heightmap so it isn't looked up again for every section
+        Heightmap heightmap = chunk.getHeightmap(Heightmap.Type.WORLD_SURFACE);
+        int[] heights = new int[16 * 16];
+        int maxHeight = mc.world.getBottomY();
+
+        for (int x = 0; x < 16; x++) {
+            for (int z = 0; z < 16; z++) {
+                int height = heightmap.get(x, z);
+                heights[x << 4 | z] = height;
+                maxHeight = Math.max(maxHeight, height);
+            }
+        }
+
         BlockPos.Mutable blockPos = new BlockPos.Mutable();
+        ChunkSection[] sections = chunk.getSectionArray();
+
+        for (int i = 0; i < sections.length; i++) {
+            int sectionY = ChunkSectionPos.getBlockCoord(chunk.sectionIndexToCoord(i));
+            if (sectionY >= maxHeight) break;
+
+            // Only the palette is checked here, sections without any of the target blocks are skipped entirely
+            ChunkSection section = sections[i];
+            if (section == null || !section.hasAny(targets::contains)) continue;
 
-        for (int x = chunk.getPos().getStartX(); x <= chunk.getPos().getEndX(); x++) {
-            for (int z = chunk.getPos().getStartZ(); z <= chunk.getPos().getEndZ(); z++) {
-                int height = chunk.getHeightmap(Heightmap.Type.WORLD_SURFACE).get(x - chunk.getPos().getStartX(), z - chunk.getPos().getStartZ());
+            for (int y = 0; y < 16; y++) {
+                int by = sectionY + y;
+                if (by >= maxHeight) break;
 
-                for (int y = mc.world.getBottomY(); y < height; y++) {
-                    blockPos.set(x, y, z);
-                    BlockState bs = chunk.getBlockState(blockPos);
+                for (int x = 0; x < 16; x++) {
+                    for (int z = 0; z < 16; z++) {
+                        if (by >= heights[x << 4 | z]) continue;
 
-                    if (blocks.contains(bs.getBlock())) schunk.add(blockPos, false);
+                        BlockState bs = section.getBlockState(x, y, z);
+                        if (targets.contains(bs)) schunk.add(blockPos.set(startX + x, by, startZ + z), false);
+                    }
                 }
             }
         }
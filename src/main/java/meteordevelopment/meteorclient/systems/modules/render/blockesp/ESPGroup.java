@@ -5,38 +5,48 @@
 
 package meteordevelopment.meteorclient.systems.modules.render.blockesp;
 
-import it.unimi.dsi.fastutil.objects.ObjectOpenHashSet;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2IntMap;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
 import meteordevelopment.meteorclient.events.render.Render3DEvent;
 import meteordevelopment.meteorclient.systems.modules.Modules;
 import meteordevelopment.meteorclient.utils.misc.UnorderedArrayList;
 import meteordevelopment.meteorclient.utils.render.RenderUtils;
 import net.minecraft.block.Block;
+import net.minecraft.util.math.BlockPos;
 
-import java.util.ArrayDeque;
-import java.util.Queue;
-import java.util.Set;
-
+/**
+ * Connected blocks of the same type. Every block knows its index in {@link #blocks} so it can be removed in constant
+ * time, and the sums used for the tracer position are kept up to date as blocks come and go. Whether removing a block
+ * split the group is only checked once per tick for every group that lost a block, see {@link #findParts()}.
+ */
 public class ESPGroup {
     private static final BlockESP blockEsp = Modules.get().get(BlockESP.class);
 
+    private static final int SIDES = ESPBlock.FO | ESPBlock.BA | ESPBlock.LE | ESPBlock.RI | ESPBlock.TO | ESPBlock.BO;
+
     private final Block block;
 
     public final UnorderedArrayList<ESPBlock> blocks = new UnorderedArrayList<>();
 
     private double sumX, sumY, sumZ;
+    private boolean splitQueued;
 
     public ESPGroup(Block block) {
         this.block = block;
     }
 
     public void add(ESPBlock block, boolean removeFromOld, boolean splitGroup) {
+        if (block.group != null && removeFromOld) block.group.remove(block, splitGroup);
+
+        block.groupIndex = blocks.size();
+        block.group = this;
+
         blocks.add(block);
         sumX += block.x;
         sumY += block.y;
         sumZ += block.z;
-
-        if (block.group != null && removeFromOld) block.group.remove(block, splitGroup);
-        block.group = this;
     }
 
     public void add(ESPBlock block) {
@@ -44,98 +54,143 @@ public class ESPGroup {
     }
 
     public void remove(ESPBlock block, boolean splitGroup) {
-        blocks.remove(block);
+        // The last block is moved into the freed slot
+        int index = block.groupIndex;
+        blocks.remove(index);
+        if (index < blocks.size()) blocks.get(index).groupIndex = index;
+
         sumX -= block.x;
         sumY -= block.y;
         sumZ -= block.z;
 
-        if (blocks.isEmpty()) blockEsp.removeGroup(block.group);
-        else if (splitGroup) {
-            trySplit(block);
-        }
+        if (blocks.isEmpty()) blockEsp.removeGroup(this);
+        else if (splitGroup && Integer.bitCount(block.neighbours & SIDES) > 1) queueSplit();
     }
 
     public void remove(ESPBlock block) {
         remove(block, true);
     }
 
-    private void trySplit(ESPBlock block) {
-        Set<ESPBlock> neighbours = new ObjectOpenHashSet<>(6);
+    private void queueSplit() {
+        if (splitQueued) return;
 
-        for (int side : ESPBlock.SIDES) {
-            if ((block.neighbours & side) == side) {
-                ESPBlock neighbour = block.getSideBlock(side);
-                if (neighbour != null) neighbours.add(neighbour);
-            }
-        }
-        if (neighbours.size() <= 1) return;
+        splitQueued = true;
+        blockEsp.queueSplit(this);
+    }
+
+    /** Merges the smaller group into the larger one and returns the group both are part of now. */
+    public ESPGroup merge(ESPGroup group) {
+        if (group.blocks.size() > blocks.size()) return group.merge(this);
+
+        blocks.ensureCapacity(blocks.size() + group.blocks.size());
+        for (ESPBlock block : group.blocks) add(block, false, false);
+
+        if (group.splitQueued) queueSplit();
+
+        group.blocks.clear();
+        blockEsp.removeGroup(group);
 
-        Set<ESPBlock> remainingBlocks = new ObjectOpenHashSet<>(blocks);
-        Queue<ESPBlock> blocksToCheck = new ArrayDeque<>();
+        return this;
+    }
 
-        blocksToCheck.offer(blocks.getFirst());
-        remainingBlocks.remove(blocks.getFirst());
-        neighbours.remove(blocks.getFirst());
+    // Splitting
 
-        loop: {
-            while (!blocksToCheck.isEmpty()) {
-                ESPBlock b = blocksToCheck.poll();
+    /**
+     * Finds the connected parts of the group with a union-find over the neighbour bits of its blocks. Returns null if
+     * the group is still connected, otherwise the part every block belongs to by its index, -1 for the largest part.
+     */
+    int[] findParts() {
+        splitQueued = false;
 
-                for (int side : ESPBlock.SIDES) {
-                    if ((b.neighbours & side) != side) continue;
-                    ESPBlock neighbour = b.getSideBlock(side);
+        int size = blocks.size();
+        if (size <= 1) return null;
 
-                    if (neighbour != null && remainingBlocks.contains(neighbour)) {
-                        blocksToCheck.offer(neighbour);
-                        remainingBlocks.remove(neighbour);
+        Long2IntMap indices = new Long2IntOpenHashMap(size);
+        indices.defaultReturnValue(-1);
 
-                        neighbours.remove(neighbour);
-                        if (neighbours.isEmpty()) break loop;
-                    }
-                }
-            }
+        for (int i = 0; i < size; i++) {
+            ESPBlock block = blocks.get(i);
+            indices.put(BlockPos.asLong(block.x, block.y, block.z), i);
         }
 
-        if (!neighbours.isEmpty()) {
-            ESPGroup group = blockEsp.newGroup(this.block);
-            group.blocks.ensureCapacity(remainingBlocks.size());
+        int[] parents = new int[size];
+        int[] sizes = new int[size];
 
-            blocks.removeIf(remainingBlocks::contains);
+        for (int i = 0; i < size; i++) {
+            parents[i] = i;
+            sizes[i] = 1;
+        }
 
-            for (ESPBlock b : remainingBlocks) {
-                group.add(b, false, false);
+        // Neighbours are symmetric so only the positive side of every axis has to be checked
+        for (int i = 0; i < size; i++) {
+            ESPBlock block = blocks.get(i);
 
-                sumX -= b.x;
-                sumY -= b.y;
-                sumZ -= b.z;
-            }
+            if ((block.neighbours & ESPBlock.RI) != 0) union(parents, sizes, i, indices.get(BlockPos.asLong(block.x + 1, block.y, block.z)));
+            if ((block.neighbours & ESPBlock.TO) != 0) union(parents, sizes, i, indices.get(BlockPos.asLong(block.x, block.y + 1, block.z)));
+            if ((block.neighbours & ESPBlock.FO) != 0) union(parents, sizes, i, indices.get(BlockPos.asLong(block.x, block.y, block.z + 1)));
+        }
+
+        int largest = -1;
+
+        for (int i = 0; i < size; i++) {
+            if (parents[i] == i && (largest == -1 || sizes[i] > sizes[largest])) largest = i;
+        }
 
-            if (neighbours.size() > 1) {
-                block.neighbours = 0;
+        if (sizes[largest] == size) return null;
 
-                for (ESPBlock b : neighbours) {
-                    int x = b.x - block.x;
-                    if (x == 1) block.neighbours |= ESPBlock.RI;
-                    else if (x == -1) block.neighbours |= ESPBlock.LE;
+        int[] parts = new int[size];
 
-                    int y = b.y - block.y;
-                    if (y == 1) block.neighbours |= ESPBlock.TO;
-                    else if (y == -1) block.neighbours |= ESPBlock.BO;
+        for (int i = 0; i < size; i++) {
+            int root = find(parents, i);
+            parts[i] = root == largest ? -1 : root;
+        }
+
+        return parts;
+    }
 
-                    int z = b.z - block.z;
-                    if (z == 1) block.neighbours |= ESPBlock.FO;
-                    else if (z == -1) block.neighbours |= ESPBlock.BA;
-                }
+    /** Moves every part except the largest one returned by {@link #findParts()} into a new group. */
+    void split(int[] parts) {
+        ESPBlock[] members = blocks.toArray(new ESPBlock[0]);
+        Int2ObjectMap<ESPGroup> groups = new Int2ObjectOpenHashMap<>();
 
-                group.trySplit(block);
+        for (int i = 0; i < members.length; i++) {
+            if (parts[i] == -1) continue;
+
+            ESPGroup group = groups.get(parts[i]);
+
+            if (group == null) {
+                group = blockEsp.newGroup(block);
+                groups.put(parts[i], group);
             }
+
+            group.add(members[i], true, false);
         }
     }
 
-    public void merge(ESPGroup group) {
-        blocks.ensureCapacity(blocks.size() + group.blocks.size());
-        for (ESPBlock block : group.blocks) add(block, false, false);
-        blockEsp.removeGroup(group);
+    private static void union(int[] parents, int[] sizes, int a, int b) {
+        if (b == -1) return;
+
+        a = find(parents, a);
+        b = find(parents, b);
+        if (a == b) return;
+
+        if (sizes[a] < sizes[b]) {
+            int temp = a;
+            a = b;
+            b = temp;
+        }
+
+        parents[b] = a;
+        sizes[a] += sizes[b];
+    }
+
+    private static int find(int[] parents, int i) {
+        while (parents[i] != i) {
+            parents[i] = parents[parents[i]];
+            i = parents[i];
+        }
+
+        return i;
     }
 
     public void render(Render3DEvent event) {
@@ -6,7 +6,6 @@
 package meteordevelopment.meteorclient.systems.modules.world;
 
 import meteordevelopment.meteorclient.events.game.GameLeftEvent;
-import meteordevelopment.meteorclient.events.packets.PacketEvent;
 import meteordevelopment.meteorclient.events.render.Render2DEvent;
 import meteordevelopment.meteorclient.events.render.Render3DEvent;
 import meteordevelopment.meteorclient.events.world.TickEvent;
@@ -21,10 +20,12 @@ import meteordevelopment.meteorclient.systems.modules.Modules;
 import meteordevelopment.meteorclient.systems.modules.combat.KillAura;
 import meteordevelopment.meteorclient.systems.modules.player.*;
 import meteordevelopment.meteorclient.utils.Utils;
+import meteordevelopment.meteorclient.utils.entity.EntityIndex;
 import meteordevelopment.meteorclient.utils.entity.SortPriority;
 import meteordevelopment.meteorclient.utils.entity.TargetUtils;
 import meteordevelopment.meteorclient.utils.misc.HorizontalDirection;
 import meteordevelopment.meteorclient.utils.misc.MBlockPos;
+import meteordevelopment.meteorclient.utils.network.PacketListeners;
 import meteordevelopment.meteorclient.utils.player.*;
 import meteordevelopment.meteorclient.utils.render.NametagUtils;
 import meteordevelopment.meteorclient.utils.render.RenderUtils;
@@ -44,6 +45,7 @@ import net.minecraft.client.option.GameOptions;
 import net.minecraft.component.DataComponentTypes;
 import net.minecraft.enchantment.Enchantments;
 import net.minecraft.entity.Entity;
+import net.minecraft.entity.EntityType;
 import net.minecraft.entity.ItemEntity;
 import net.minecraft.entity.decoration.EndCrystalEntity;
 import net.minecraft.entity.player.PlayerEntity;
@@ -464,6 +466,13 @@ public class HighwayBuilder extends Module {
     public HighwayBuilder() {
         super(Categories.World, "highway-builder", "Automatically builds highways.");
         runInMainMenu = true;
+
+        PacketListeners.onReceive(this, InventoryS2CPacket.class, (event, packet) -> {
+            if (packet.syncId() == 0 && suspended)
+                inventory = true;
+            else
+                this.syncId = packet.syncId();
+        });
     }
 
     /* todo
@@ -573,16 +582,6 @@ public class HighwayBuilder extends Module {
         if (placeTimer > 0) placeTimer--;
     }
 
-    @EventHandler
-    private void onPacket(PacketEvent.Receive event) {
-        if (event.packet instanceof InventoryS2CPacket p) {
-            if (p.syncId() == 0 && suspended)
-                inventory = true;
-            else
-                this.syncId = p.syncId();
-        }
-    }
-
     @EventHandler
     private void onGameLeave(GameLeftEvent event) {
         suspended = true;
@@ -864,8 +863,8 @@ public class HighwayBuilder extends Module {
             }
 
             private boolean isCrystalTrap(HighwayBuilder b) {
-                for (Entity entity : b.mc.world.getEntities()) {
-                    if (!(entity instanceof EndCrystalEntity endCrystal)) continue;
+                for (Entity entity : EntityIndex.get(EntityType.END_CRYSTAL)) {
+                    EndCrystalEntity endCrystal = (EndCrystalEntity) entity;
                     if (PlayerUtils.isWithin(endCrystal, 12) || !PlayerUtils.isWithin(endCrystal, 24)) continue;
                     if (b.ignoreCrystals.contains(endCrystal)) continue;
 
@@ -8,11 +8,16 @@ package meteordevelopment.meteorclient.systems.modules.world;
 import com.google.common.reflect.TypeToken;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
 import meteordevelopment.meteorclient.MeteorClient;
+import meteordevelopment.meteorclient.events.game.GameJoinedEvent;
 import meteordevelopment.meteorclient.events.world.ChunkDataEvent;
 import meteordevelopment.meteorclient.gui.GuiTheme;
 import meteordevelopment.meteorclient.gui.WindowScreen;
+import meteordevelopment.meteorclient.gui.widgets.WLabel;
 import meteordevelopment.meteorclient.gui.widgets.WWidget;
+import meteordevelopment.meteorclient.gui.widgets.containers.WHorizontalList;
 import meteordevelopment.meteorclient.gui.widgets.containers.WTable;
 import meteordevelopment.meteorclient.gui.widgets.containers.WVerticalList;
 import meteordevelopment.meteorclient.gui.widgets.pressable.WButton;
@@ -28,15 +33,23 @@ import net.minecraft.block.entity.*;
 import net.minecraft.item.Items;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.MathHelper;
 
 import java.io.*;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class StashFinder extends Module {
     private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+    private static final int PAGE_SIZE = 50;
 
     private final SettingGroup sgGeneral = settings.getDefaultGroup();
 
@@ -80,10 +93,22 @@ public class StashFinder extends Module {
         .build()
     );
 
-    public List<Chunk> chunks = new ArrayList<>();
+    private final Long2ObjectMap<Chunk> chunks = new Long2ObjectOpenHashMap<>();
+    private final StashLog log = new StashLog();
+
+    // Folder of the world the chunks were loaded from, all files are written there
+    private File folder;
+
+    // Chunks ordered by total for the gui, only sorted again when it is shown after chunks were added
+    private final List<Chunk> sorted = new ArrayList<>();
+    private boolean sortedDirty;
+    private int page;
 
     public StashFinder() {
         super(Categories.World, "stash-finder", "Searches loaded chunks for storage blocks. Saves to <your minecraft folder>/meteor-client");
+
+        // The log is written on a daemon thread, lines and exports still queued when the game closes would be lost
+        Runtime.getRuntime().addShutdownHook(new Thread(log::await));
     }
 
     @Override
@@ -91,6 +116,16 @@ public class StashFinder extends Module {
         load();
     }
 
+    @Override
+    public void onDeactivate() {
+        log.export(getJsonFile(), getCsvFile(), new ArrayList<>(chunks.values()));
+    }
+
+    @EventHandler
+    private void onGameJoined(GameJoinedEvent event) {
+        load();
+    }
+
     @EventHandler
     private void onChunkData(ChunkDataEvent event) {
         // Check the distance.
@@ -113,16 +148,20 @@ public class StashFinder extends Module {
         }
 
         if (chunk.getTotal() >= minimumStorageCount.get()) {
-            Chunk prevChunk = null;
-            int i = chunks.indexOf(chunk);
+            // The world can change without leaving the game, eg. when a proxy moves the player to another server
+            if (!getFolder().equals(folder)) load();
+
+            Chunk prevChunk = chunks.get(chunk.chunkPos.toLong());
 
-            if (i < 0) chunks.add(chunk);
-            else prevChunk = chunks.set(i, chunk);
+            // Chunks seen again without changes are neither logged nor notified
+            if (chunk.countsEqual(prevChunk)) return;
 
-            saveJson();
-            saveCsv();
+            chunks.put(chunk.chunkPos.toLong(), chunk);
+            sortedDirty = true;
 
-            if (sendNotifications.get() && (!chunk.equals(prevChunk) || !chunk.countsEqual(prevChunk))) {
+            log.put(getLogFile(), chunk, chunks);
+
+            if (sendNotifications.get()) {
                 switch (notificationMode.get()) {
                     case Chat -> info("Found stash at (highlight)%s(default), (highlight)%s(default).", chunk.x, chunk.z);
                     case Toast -> {
@@ -141,30 +180,67 @@ public class StashFinder extends Module {
 
     @Override
     public WWidget getWidget(GuiTheme theme) {
-        // Sort
-        chunks.sort(Comparator.comparingInt(value -> -value.getTotal()));
-
         WVerticalList list = theme.verticalList();
 
+        WHorizontalList buttons = list.add(theme.horizontalList()).widget();
+
         // Clear
-        WButton clear = list.add(theme.button("Clear")).widget();
+        WButton clear = buttons.add(theme.button("Clear")).widget();
 
-        WTable table = new WTable();
-        if (!chunks.isEmpty()) list.add(table);
+        // Export
+        WButton export = buttons.add(theme.button("Export")).widget();
+        export.action = () -> log.export(getJsonFile(), getCsvFile(), new ArrayList<>(chunks.values()));
+
+        // Pages
+        WHorizontalList pages = list.add(theme.horizontalList()).widget();
+        WButton previous = pages.add(theme.button("<")).widget();
+        WLabel pageLabel = pages.add(theme.label("")).widget();
+        WButton next = pages.add(theme.button(">")).widget();
+
+        WTable table = list.add(theme.table()).widget();
+
+        previous.action = () -> {
+            page--;
+            fillTable(theme, table, pageLabel);
+        };
+
+        next.action = () -> {
+            page++;
+            fillTable(theme, table, pageLabel);
+        };
 
         clear.action = () -> {
             chunks.clear();
-            table.clear();
+            sorted.clear();
+            log.compact(getLogFile(), List.of());
+
+            fillTable(theme, table, pageLabel);
         };
 
         // Chunks
-        fillTable(theme, table);
+        fillTable(theme, table, pageLabel);
 
         return list;
     }
 
-    private void fillTable(GuiTheme theme, WTable table) {
-        for (Chunk chunk : chunks) {
+    private void fillTable(GuiTheme theme, WTable table, WLabel pageLabel) {
+        table.clear();
+
+        if (sortedDirty) {
+            sorted.clear();
+            sorted.addAll(chunks.values());
+            sorted.sort(Comparator.comparingInt(value -> -value.getTotal()));
+
+            sortedDirty = false;
+        }
+
+        int pages = Math.max(1, (sorted.size() + PAGE_SIZE - 1) / PAGE_SIZE);
+        page = MathHelper.clamp(page, 0, pages - 1);
+        pageLabel.set("Page " + (page + 1) + "/" + pages);
+
+        for (int i = page * PAGE_SIZE; i < Math.min(sorted.size(), (page + 1) * PAGE_SIZE); i++) {
+            Chunk chunk = sorted.get(i);
+
             table.add(theme.label("Pos: " + chunk.x + ", " + chunk.z));
             table.add(theme.label("Total: " + chunk.getTotal()));
 
@@ -176,12 +252,11 @@ public class StashFinder extends Module {
 
             WMinus delete = table.add(theme.minus()).widget();
             delete.action = () -> {
-                if (chunks.remove(chunk)) {
-                    table.clear();
-                    fillTable(theme, table);
+                if (chunks.remove(chunk.chunkPos.toLong(), chunk)) {
+                    sorted.remove(chunk);
+                    log.remove(getLogFile(), chunk, chunks);
 
-                    saveJson();
-                    saveCsv();
+                    fillTable(theme, table, pageLabel);
                 }
             };
 
@@ -190,86 +265,89 @@ public class StashFinder extends Module {
     }
 
     private void load() {
-        boolean loaded = false;
+        chunks.clear();
+        sortedDirty = true;
+        folder = getFolder();
 
-        // Try to load json
-        File file = getJsonFile();
+        // Writes queued for this or the previous world have to be on disk before the log is read
+        log.await();
+
+        File file = getLogFile();
         if (file.exists()) {
-            try {
-                FileReader reader = new FileReader(file);
-                chunks = GSON.fromJson(reader, new TypeToken<List<Chunk>>() {}.getType());
-                reader.close();
+            log.read(file, chunks);
+            return;
+        }
 
-                for (Chunk chunk : chunks) chunk.calculatePos();
+        // Worlds without a log yet import the legacy files once
+        if (!loadJson()) loadCsv();
+        if (!chunks.isEmpty()) log.compact(file, new ArrayList<>(chunks.values()));
+    }
+
+    private boolean loadJson() {
+        File file = getJsonFile();
+        if (!file.exists()) return false;
 
-                loaded = true;
-            } catch (Exception ignored) {
-                if (chunks == null) chunks = new ArrayList<>();
+        try (FileReader reader = new FileReader(file)) {
+            List<Chunk> loaded = GSON.fromJson(reader, new TypeToken<List<Chunk>>() {}.getType());
+            if (loaded == null) return false;
+
+            for (Chunk chunk : loaded) {
+                chunk.calculatePos();
+                chunks.put(chunk.chunkPos.toLong(), chunk);
             }
+
+            return true;
+        } catch (Exception ignored) {
+            chunks.clear();
+            return false;
         }
+    }
 
-        // Try to load csv
-        file = getCsvFile();
-        if (!loaded && file.exists()) {
-            try {
-                BufferedReader reader = new BufferedReader(new FileReader(file));
-                reader.readLine();
+    private void loadCsv() {
+        File file = getCsvFile();
+        if (!file.exists()) return;
 
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    String[] values = line.split(" ");
-                    Chunk chunk = new Chunk(new ChunkPos(Integer.parseInt(values[0]), Integer.parseInt(values[1])));
+        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            reader.readLine();
 
-                    chunk.chests = Integer.parseInt(values[2]);
-                    chunk.shulkers = Integer.parseInt(values[3]);
-                    chunk.enderChests = Integer.parseInt(values[4]);
-                    chunk.furnaces = Integer.parseInt(values[5]);
-                    chunk.dispensersDroppers = Integer.parseInt(values[6]);
-                    chunk.hoppers = Integer.parseInt(values[7]);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                // Same columns as Chunk#write, positions are the centers of the chunks
+                String[] values = line.split(",");
+                Chunk chunk = new Chunk(new ChunkPos(Integer.parseInt(values[0]) >> 4, Integer.parseInt(values[1]) >> 4));
 
-                    chunks.add(chunk);
-                }
+                chunk.chests = Integer.parseInt(values[2]);
+                chunk.barrels = Integer.parseInt(values[3]);
+                chunk.shulkers = Integer.parseInt(values[4]);
+                chunk.enderChests = Integer.parseInt(values[5]);
+                chunk.furnaces = Integer.parseInt(values[6]);
+                chunk.dispensersDroppers = Integer.parseInt(values[7]);
+                chunk.hoppers = Integer.parseInt(values[8]);
 
-                reader.close();
-            } catch (Exception ignored) {
-                if (chunks == null) chunks = new ArrayList<>();
+                chunks.put(chunk.chunkPos.toLong(), chunk);
             }
+        } catch (Exception ignored) {
         }
     }
 
-    private void saveCsv() {
-        try {
-            File file = getCsvFile();
-            file.getParentFile().mkdirs();
-            Writer writer = new FileWriter(file);
-
-            writer.write("X,Z,Chests,Barrels,Shulkers,EnderChests,Furnaces,DispensersDroppers,Hoppers\n");
-            for (Chunk chunk : chunks) chunk.write(writer);
+    private File getFolder() {
+        return new File(new File(MeteorClient.FOLDER, "stashes"), Utils.getFileWorldName());
+    }
 
-            writer.close();
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+    private File getLoadedFolder() {
+        return folder != null ? folder : getFolder();
     }
 
-    private void saveJson() {
-        try {
-            File file = getJsonFile();
-            file.getParentFile().mkdirs();
-            Writer writer = new FileWriter(file);
-            GSON.toJson(chunks, writer);
-            writer.close();
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+    private File getLogFile() {
+        return new File(getLoadedFolder(), "stashes.log");
     }
 
     private File getJsonFile() {
-        return new File(new File(new File(MeteorClient.FOLDER, "stashes"), Utils.getFileWorldName()), "stashes.json");
+        return new File(getLoadedFolder(), "stashes.json");
     }
 
     private File getCsvFile() {
-        return new File(new File(new File(MeteorClient.FOLDER, "stashes"), Utils.getFileWorldName()), "stashes.csv");
+        return new File(getLoadedFolder(), "stashes.csv");
     }
 
     @Override
@@ -314,7 +392,7 @@ public class StashFinder extends Module {
 
         public boolean countsEqual(Chunk c) {
             if (c == null) return false;
-            return chests != c.chests || barrels != c.barrels || shulkers != c.shulkers || enderChests != c.enderChests || furnaces != c.furnaces || dispensersDroppers != c.dispensersDroppers || hoppers != c.hoppers;
+            return chests == c.chests && barrels == c.barrels && shulkers == c.shulkers && enderChests == c.enderChests && furnaces == c.furnaces && dispensersDroppers == c.dispensersDroppers && hoppers == c.hoppers;
         }
 
         @Override
@@ -331,6 +409,149 @@ public class StashFinder extends Module {
         }
     }
 
+    /**
+     * Append only record of the stashes of a world, every found or changed chunk adds a line and every deleted one a
+     * removal. Once most of the lines are outdated the log is rewritten with only the current chunks. All file I/O runs
+     * on a single thread so it happens in the order it was requested, chunks are never modified once they were added.
+     */
+    private static class StashLog {
+        private static final int MIN_COMPACT_RECORDS = 256;
+
+        private final ExecutorService executor = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task);
+            thread.setDaemon(true);
+            thread.setName("Meteor-StashFinder");
+            return thread;
+        });
+
+        // Lines in the log, both current and outdated ones
+        private int records;
+
+        public void read(File file, Long2ObjectMap<Chunk> chunks) {
+            records = 0;
+            boolean corrupted = false;
+
+            try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    String[] values = line.split(" ");
+
+                    try {
+                        ChunkPos pos = new ChunkPos(Integer.parseInt(values[1]), Integer.parseInt(values[2]));
+
+                        if (values[0].equals("-")) {
+                            chunks.remove(pos.toLong());
+                        } else {
+                            Chunk chunk = new Chunk(pos);
+
+                            chunk.chests = Integer.parseInt(values[3]);
+                            chunk.barrels = Integer.parseInt(values[4]);
+                            chunk.shulkers = Integer.parseInt(values[5]);
+                            chunk.enderChests = Integer.parseInt(values[6]);
+                            chunk.furnaces = Integer.parseInt(values[7]);
+                            chunk.dispensersDroppers = Integer.parseInt(values[8]);
+                            chunk.hoppers = Integer.parseInt(values[9]);
+
+                            chunks.put(pos.toLong(), chunk);
+                        }
+
+                        records++;
+                    } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                        // Line cut off by the game closing while it was written
+                        corrupted = true;
+                    }
+                }
+            } catch (IOException e) {
+                MeteorClient.LOG.error("Error reading stashes from {}.", file, e);
+                return;
+            }
+
+            if (corrupted) compact(file, new ArrayList<>(chunks.values()));
+        }
+
+        public void put(File file, Chunk chunk, Long2ObjectMap<Chunk> chunks) {
+            append(file, record(chunk), chunks);
+        }
+
+        public void remove(File file, Chunk chunk, Long2ObjectMap<Chunk> chunks) {
+            append(file, "- " + chunk.chunkPos.x + " " + chunk.chunkPos.z + "\n", chunks);
+        }
+
+        private void append(File file, String line, Long2ObjectMap<Chunk> chunks) {
+            if (++records > Math.max(MIN_COMPACT_RECORDS, chunks.size() * 2)) {
+                compact(file, new ArrayList<>(chunks.values()));
+                return;
+            }
+
+            executor.execute(() -> {
+                try {
+                    file.getParentFile().mkdirs();
+
+                    try (Writer writer = new FileWriter(file, true)) {
+                        writer.write(line);
+                    }
+                } catch (IOException e) {
+                    MeteorClient.LOG.error("Error saving stash to {}.", file, e);
+                }
+            });
+        }
+
+        /** Replaces the log with one line for each of the chunks. */
+        public void compact(File file, List<Chunk> chunks) {
+            records = chunks.size();
+
+            executor.execute(() -> {
+                try {
+                    file.getParentFile().mkdirs();
+                    File tempFile = new File(file.getParentFile(), file.getName() + ".tmp");
+
+                    try (Writer writer = new BufferedWriter(new FileWriter(tempFile))) {
+                        for (Chunk chunk : chunks) {
+                            writer.write(record(chunk));
+                        }
+                    }
+
+                    try {
+                        Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                    } catch (AtomicMoveNotSupportedException e) {
+                        Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                    }
+                } catch (IOException e) {
+                    MeteorClient.LOG.error("Error saving stashes to {}.", file, e);
+                }
+            });
+        }
+
+        /** Writes the chunks to the legacy json and csv files read by other tools. */
+        public void export(File jsonFile, File csvFile, List<Chunk> chunks) {
+            executor.execute(() -> {
+                try {
+                    jsonFile.getParentFile().mkdirs();
+
+                    try (Writer writer = new BufferedWriter(new FileWriter(jsonFile))) {
+                        GSON.toJson(chunks, writer);
+                    }
+
+                    try (Writer writer = new BufferedWriter(new FileWriter(csvFile))) {
+                        writer.write("X,Z,Chests,Barrels,Shulkers,EnderChests,Furnaces,DispensersDroppers,Hoppers\n");
+                        for (Chunk chunk : chunks) chunk.write(writer);
+                    }
+                } catch (IOException e) {
+                    MeteorClient.LOG.error("Error exporting stashes to {}.", jsonFile.getParentFile(), e);
+                }
+            });
+        }
+
+        /** Blocks until every queued write has finished. */
+        public void await() {
+            CompletableFuture.runAsync(() -> {}, executor).join();
+        }
+
+        private static String record(Chunk chunk) {
+            return "+ " + chunk.chunkPos.x + " " + chunk.chunkPos.z + " " + chunk.chests + " " + chunk.barrels + " " + chunk.shulkers + " " + chunk.enderChests + " " + chunk.furnaces + " " + chunk.dispensersDroppers + " " + chunk.hoppers + "\n";
+        }
+    }
+
     private static class ChunkScreen extends WindowScreen {
         private final Chunk chunk;
 
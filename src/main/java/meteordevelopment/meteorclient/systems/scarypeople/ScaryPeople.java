@@ -10,16 +10,14 @@ import meteordevelopment.meteorclient.systems.System;
 import meteordevelopment.meteorclient.systems.Systems;
 import meteordevelopment.meteorclient.utils.misc.NbtUtils;
 import meteordevelopment.meteorclient.utils.network.MeteorExecutor;
+import meteordevelopment.meteorclient.utils.social.SocialIndex;
 import net.minecraft.client.network.PlayerListEntry;
 import net.minecraft.entity.player.PlayerEntity;
 import net.minecraft.nbt.NbtCompound;
 import net.minecraft.nbt.NbtElement;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Iterator;
-import java.util.List;
+import java.util.*;
 
 public class ScaryPeople extends System<ScaryPeople> implements Iterable<ScaryPerson> {
     private final List<ScaryPerson> scaryPeople = new ArrayList<>();
@@ -37,6 +35,7 @@ public class ScaryPeople extends System<ScaryPeople> implements Iterable<ScaryPe
 
         if (!scaryPeople.contains(scaryPerson)) {
             scaryPeople.add(scaryPerson);
+            SocialIndex.invalidate();
             save();
 
             return true;
@@ -47,6 +46,7 @@ public class ScaryPeople extends System<ScaryPeople> implements Iterable<ScaryPe
 
     public boolean remove(ScaryPerson scaryPerson) {
         if (scaryPeople.remove(scaryPerson)) {
+            SocialIndex.invalidate();
             save();
             return true;
         }
@@ -55,21 +55,18 @@ public class ScaryPeople extends System<ScaryPeople> implements Iterable<ScaryPe
     }
 
     public ScaryPerson get(String name) {
-        for (ScaryPerson scaryPerson : scaryPeople) {
-            if (scaryPerson.name.equals(name)) {
-                return scaryPerson;
-            }
-        }
-
-        return null;
+        SocialIndex.Relations relations = SocialIndex.get(name);
+        return relations != null ? relations.getScaryPerson() : null;
     }
 
     public ScaryPerson get(PlayerEntity player) {
-        return get(player.getName().getString());
+        SocialIndex.Relations relations = SocialIndex.get(player);
+        return relations != null ? relations.getScaryPerson() : null;
     }
 
     public ScaryPerson get(PlayerListEntry player) {
-        return get(player.getProfile().getName());
+        SocialIndex.Relations relations = SocialIndex.get(player);
+        return relations != null ? relations.getScaryPerson() : null;
     }
 
     public boolean isScary(PlayerEntity player) {
@@ -109,13 +106,14 @@ public class ScaryPeople extends System<ScaryPeople> implements Iterable<ScaryPe
     @Override
     public ScaryPeople fromTag(NbtCompound tag) {
         scaryPeople.clear();
+        Set<String> names = new HashSet<>();
 
         for (NbtElement itemTag : tag.getList("scarypeople", 10)) {
             NbtCompound scaryPersonTag = (NbtCompound) itemTag;
             if (!scaryPersonTag.contains("name")) continue;
 
             String name = scaryPersonTag.getString("name");
-            if (get(name) != null) continue;
+            if (!names.add(name.toLowerCase(Locale.ROOT))) continue;
 
             String uuid = scaryPersonTag.getString("id");
             ScaryPerson scaryPerson = !uuid.isBlank()
@@ -126,6 +124,7 @@ public class ScaryPeople extends System<ScaryPeople> implements Iterable<ScaryPe
         }
 
         Collections.sort(scaryPeople);
+        SocialIndex.invalidate();
 
         MeteorExecutor.execute(() -> scaryPeople.forEach(ScaryPerson::updateInfo));
 
@@ -10,6 +10,7 @@ import meteordevelopment.meteorclient.utils.misc.ISerializable;
 import meteordevelopment.meteorclient.utils.network.Http;
 import meteordevelopment.meteorclient.utils.render.PlayerHeadTexture;
 import meteordevelopment.meteorclient.utils.render.PlayerHeadUtils;
+import meteordevelopment.meteorclient.utils.social.SocialIndex;
 import net.minecraft.entity.player.PlayerEntity;
 import net.minecraft.nbt.NbtCompound;
 import org.jetbrains.annotations.NotNull;
@@ -41,6 +42,10 @@ public class ScaryPerson implements ISerializable<ScaryPerson>, Comparable<Scary
         return name;
     }
 
+    public @Nullable UUID getId() {
+        return id;
+    }
+
     public PlayerHeadTexture getHead() {
         return headTexture != null ? headTexture : PlayerHeadUtils.STEVE_HEAD;
     }
@@ -51,6 +56,7 @@ public class ScaryPerson implements ISerializable<ScaryPerson>, Comparable<Scary
         if (res == null || res.name == null || res.id == null) return;
         name = res.name;
         id = UndashedUuid.fromStringLenient(res.id);
+        SocialIndex.invalidate();
         headTexture = PlayerHeadUtils.fetchHead(id);
         updating = false;
     }
@@ -66,6 +66,7 @@ public class Waypoint implements ISerializable<Waypoint> {
         .name("max-visible-distance")
         .description("How far away to render the waypoint.")
         .defaultValue(5000)
+        .onChanged(v -> invalidateIndex())
         .build()
     );
 
@@ -80,6 +81,7 @@ public class Waypoint implements ISerializable<Waypoint> {
         .name("location")
         .description("The location of the waypoint.")
         .defaultValue(BlockPos.ORIGIN)
+        .onChanged(v -> invalidateIndex())
         .build()
     );
 
@@ -87,6 +89,7 @@ public class Waypoint implements ISerializable<Waypoint> {
         .name("dimension")
         .description("Which dimension the waypoint is in.")
         .defaultValue(Dimension.Overworld)
+        .onChanged(v -> invalidateIndex())
         .build()
     );
 
@@ -95,6 +98,7 @@ public class Waypoint implements ISerializable<Waypoint> {
         .description("Whether to show the waypoint in the opposite dimension.")
         .defaultValue(true)
         .visible(() -> dimension.get() != Dimension.End)
+        .onChanged(v -> invalidateIndex())
         .build()
     );
 
@@ -120,6 +124,9 @@ public class Waypoint implements ISerializable<Waypoint> {
     // 1 second cooldown for waypoint actions
     final int waypointActionCooldown = 1000;
 
+    private int labelDistance = -1;
+    private String label;
+
     private Waypoint() {
         uuid = UUID.randomUUID();
         createdAt = System.currentTimeMillis();
@@ -169,6 +176,21 @@ public class Waypoint implements ISerializable<Waypoint> {
         return actionWhenNearDistance.get() >= distance;
     }
 
+    /** The distance text rendered below the icon, only formatted again when the distance changes. */
+    public String getDistanceLabel(int distance) {
+        if (distance != labelDistance) {
+            label = distance + " blocks";
+            labelDistance = distance;
+        }
+
+        return label;
+    }
+
+    private void invalidateIndex() {
+        Waypoints waypoints = Waypoints.get();
+        if (waypoints != null) waypoints.invalidateIndex();
+    }
+
     private void validateIcon() {
         Map<String, AbstractTexture> icons = Waypoints.get().icons;
 
@@ -5,6 +5,8 @@
 
 package meteordevelopment.meteorclient.systems.waypoints;
 
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
 import meteordevelopment.meteorclient.MeteorClient;
 import meteordevelopment.meteorclient.events.game.GameJoinedEvent;
 import meteordevelopment.meteorclient.events.game.GameLeftEvent;
@@ -24,6 +26,8 @@ import net.minecraft.client.texture.NativeImage;
 import net.minecraft.client.texture.NativeImageBackedTexture;
 import net.minecraft.nbt.NbtCompound;
 import net.minecraft.nbt.NbtElement;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.File;
@@ -40,6 +44,13 @@ public class Waypoints extends System<Waypoints> implements Iterable<Waypoint> {
 
     private final List<Waypoint> waypoints = Collections.synchronizedList(new ArrayList<>());
 
+    // Waypoints shown in the dimension the index was built for, by region of their position in that dimension
+    private static final int REGION_SHIFT = 10;
+    private final Long2ObjectMap<List<Waypoint>> regions = new Long2ObjectOpenHashMap<>();
+    private Dimension indexDimension;
+    private int indexMaxVisible;
+    private volatile boolean indexDirty = true;
+
     public Waypoints() {
         super(null);
     }
@@ -86,6 +97,7 @@ public class Waypoints extends System<Waypoints> implements Iterable<Waypoint> {
         }
 
         waypoints.add(waypoint);
+        invalidateIndex();
         save();
 
         MeteorClient.EVENT_BUS.post(new WaypointAddedEvent(waypoint));
@@ -96,6 +108,7 @@ public class Waypoints extends System<Waypoints> implements Iterable<Waypoint> {
     public boolean remove(Waypoint waypoint) {
         boolean removed = waypoints.remove(waypoint);
         if (removed) {
+            invalidateIndex();
             save();
             MeteorClient.EVENT_BUS.post(new WaypointRemovedEvent(waypoint));
         }
@@ -119,6 +132,60 @@ public class Waypoints extends System<Waypoints> implements Iterable<Waypoint> {
     @EventHandler(priority = EventPriority.LOWEST)
     private void onGameDisconnected(GameLeftEvent event) {
         waypoints.clear();
+        invalidateIndex();
+    }
+
+    public void invalidateIndex() {
+        indexDirty = true;
+    }
+
+    /**
+     * Replaces the contents of the list with the waypoints that can be shown in the current dimension and whose region is
+     * within the largest max visible distance of any of them from the position.
+     */
+    public void getInRange(double x, double z, List<Waypoint> out) {
+        out.clear();
+
+        Dimension dimension = PlayerUtils.getDimension();
+        if (indexDirty || indexDimension != dimension) buildIndex(dimension);
+
+        int minX = (int) Math.floor(x - indexMaxVisible) >> REGION_SHIFT;
+        int maxX = (int) Math.floor(x + indexMaxVisible) >> REGION_SHIFT;
+        int minZ = (int) Math.floor(z - indexMaxVisible) >> REGION_SHIFT;
+        int maxZ = (int) Math.floor(z + indexMaxVisible) >> REGION_SHIFT;
+
+        // Fewer regions exist than would be looked up
+        if ((long) (maxX - minX + 1) * (maxZ - minZ + 1) > regions.size()) {
+            for (List<Waypoint> region : regions.values()) out.addAll(region);
+            return;
+        }
+
+        for (int regionX = minX; regionX <= maxX; regionX++) {
+            for (int regionZ = minZ; regionZ <= maxZ; regionZ++) {
+                List<Waypoint> region = regions.get(ChunkPos.toLong(regionX, regionZ));
+                if (region != null) out.addAll(region);
+            }
+        }
+    }
+
+    private void buildIndex(Dimension dimension) {
+        indexDirty = false;
+        indexDimension = dimension;
+        indexMaxVisible = 0;
+
+        regions.clear();
+
+        synchronized (waypoints) {
+            for (Waypoint waypoint : waypoints) {
+                if (!checkDimension(waypoint)) continue;
+
+                BlockPos pos = waypoint.getPos();
+                long key = ChunkPos.toLong(pos.getX() >> REGION_SHIFT, pos.getZ() >> REGION_SHIFT);
+
+                regions.computeIfAbsent(key, k -> new ArrayList<>()).add(waypoint);
+                indexMaxVisible = Math.max(indexMaxVisible, waypoint.maxVisible.get());
+            }
+        }
     }
 
     public static boolean checkDimension(Waypoint waypoint) {
@@ -171,6 +238,7 @@ public class Waypoints extends System<Waypoints> implements Iterable<Waypoint> {
     @Override
     public Waypoints fromTag(NbtCompound tag) {
         waypoints.clear();
+        invalidateIndex();
 
         for (NbtElement waypointTag : tag.getListOrEmpty("waypoints")) {
             waypoints.add(new Waypoint(waypointTag));
@@ -195,6 +263,7 @@ public class Waypoints extends System<Waypoints> implements Iterable<Waypoint> {
         @Override
         public void remove() {
             it.remove();
+            invalidateIndex();
             save();
         }
     }
@@ -5,60 +5,95 @@
 
 package meteordevelopment.meteorclient.utils;
 
+import meteordevelopment.meteorclient.MeteorClient;
 import meteordevelopment.meteorclient.addons.AddonManager;
 import meteordevelopment.meteorclient.addons.MeteorAddon;
 import org.reflections.Reflections;
 import org.reflections.scanners.Scanners;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.stream.Collectors;
 
 public class ReflectInit {
-    private static final List<Reflections> reflections = new ArrayList<>();
+    /**
+     * Index of init methods generated at build time by the {@code generateInitIndex} Gradle task. Each line is
+     * {@code <annotation> <class> <method> [dependency,...]}, addons without one are scanned at runtime.
+     */
+    private static final String INDEX_PATH = "META-INF/meteor-client/init-index/%s.txt";
+
+    private static final List<InitSource> sources = new ArrayList<>();
 
     private ReflectInit() {
     }
 
     public static void registerPackages() {
+        long start = System.nanoTime();
+        int indexed = 0;
+
         for (MeteorAddon addon : AddonManager.ADDONS) {
             try {
-                add(addon);
+                if (add(addon)) indexed++;
             } catch (AbstractMethodError e) {
                 throw new RuntimeException("Addon \"%s\" is too old and cannot be ran.".formatted(addon.name), e);
             }
         }
+
+        MeteorClient.LOG.info("Registered init methods of {} packages in {} ms, {} from build time indexes.", sources.size(), (System.nanoTime() - start) / 1_000_000, indexed);
     }
 
-    private static void add(MeteorAddon addon) {
+    /** Returns true if the addon ships an index. */
+    private static boolean add(MeteorAddon addon) {
         String pkg = addon.getPackage();
-        if (pkg == null || pkg.isBlank()) return;
-        reflections.add(new Reflections(pkg, Scanners.MethodsAnnotated));
+        if (pkg == null || pkg.isBlank()) return false;
+
+        try (InputStream in = ReflectInit.class.getClassLoader().getResourceAsStream(INDEX_PATH.formatted(pkg))) {
+            if (in != null) {
+                sources.add(IndexedSource.read(in));
+                return true;
+            }
+        } catch (IOException e) {
+            MeteorClient.LOG.error("Failed to read the init index of {}, scanning the package instead.", pkg, e);
+        }
+
+        sources.add(new ScannedSource(new Reflections(pkg, Scanners.MethodsAnnotated)));
+        return false;
     }
 
     public static void init(Class<? extends Annotation> annotation) {
-        for (Reflections reflection : reflections) {
-            Set<Method> initTasks = reflection.getMethodsAnnotatedWith(annotation);
-            if (initTasks == null) return;
+        long start = System.nanoTime();
+        int count = 0;
 
-            Map<Class<?>, List<Method>> byClass = initTasks.stream().collect(Collectors.groupingBy(Method::getDeclaringClass));
-            Set<Method> left = new HashSet<>(initTasks);
+        for (InitSource source : sources) {
+            Map<Method, Class<?>[]> initTasks = source.get(annotation);
+            if (initTasks.isEmpty()) continue;
+
+            Map<Class<?>, List<Method>> byClass = initTasks.keySet().stream().collect(Collectors.groupingBy(Method::getDeclaringClass));
+            Set<Method> left = new HashSet<>(initTasks.keySet());
+            count += left.size();
 
             for (Method m; (m = left.stream().findAny().orElse(null)) != null; ) {
-                reflectInit(m, annotation, left, byClass);
+                reflectInit(m, annotation, left, byClass, initTasks);
             }
         }
+
+        MeteorClient.LOG.info("Ran {} @{} tasks in {} ms.", count, annotation.getSimpleName(), (System.nanoTime() - start) / 1_000_000);
     }
 
-    private static <T extends Annotation> void reflectInit(Method task, Class<T> annotation, Set<Method> left, Map<Class<?>, List<Method>> byClass) {
+    private static void reflectInit(Method task, Class<? extends Annotation> annotation, Set<Method> left, Map<Class<?>, List<Method>> byClass, Map<Method, Class<?>[]> dependencies) {
         left.remove(task);
 
-        for (Class<?> clazz : getDependencies(task, annotation)) {
+        for (Class<?> clazz : dependencies.get(task)) {
             for (Method m : byClass.getOrDefault(clazz, Collections.emptyList())) {
                 if (left.contains(m)) {
-                    reflectInit(m, annotation, left, byClass);
+                    reflectInit(m, annotation, left, byClass, dependencies);
                 }
             }
         }
@@ -81,4 +116,67 @@ public class ReflectInit {
             default -> new Class<?>[]{};
         };
     }
+
+    private interface InitSource {
+        /** Init methods with the annotation mapped to their dependencies. */
+        Map<Method, Class<?>[]> get(Class<? extends Annotation> annotation);
+    }
+
+    private record ScannedSource(Reflections reflections) implements InitSource {
+        @Override
+        public Map<Method, Class<?>[]> get(Class<? extends Annotation> annotation) {
+            Set<Method> methods = reflections.getMethodsAnnotatedWith(annotation);
+            if (methods == null) return Collections.emptyMap();
+
+            Map<Method, Class<?>[]> tasks = new HashMap<>();
+            for (Method method : methods) tasks.put(method, getDependencies(method, annotation));
+
+            return tasks;
+        }
+    }
+
+    private record IndexedSource(List<Entry> entries) implements InitSource {
+        public static IndexedSource read(InputStream in) throws IOException {
+            List<Entry> entries = new ArrayList<>();
+
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+                String line;
+
+                while ((line = reader.readLine()) != null) {
+                    String[] split = line.trim().split(" ");
+                    if (split.length < 3) continue;
+
+                    String[] dependencies = split.length > 3 ? split[3].split(",") : new String[0];
+                    entries.add(new Entry(split[0], split[1], split[2], dependencies));
+                }
+            }
+
+            return new IndexedSource(entries);
+        }
+
+        @Override
+        public Map<Method, Class<?>[]> get(Class<? extends Annotation> annotation) {
+            Map<Method, Class<?>[]> tasks = new HashMap<>();
+            ClassLoader loader = ReflectInit.class.getClassLoader();
+
+            for (Entry entry : entries) {
+                if (!entry.annotation.equals(annotation.getSimpleName())) continue;
+
+                try {
+                    Method method = Class.forName(entry.owner, false, loader).getDeclaredMethod(entry.method);
+
+                    Class<?>[] dependencies = new Class<?>[entry.dependencies.length];
+                    for (int i = 0; i < dependencies.length; i++) dependencies[i] = Class.forName(entry.dependencies[i], false, loader);
+
+                    tasks.put(method, dependencies);
+                } catch (ClassNotFoundException | NoSuchMethodException e) {
+                    throw new IllegalStateException("Init index entry '%s.%s' does not match the compiled classes".formatted(entry.owner, entry.method), e);
+                }
+            }
+
+            return tasks;
+        }
+
+        private record Entry(String annotation, String owner, String method, String[] dependencies) {}
+    }
 }
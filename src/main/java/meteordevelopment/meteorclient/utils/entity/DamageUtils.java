@@ -62,12 +62,7 @@ public class DamageUtils {
      * target of optimizations to make it more performant.
      * @see BlockView#raycast(RaycastContext)
      */
-    public static final RaycastFactory HIT_FACTORY = (context, blockPos) -> {
-        BlockState blockState = mc.world.getBlockState(blockPos);
-        if (blockState.getBlock().getBlastResistance() < 600) return null;
-
-        return blockState.getCollisionShape(mc.world, blockPos).raycast(context.start(), context.end(), blockPos);
-    };
+    public static final RaycastFactory HIT_FACTORY = (context, blockPos) -> ExplosionExposure.raycast(context, blockPos, null, null);
 
     public static float crystalDamage(LivingEntity target, Vec3d targetPos, Box targetBox, Vec3d explosionPos, RaycastFactory raycastFactory) {
         return explosionDamage(target, targetPos, targetBox, explosionPos, 12f, raycastFactory);
@@ -136,16 +131,7 @@ public class DamageUtils {
     }
 
     public static RaycastFactory getOverridingHitFactory(BlockPos overridePos, BlockState overrideState) {
-        return (context, blockPos) -> {
-            BlockState blockState;
-            if (blockPos.equals(overridePos)) blockState = overrideState;
-            else {
-                blockState = mc.world.getBlockState(blockPos);
-                if (blockState.getBlock().getBlastResistance() < 600) return null;
-            }
-
-            return blockState.getCollisionShape(mc.world, blockPos).raycast(context.start(), context.end(), blockPos);
-        };
+        return new OverridingHitFactory(overridePos.toImmutable(), overrideState);
     }
 
     // Sword damage
@@ -353,6 +339,11 @@ public class DamageUtils {
      * @see net.minecraft.world.explosion.ExplosionImpl#calculateReceivedDamage(Vec3d, Entity)
      */
     private static float getExposure(Vec3d source, Box box, RaycastFactory raycastFactory) {
+        if (ExplosionExposure.isCacheable(raycastFactory)) return ExplosionExposure.getExposure(source, box, raycastFactory);
+        return computeExposure(source, box, raycastFactory);
+    }
+
+    static float computeExposure(Vec3d source, Box box, RaycastFactory raycastFactory) {
         double xDiff = box.maxX - box.minX;
         double yDiff = box.maxY - box.minY;
         double zDiff = box.maxZ - box.minZ;
@@ -407,4 +398,12 @@ public class DamageUtils {
 
     @FunctionalInterface
     public interface RaycastFactory extends BiFunction<ExposureRaycastContext, BlockPos, BlockHitResult> {}
+
+    /** Treats the block at the given position as if it was the given state, a record so equal overrides share cached exposures. */
+    public record OverridingHitFactory(BlockPos overridePos, BlockState overrideState) implements RaycastFactory {
+        @Override
+        public BlockHitResult apply(ExposureRaycastContext context, BlockPos blockPos) {
+            return ExplosionExposure.raycast(context, blockPos, overridePos, overrideState);
+        }
+    }
 }
@@ -0,0 +1,199 @@
+/*
+ * This file is part of the Meteor Client distribution (https://github.com/MeteorDevelopment/meteor-client).
+ * Copyright (c) Meteor Development.
+ */
+
+package meteordevelopment.meteorclient.utils.entity;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectMap;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import meteordevelopment.meteorclient.MeteorClient;
+import meteordevelopment.meteorclient.events.entity.EntityAddedEvent;
+import meteordevelopment.meteorclient.events.entity.EntityRemovedEvent;
+import meteordevelopment.meteorclient.events.game.GameLeftEvent;
+import meteordevelopment.meteorclient.events.world.TickEvent;
+import meteordevelopment.meteorclient.utils.PreInit;
+import meteordevelopment.meteorclient.utils.misc.Pool;
+import meteordevelopment.orbit.EventHandler;
+import meteordevelopment.orbit.EventPriority;
+import net.minecraft.client.world.ClientWorld;
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.EntityType;
+import net.minecraft.util.math.ChunkPos;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static meteordevelopment.meteorclient.MeteorClient.mc;
+
+/**
+ * Snapshot of the world's entities taken at most once per tick, the first time it is queried. Entities are bucketed
+ * both by chunk and by type so callers only look at the entities they care about instead of scanning the whole world.
+ * Entities added or removed between ticks are applied to the snapshot as they happen. Returned lists must not be
+ * modified.
+ */
+public class EntityIndex {
+    private static final List<Entity> all = new ArrayList<>();
+    private static final Reference2ObjectMap<EntityType<?>, List<Entity>> types = new Reference2ObjectOpenHashMap<>();
+    private static final Long2ObjectMap<List<Entity>> chunks = new Long2ObjectOpenHashMap<>();
+
+    private static final Pool<List<Entity>> listPool = new Pool<>(ArrayList::new);
+
+    private static ClientWorld world;
+    private static boolean dirty = true;
+
+    private EntityIndex() {
+    }
+
+    @PreInit
+    public static void init() {
+        MeteorClient.EVENT_BUS.subscribe(EntityIndex.class);
+    }
+
+    @EventHandler(priority = EventPriority.HIGHEST + 1)
+    private static void onTick(TickEvent.Pre event) {
+        dirty = true;
+    }
+
+    @EventHandler(priority = EventPriority.HIGHEST + 1)
+    private static void onEntityAdded(EntityAddedEvent event) {
+        if (!dirty && world == mc.world) add(event.entity);
+    }
+
+    @EventHandler(priority = EventPriority.HIGHEST + 1)
+    private static void onEntityRemoved(EntityRemovedEvent event) {
+        if (dirty) return;
+
+        Entity entity = event.entity;
+        all.remove(entity);
+
+        List<Entity> list = types.get(entity.getType());
+        if (list != null) list.remove(entity);
+
+        // The entity may have moved to another chunk since the snapshot, range queries skip removed entities anyway
+        list = chunks.get(chunkKey(entity));
+        if (list != null) list.remove(entity);
+    }
+
+    @EventHandler
+    private static void onGameLeft(GameLeftEvent event) {
+        clear();
+        world = null;
+        dirty = true;
+    }
+
+    // Queries
+
+    public static List<Entity> getAll() {
+        update();
+        return all;
+    }
+
+    public static List<Entity> get(EntityType<?> type) {
+        update();
+
+        List<Entity> list = types.get(type);
+        return list != null ? list : List.of();
+    }
+
+    /** Fills the list with all entities of the given types. */
+    public static void get(Set<EntityType<?>> entityTypes, List<Entity> out) {
+        update();
+        out.clear();
+
+        for (Reference2ObjectMap.Entry<EntityType<?>, List<Entity>> entry : types.reference2ObjectEntrySet()) {
+            if (entityTypes.contains(entry.getKey())) out.addAll(entry.getValue());
+        }
+    }
+
+    /** Fills the list with all entities whose position is within range of the given position. */
+    public static void getInRange(double x, double y, double z, double range, List<Entity> out) {
+        update();
+        out.clear();
+
+        // Entities rarely move more than a chunk per tick, so one extra chunk covers those that crossed a border since the snapshot
+        int minX = ((int) Math.floor(x - range) >> 4) - 1;
+        int minZ = ((int) Math.floor(z - range) >> 4) - 1;
+        int maxX = ((int) Math.floor(x + range) >> 4) + 1;
+        int maxZ = ((int) Math.floor(z + range) >> 4) + 1;
+
+        double rangeSq = range * range;
+
+        if ((long) (maxX - minX + 1) * (maxZ - minZ + 1) >= chunks.size()) {
+            for (Entity entity : all) {
+                if (entity.squaredDistanceTo(x, y, z) <= rangeSq) out.add(entity);
+            }
+
+            return;
+        }
+
+        for (int cx = minX; cx <= maxX; cx++) {
+            for (int cz = minZ; cz <= maxZ; cz++) {
+                List<Entity> list = chunks.get(ChunkPos.toLong(cx, cz));
+                if (list == null) continue;
+
+                for (Entity entity : list) {
+                    if (!entity.isRemoved() && entity.squaredDistanceTo(x, y, z) <= rangeSq) out.add(entity);
+                }
+            }
+        }
+    }
+
+    // Snapshot
+
+    private static void update() {
+        if (!dirty && world == mc.world) return;
+
+        clear();
+        world = mc.world;
+        dirty = false;
+
+        if (world == null) return;
+
+        for (Entity entity : world.getEntities()) {
+            if (entity != null) add(entity);
+        }
+    }
+
+    private static void add(Entity entity) {
+        all.add(entity);
+
+        List<Entity> list = types.get(entity.getType());
+        if (list == null) {
+            list = listPool.get();
+            types.put(entity.getType(), list);
+        }
+        list.add(entity);
+
+        long key = chunkKey(entity);
+        list = chunks.get(key);
+        if (list == null) {
+            list = listPool.get();
+            chunks.put(key, list);
+        }
+        list.add(entity);
+    }
+
+    private static void clear() {
+        all.clear();
+
+        for (List<Entity> list : types.values()) {
+            list.clear();
+            listPool.free(list);
+        }
+        types.clear();
+
+        for (List<Entity> list : chunks.values()) {
+            list.clear();
+            listPool.free(list);
+        }
+        chunks.clear();
+    }
+
+    private static long chunkKey(Entity entity) {
+        return ChunkPos.toLong(entity.getBlockX() >> 4, entity.getBlockZ() >> 4);
+    }
+}
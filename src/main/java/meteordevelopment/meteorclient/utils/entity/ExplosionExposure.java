@@ -0,0 +1,178 @@
+/*
+ * This file is part of the Meteor Client distribution (https://github.com/MeteorDevelopment/meteor-client).
+ * Copyright (c) Meteor Development.
+ */
+
+package meteordevelopment.meteorclient.utils.entity;
+
+import meteordevelopment.meteorclient.MeteorClient;
+import meteordevelopment.meteorclient.events.game.GameLeftEvent;
+import meteordevelopment.meteorclient.events.world.BlockUpdateEvent;
+import meteordevelopment.meteorclient.events.world.TickEvent;
+import meteordevelopment.meteorclient.utils.PreInit;
+import meteordevelopment.orbit.EventHandler;
+import meteordevelopment.orbit.EventPriority;
+import net.minecraft.block.BlockState;
+import net.minecraft.util.hit.BlockHitResult;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Box;
+import net.minecraft.util.math.ChunkSectionPos;
+import net.minecraft.util.math.Vec3d;
+import net.minecraft.util.shape.VoxelShape;
+import net.minecraft.util.shape.VoxelShapes;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static meteordevelopment.meteorclient.MeteorClient.mc;
+
+/**
+ * Per tick caches used by {@link DamageUtils} to calculate explosion exposure. Blocks are looked up once per tick into
+ * section local bitmaps telling whether they block explosions and whether their collision shape is a full cube, and
+ * exposure is memoized per explosion position and target box. Both are safe to use from worker threads while the
+ * client thread waits for them.
+ */
+public class ExplosionExposure {
+    private static final int PASSABLE = 0;
+    private static final int FULL_CUBE = 1;
+    private static final int SHAPE = 2;
+
+    private static final Map<Long, Section> sections = new ConcurrentHashMap<>();
+    private static final Map<Key, Float> exposures = new ConcurrentHashMap<>();
+
+    private ExplosionExposure() {
+    }
+
+    @PreInit
+    public static void init() {
+        MeteorClient.EVENT_BUS.subscribe(ExplosionExposure.class);
+    }
+
+    @EventHandler(priority = EventPriority.HIGHEST + 1)
+    private static void onTick(TickEvent.Pre event) {
+        clear();
+    }
+
+    @EventHandler(priority = EventPriority.HIGHEST + 1)
+    private static void onBlockUpdate(BlockUpdateEvent event) {
+        BlockPos pos = event.pos;
+
+        Section section = sections.get(ChunkSectionPos.asLong(pos.getX() >> 4, pos.getY() >> 4, pos.getZ() >> 4));
+        if (section != null) section.forget(index(pos));
+
+        // Any memoized exposure could have had a ray going through the changed block
+        exposures.clear();
+    }
+
+    @EventHandler
+    private static void onGameLeft(GameLeftEvent event) {
+        clear();
+    }
+
+    private static void clear() {
+        sections.clear();
+        exposures.clear();
+    }
+
+    // Raycasts
+
+    /** Cached equivalent of {@link DamageUtils#HIT_FACTORY}, the override replaces the block at the given position. */
+    static BlockHitResult raycast(DamageUtils.ExposureRaycastContext context, BlockPos blockPos, BlockPos overridePos, BlockState overrideState) {
+        VoxelShape shape;
+
+        if (overridePos != null && blockPos.equals(overridePos)) {
+            shape = overrideState.getCollisionShape(mc.world, blockPos);
+        }
+        else {
+            shape = switch (getType(blockPos)) {
+                case FULL_CUBE -> VoxelShapes.fullCube();
+                case SHAPE -> mc.world.getBlockState(blockPos).getCollisionShape(mc.world, blockPos);
+                default -> null;
+            };
+
+            if (shape == null) return null;
+        }
+
+        return shape.raycast(context.start(), context.end(), blockPos);
+    }
+
+    private static int getType(BlockPos pos) {
+        long key = ChunkSectionPos.asLong(pos.getX() >> 4, pos.getY() >> 4, pos.getZ() >> 4);
+        Section section = sections.computeIfAbsent(key, k -> new Section());
+
+        int index = index(pos);
+        int type = section.get(index);
+        if (type != -1) return type;
+
+        BlockState state = mc.world.getBlockState(pos);
+
+        if (state.getBlock().getBlastResistance() < 600) type = PASSABLE;
+        else type = state.isFullCube(mc.world, pos) ? FULL_CUBE : SHAPE;
+
+        section.set(index, type);
+        return type;
+    }
+
+    private static int index(BlockPos pos) {
+        return (pos.getY() & 15) << 8 | (pos.getZ() & 15) << 4 | (pos.getX() & 15);
+    }
+
+    // Memoization
+
+    static float getExposure(Vec3d source, Box box, DamageUtils.RaycastFactory raycastFactory) {
+        Key key = new Key(source.x, source.y, source.z, box.minX, box.minY, box.minZ, box.maxX, box.maxY, box.maxZ, raycastFactory);
+
+        Float exposure = exposures.get(key);
+        if (exposure != null) return exposure;
+
+        float value = DamageUtils.computeExposure(source, box, raycastFactory);
+        exposures.put(key, value);
+
+        return value;
+    }
+
+    /** Whether exposure calculated with this factory only depends on the world and can be memoized. */
+    static boolean isCacheable(DamageUtils.RaycastFactory raycastFactory) {
+        return raycastFactory == DamageUtils.HIT_FACTORY || raycastFactory instanceof DamageUtils.OverridingHitFactory;
+    }
+
+    private record Key(double x, double y, double z, double minX, double minY, double minZ, double maxX, double maxY, double maxZ, DamageUtils.RaycastFactory raycastFactory) {}
+
+    private static class Section {
+        // Blocks that are not known yet are looked up again, the type bits are only meaningful for known blocks
+        private final AtomicLongArray known = new AtomicLongArray(64);
+        private final AtomicLongArray fullCube = new AtomicLongArray(64);
+        private final AtomicLongArray shape = new AtomicLongArray(64);
+
+        public int get(int index) {
+            int word = index >> 6;
+            long bit = 1L << (index & 63);
+
+            if ((known.get(word) & bit) == 0) return -1;
+            if ((fullCube.get(word) & bit) != 0) return FULL_CUBE;
+            if ((shape.get(word) & bit) != 0) return SHAPE;
+            return PASSABLE;
+        }
+
+        public void set(int index, int type) {
+            int word = index >> 6;
+            long bit = 1L << (index & 63);
+
+            // The type bits have to be visible before the block is marked as known
+            if (type == FULL_CUBE) fullCube.getAndAccumulate(word, bit, (a, b) -> a | b);
+            else if (type == SHAPE) shape.getAndAccumulate(word, bit, (a, b) -> a | b);
+
+            known.getAndAccumulate(word, bit, (a, b) -> a | b);
+        }
+
+        public void forget(int index) {
+            int word = index >> 6;
+            long bit = ~(1L << (index & 63));
+
+            known.getAndAccumulate(word, bit, (a, b) -> a & b);
+            fullCube.getAndAccumulate(word, bit, (a, b) -> a & b);
+            shape.getAndAccumulate(word, bit, (a, b) -> a & b);
+        }
+    }
+}
@@ -11,6 +11,7 @@ import meteordevelopment.meteorclient.utils.entity.fakeplayer.FakePlayerEntity;
 import meteordevelopment.meteorclient.utils.entity.fakeplayer.FakePlayerManager;
 import meteordevelopment.meteorclient.utils.player.PlayerUtils;
 import net.minecraft.entity.Entity;
+import net.minecraft.entity.EntityType;
 import net.minecraft.entity.player.PlayerEntity;
 import net.minecraft.world.GameMode;
 
@@ -39,9 +40,13 @@ public class TargetUtils {
     }
 
     public static void getList(List<Entity> targetList, Predicate<Entity> isGood, SortPriority sortPriority, int maxCount) {
+        getList(EntityIndex.getAll(), targetList, isGood, sortPriority, maxCount);
+    }
+
+    private static void getList(List<Entity> entities, List<Entity> targetList, Predicate<Entity> isGood, SortPriority sortPriority, int maxCount) {
         targetList.clear();
 
-        for (Entity entity : mc.world.getEntities()) {
+        for (Entity entity : entities) {
             if (entity != null && isGood.test(entity)) targetList.add(entity);
         }
 
@@ -59,13 +64,18 @@ public class TargetUtils {
     @Nullable
     public static PlayerEntity getPlayerTarget(double range, SortPriority priority) {
         if (!Utils.canUpdate()) return null;
-        return (PlayerEntity) get(entity -> {
+
+        // Only players can match, fake players are added by getList separately
+        ENTITIES.clear();
+        getList(EntityIndex.get(EntityType.PLAYER), ENTITIES, entity -> {
             if (!(entity instanceof PlayerEntity) || entity == mc.player) return false;
             if (((PlayerEntity) entity).isDead() || ((PlayerEntity) entity).getHealth() <= 0) return false;
             if (!PlayerUtils.isWithin(entity, range)) return false;
             if (!Friends.get().shouldAttack((PlayerEntity) entity)) return false;
             return EntityUtils.getGameMode((PlayerEntity) entity) == GameMode.SURVIVAL || entity instanceof FakePlayerEntity;
-        }, priority);
+        }, priority, 1);
+
+        return ENTITIES.isEmpty() ? null : (PlayerEntity) ENTITIES.getFirst();
     }
 
     public static boolean isBadTarget(PlayerEntity target, double range) {
@@ -0,0 +1,149 @@
+/*
+ * This file is part of the Meteor Client distribution (https://github.com/MeteorDevelopment/meteor-client).
+ * Copyright (c) Meteor Development.
+ */
+
+package meteordevelopment.meteorclient.utils.misc;
+
+import meteordevelopment.meteorclient.MeteorClient;
+import meteordevelopment.meteorclient.events.world.TickEvent;
+import meteordevelopment.meteorclient.utils.PreInit;
+import meteordevelopment.orbit.EventHandler;
+import meteordevelopment.orbit.EventPriority;
+import org.meteordev.starscript.Script;
+import org.meteordev.starscript.Section;
+import org.meteordev.starscript.utils.StarscriptError;
+import org.meteordev.starscript.value.Value;
+import org.meteordev.starscript.value.ValueMap;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Script that is only run again when one of the variables it read during its last run changed. Every variable of
+ * {@link MeteorStarscript#ss} is evaluated at most once per tick and shared by all scripts reading it. Scripts that
+ * call a function are run every time since its result depends on the arguments.
+ */
+public class CachedScript {
+    private static final Set<ValueMap> TRACKED = Collections.newSetFromMap(new WeakHashMap<>());
+
+    private static long tick;
+    private static CachedScript running;
+
+    private final Script script;
+    private final StringBuilder sb = new StringBuilder();
+
+    // Variables read during the last run and the values they had
+    private final List<Variable> dependencies = new ArrayList<>();
+    private final List<Value> values = new ArrayList<>();
+    private boolean callsFunction;
+
+    private Section section;
+
+    public CachedScript(Script script) {
+        this.script = script;
+    }
+
+    @PreInit(dependencies = MeteorStarscript.class)
+    public static void init() {
+        track(MeteorStarscript.ss.getGlobals());
+
+        MeteorClient.EVENT_BUS.subscribe(CachedScript.class);
+    }
+
+    @EventHandler(priority = EventPriority.HIGHEST)
+    private static void onTick(TickEvent.Pre event) {
+        tick++;
+
+        // Picks up globals added by addons after init
+        track(MeteorStarscript.ss.getGlobals());
+    }
+
+    /** Returns the section of the last run if none of its inputs changed, otherwise runs the script again. */
+    public Section run() throws StarscriptError {
+        if (section != null && !callsFunction && !changed()) return section;
+
+        dependencies.clear();
+        values.clear();
+        callsFunction = false;
+        section = null;
+
+        sb.setLength(0);
+
+        CachedScript previous = running;
+        running = this;
+
+        try {
+            section = MeteorStarscript.ss.run(script, sb);
+        }
+        finally {
+            running = previous;
+        }
+
+        return section;
+    }
+
+    private boolean changed() {
+        for (int i = 0; i < dependencies.size(); i++) {
+            if (!equals(dependencies.get(i).get(), values.get(i))) return true;
+        }
+
+        return false;
+    }
+
+    private void read(Variable variable, Value value) {
+        if (value.isFunction()) callsFunction = true;
+        else {
+            dependencies.add(variable);
+            values.add(value);
+        }
+    }
+
+    private static boolean equals(Value a, Value b) {
+        if (a == b) return true;
+
+        if (a.isNull()) return b.isNull();
+        if (a.isBool()) return b.isBool() && a.getBool() == b.getBool();
+        if (a.isNumber()) return b.isNumber() && a.getNumber() == b.getNumber();
+        if (a.isString()) return b.isString() && a.getString().equals(b.getString());
+
+        // Maps and functions are only the same if they are the same instance
+        return false;
+    }
+
+    private static void track(ValueMap map) {
+        for (String name : map.keys()) {
+            Supplier<Value> supplier = map.getRaw(name);
+            if (supplier != null && !(supplier instanceof Variable)) map.set(name, new Variable(supplier));
+        }
+    }
+
+    private static class Variable implements Supplier<Value> {
+        private final Supplier<Value> supplier;
+
+        private Value value;
+        private long tick = -1;
+
+        private Variable(Supplier<Value> supplier) {
+            this.supplier = supplier;
+        }
+
+        @Override
+        public Value get() {
+            if (tick != CachedScript.tick) {
+                value = supplier.get();
+                tick = CachedScript.tick;
+
+                // Nested maps are tracked when they are first seen
+                if (value != null && value.isMap() && TRACKED.add(value.getMap())) track(value.getMap());
+            }
+
+            if (running != null && value != null) running.read(this, value);
+            return value;
+        }
+    }
+}
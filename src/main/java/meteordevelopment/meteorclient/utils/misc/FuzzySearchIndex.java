@@ -0,0 +1,158 @@
+/*
+ * This file is part of the Meteor Client distribution (https://github.com/MeteorDevelopment/meteor-client).
+ * Copyright (c) Meteor Development.
+ */
+
+package meteordevelopment.meteorclient.utils.misc;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import it.unimi.dsi.fastutil.objects.Reference2IntMap;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Trigram inverted index over strings attached to values. A query only scores the strings sharing at least one trigram
+ * with it, using the same weighted edit distance as {@link meteordevelopment.meteorclient.utils.Utils#searchLevenshteinDefault(String, String, boolean)}.
+ * Queries shorter than a trigram score every string.
+ */
+public class FuzzySearchIndex<T> {
+    private static final int GRAM = 3;
+
+    private static final int INSERT_COST = 1;
+    private static final int SUBSTITUTE_COST = 8;
+    private static final int DELETE_COST = 8;
+
+    private final List<Entry<T>> entries = new ArrayList<>();
+    private final Long2ObjectMap<IntArrayList> postings = new Long2ObjectOpenHashMap<>();
+    private int removed;
+
+    public void add(T value, String text) {
+        if (text == null || text.isEmpty()) return;
+
+        int id = entries.size();
+        Entry<T> entry = new Entry<>(value, text.toLowerCase(Locale.ROOT));
+        entries.add(entry);
+
+        for (long gram : trigrams(entry.text)) {
+            postings.computeIfAbsent(gram, g -> new IntArrayList()).add(id);
+        }
+    }
+
+    public void remove(T value) {
+        for (Entry<T> entry : entries) {
+            if (entry.value == value) {
+                entry.value = null;
+                removed++;
+            }
+        }
+
+        if (removed > entries.size() / 2) rebuild();
+    }
+
+    private void rebuild() {
+        List<Entry<T>> live = new ArrayList<>(entries.size() - removed);
+        for (Entry<T> entry : entries) {
+            if (entry.value != null) live.add(entry);
+        }
+
+        entries.clear();
+        postings.clear();
+        removed = 0;
+
+        for (Entry<T> entry : live) add(entry.value, entry.text);
+    }
+
+    /** Puts the best score of every matching value into the map, keeping lower scores already in it. Lower is better. */
+    public void search(String query, Reference2IntMap<T> scores) {
+        String filter = query.toLowerCase(Locale.ROOT);
+
+        if (filter.length() < GRAM) {
+            for (Entry<T> entry : entries) score(entry, filter, scores);
+            return;
+        }
+
+        BitSet candidates = new BitSet(entries.size());
+
+        for (long gram : trigrams(filter)) {
+            IntArrayList ids = postings.get(gram);
+            if (ids == null) continue;
+
+            for (int i = 0; i < ids.size(); i++) candidates.set(ids.getInt(i));
+        }
+
+        for (int id = candidates.nextSetBit(0); id >= 0; id = candidates.nextSetBit(id + 1)) {
+            score(entries.get(id), filter, scores);
+        }
+    }
+
+    private void score(Entry<T> entry, String filter, Reference2IntMap<T> scores) {
+        T value = entry.value;
+        if (value == null) return;
+
+        int best = scores.containsKey(value) ? scores.getInt(value) : Integer.MAX_VALUE;
+        int score = distance(filter, entry.text, best);
+
+        if (score < best) scores.put(value, score);
+    }
+
+    /** Weighted edit distance from the filter to the text, gives up once it can't get below the bound. */
+    private static int distance(String from, String to, int bound) {
+        int fromLength = from.length();
+        int toLength = to.length();
+
+        int[] previous = new int[toLength + 1];
+        int[] current = new int[toLength + 1];
+
+        for (int j = 0; j <= toLength; j++) previous[j] = j * INSERT_COST;
+
+        for (int i = 1; i <= fromLength; i++) {
+            current[0] = i * DELETE_COST;
+            int min = current[0];
+
+            for (int j = 1; j <= toLength; j++) {
+                int sCost = previous[j - 1] + (from.charAt(i - 1) == to.charAt(j - 1) ? 0 : SUBSTITUTE_COST);
+                int dCost = previous[j] + DELETE_COST;
+                int iCost = current[j - 1] + INSERT_COST;
+
+                current[j] = Math.min(Math.min(dCost, iCost), sCost);
+                if (current[j] < min) min = current[j];
+            }
+
+            // Costs are never negative so later rows can't get below the lowest value of this one
+            if (min >= bound) return bound;
+
+            int[] temp = previous;
+            previous = current;
+            current = temp;
+        }
+
+        return previous[toLength];
+    }
+
+    private static LongSet trigrams(String text) {
+        LongSet grams = new LongOpenHashSet();
+
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            grams.add(((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2));
+        }
+
+        return grams;
+    }
+
+    private static class Entry<T> {
+        private T value;
+        private final String text;
+
+        private Entry(T value, String text) {
+            this.value = value;
+            this.text = text;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * This file is part of the Meteor Client distribution (https://github.com/MeteorDevelopment/meteor-client).
+ * Copyright (c) Meteor Development.
+ */
+
+package meteordevelopment.meteorclient.utils.misc;
+
+import net.minecraft.util.collection.IndexedIterable;
+
+import java.util.Arrays;
+
+/**
+ * Dense bitset of registry entries keyed by their raw id. The bits are rebuilt as a whole by {@link #set(Iterable)} and
+ * published at once, so {@link #contains(Object)} can be called from chunk building threads without locking.
+ */
+public class RawIdBitSet<T> {
+    private final IndexedIterable<T> registry;
+    private volatile long[] bits = new long[0];
+
+    public RawIdBitSet(IndexedIterable<T> registry) {
+        this.registry = registry;
+    }
+
+    public void set(Iterable<? extends T> values) {
+        long[] bits = new long[0];
+
+        for (T value : values) {
+            int id = registry.getRawId(value);
+            if (id < 0) continue;
+
+            int word = id >> 6;
+            if (word >= bits.length) bits = Arrays.copyOf(bits, Math.max(word + 1, bits.length * 2));
+
+            bits[word] |= 1L << (id & 63);
+        }
+
+        this.bits = bits;
+    }
+
+    public boolean contains(T value) {
+        int id = registry.getRawId(value);
+        if (id < 0) return false;
+
+        long[] bits = this.bits;
+        int word = id >> 6;
+
+        return word < bits.length && (bits[word] & (1L << (id & 63))) != 0;
+    }
+}
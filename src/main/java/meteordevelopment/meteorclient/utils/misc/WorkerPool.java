@@ -0,0 +1,93 @@
+/*
+ * This file is part of the Meteor Client distribution (https://github.com/MeteorDevelopment/meteor-client).
+ * Copyright (c) Meteor Development.
+ */
+
+package meteordevelopment.meteorclient.utils.misc;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Fixed size pool shared by every module doing CPU heavy background work, so enabling more of them doesn't start more
+ * threads. The threads are only started the first time a task is submitted.
+ */
+public class WorkerPool {
+    // Leave one core free for the render thread
+    public static final int THREADS = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+
+    private WorkerPool() {
+    }
+
+    public static void execute(Runnable task) {
+        Holder.executor.execute(task);
+    }
+
+    /**
+     * Runs the action for every element, split over the pool and the calling thread, and returns once all of them are
+     * done. Slices are claimed as threads become free, so when the pool is busy with other work the calling thread
+     * processes them itself and only ever waits for slices already being processed.
+     */
+    public static <T> void forEachParallel(List<T> list, Consumer<T> action) {
+        int size = list.size();
+
+        if (size < 16) {
+            list.forEach(action);
+            return;
+        }
+
+        int slices = Math.min(THREADS * 4, size / 4);
+        int sliceSize = (size + slices - 1) / slices;
+
+        AtomicInteger nextSlice = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(slices);
+        AtomicReference<RuntimeException> error = new AtomicReference<>();
+
+        Runnable worker = () -> {
+            int slice;
+
+            while ((slice = nextSlice.getAndIncrement()) < slices) {
+                try {
+                    int end = Math.min((slice + 1) * sliceSize, size);
+                    for (int i = slice * sliceSize; i < end; i++) action.accept(list.get(i));
+                } catch (RuntimeException e) {
+                    error.compareAndSet(null, e);
+                } finally {
+                    done.countDown();
+                }
+            }
+        };
+
+        for (int i = 0; i < THREADS; i++) execute(worker);
+        worker.run();
+
+        try {
+            done.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (error.get() != null) throw error.get();
+    }
+
+    // Initialized by the JVM on first access
+    private static class Holder {
+        private static final ExecutorService executor;
+
+        static {
+            AtomicInteger threadNumber = new AtomicInteger(1);
+
+            executor = Executors.newFixedThreadPool(THREADS, task -> {
+                Thread thread = new Thread(task);
+                thread.setDaemon(true);
+                thread.setName("Meteor-Worker-" + threadNumber.getAndIncrement());
+                return thread;
+            });
+        }
+    }
+}
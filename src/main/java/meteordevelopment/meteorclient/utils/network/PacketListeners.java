@@ -0,0 +1,212 @@
+/*
+ * This file is part of the Meteor Client distribution (https://github.com/MeteorDevelopment/meteor-client).
+ * Copyright (c) Meteor Development.
+ */
+
+package meteordevelopment.meteorclient.utils.network;
+
+import it.unimi.dsi.fastutil.objects.Reference2ObjectMap;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import meteordevelopment.meteorclient.MeteorClient;
+import meteordevelopment.meteorclient.events.packets.PacketEvent;
+import meteordevelopment.orbit.EventPriority;
+import meteordevelopment.orbit.ICancellable;
+import net.minecraft.network.ClientConnection;
+import net.minecraft.network.packet.Packet;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Routes packets to listeners registered for their class instead of posting them to every {@link PacketEvent}
+ * handler. Listeners are declared once by their owner and only called while it is subscribed, the same way an owner
+ * subscribes to the event bus. Listeners with a priority above {@link EventPriority#MEDIUM} run before the event is
+ * posted to the bus and the others after it, and none of them run once the event is cancelled.
+ */
+public class PacketListeners {
+    private static final Table<PacketEvent.Receive> RECEIVE = new Table<>(PacketUtils.getS2CPackets());
+    private static final Table<PacketEvent.Send> SEND = new Table<>(PacketUtils.getC2SPackets());
+    private static final Table<PacketEvent.Sent> SENT = new Table<>(PacketUtils.getC2SPackets());
+
+    private static final Reference2ObjectMap<Object, List<Entry<?>>> declared = new Reference2ObjectOpenHashMap<>();
+
+    private PacketListeners() {
+    }
+
+    // Registration
+
+    public static <P extends Packet<?>> void onReceive(Object owner, Class<P> packet, PacketListener<PacketEvent.Receive, P> listener) {
+        onReceive(owner, packet, EventPriority.MEDIUM, listener);
+    }
+
+    public static <P extends Packet<?>> void onReceive(Object owner, Class<P> packet, int priority, PacketListener<PacketEvent.Receive, P> listener) {
+        declare(new Entry<>(RECEIVE, owner, packet, priority, listener));
+    }
+
+    public static <P extends Packet<?>> void onSend(Object owner, Class<P> packet, PacketListener<PacketEvent.Send, P> listener) {
+        onSend(owner, packet, EventPriority.MEDIUM, listener);
+    }
+
+    public static <P extends Packet<?>> void onSend(Object owner, Class<P> packet, int priority, PacketListener<PacketEvent.Send, P> listener) {
+        declare(new Entry<>(SEND, owner, packet, priority, listener));
+    }
+
+    public static <P extends Packet<?>> void onSent(Object owner, Class<P> packet, PacketListener<PacketEvent.Sent, P> listener) {
+        declare(new Entry<>(SENT, owner, packet, EventPriority.MEDIUM, listener));
+    }
+
+    private static synchronized void declare(Entry<?> entry) {
+        declared.computeIfAbsent(entry.owner, o -> new ArrayList<>()).add(entry);
+    }
+
+    /** Starts calling the listeners declared by the owner. Does nothing if it has none or is already subscribed. */
+    public static synchronized void subscribe(Object owner) {
+        List<Entry<?>> entries = declared.get(owner);
+        if (entries == null) return;
+
+        for (Entry<?> entry : entries) entry.table.add(entry);
+    }
+
+    public static synchronized void unsubscribe(Object owner) {
+        List<Entry<?>> entries = declared.get(owner);
+        if (entries == null) return;
+
+        for (Entry<?> entry : entries) entry.table.remove(entry);
+    }
+
+    // Dispatch
+
+    /** Dispatches a received packet, returns true if it was cancelled. */
+    public static boolean receive(Packet<?> packet, ClientConnection connection) {
+        PacketEvent.Receive event = PacketEvent.Receive.get(packet, connection);
+
+        RECEIVE.dispatch(event, packet, true);
+        if (!event.isCancelled()) MeteorClient.EVENT_BUS.post(event);
+        RECEIVE.dispatch(event, packet, false);
+
+        boolean cancelled = event.isCancelled();
+        event.free();
+        return cancelled;
+    }
+
+    /** Dispatches a packet about to be sent, returns true if it was cancelled. */
+    public static boolean send(Packet<?> packet, ClientConnection connection) {
+        PacketEvent.Send event = PacketEvent.Send.get(packet, connection);
+
+        SEND.dispatch(event, packet, true);
+        if (!event.isCancelled()) MeteorClient.EVENT_BUS.post(event);
+        SEND.dispatch(event, packet, false);
+
+        boolean cancelled = event.isCancelled();
+        event.free();
+        return cancelled;
+    }
+
+    public static void sent(Packet<?> packet, ClientConnection connection) {
+        PacketEvent.Sent event = PacketEvent.Sent.get(packet, connection);
+
+        SENT.dispatch(event, packet, true);
+        MeteorClient.EVENT_BUS.post(event);
+        SENT.dispatch(event, packet, false);
+
+        event.free();
+    }
+
+    @FunctionalInterface
+    public interface PacketListener<E, P extends Packet<?>> {
+        void onPacket(E event, P packet);
+    }
+
+    private record Entry<E>(Table<E> table, Object owner, Class<?> packet, int priority, PacketListener<E, ?> listener) {
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        public void call(E event, Packet<?> packet) {
+            ((PacketListener) listener).onPacket(event, packet);
+        }
+    }
+
+    private static class Table<E> {
+        private static final Entry<?>[] EMPTY = new Entry<?>[0];
+        private static final Comparator<Entry<?>> PRIORITY = Comparator.<Entry<?>>comparingInt(Entry::priority).reversed();
+
+        private final Set<Class<? extends Packet<?>>> known;
+        private final List<Entry<E>> active = new ArrayList<>();
+
+        // Replaced as a whole whenever it changes, dispatch happens on netty threads and never locks
+        private volatile Reference2ObjectMap<Class<?>, Entry<?>[]> byClass;
+
+        public Table(Set<Class<? extends Packet<?>>> known) {
+            this.known = known;
+            this.byClass = build(Set.of());
+        }
+
+        public void add(Entry<?> entry) {
+            if (active.contains(entry)) return;
+
+            active.add(cast(entry));
+            active.sort(PRIORITY);
+            byClass = build(byClass.keySet());
+        }
+
+        public void remove(Entry<?> entry) {
+            if (active.remove(cast(entry))) byClass = build(byClass.keySet());
+        }
+
+        @SuppressWarnings("unchecked")
+        private Entry<E> cast(Entry<?> entry) {
+            return (Entry<E>) entry;
+        }
+
+        private Reference2ObjectMap<Class<?>, Entry<?>[]> build(Set<Class<?>> seen) {
+            Reference2ObjectMap<Class<?>, Entry<?>[]> map = new Reference2ObjectOpenHashMap<>(known.size() + seen.size());
+
+            for (Class<?> klass : known) map.put(klass, resolve(klass));
+            for (Class<?> klass : seen) map.put(klass, resolve(klass));
+
+            return map;
+        }
+
+        /** Listeners for the packet class, subclasses of a registered packet class receive its listeners too. */
+        private Entry<?>[] resolve(Class<?> klass) {
+            List<Entry<?>> entries = null;
+
+            for (Entry<E> entry : active) {
+                if (!entry.packet.isAssignableFrom(klass)) continue;
+
+                if (entries == null) entries = new ArrayList<>();
+                entries.add(entry);
+            }
+
+            return entries == null ? EMPTY : entries.toArray(EMPTY);
+        }
+
+        private Entry<?>[] get(Class<?> klass) {
+            Entry<?>[] entries = byClass.get(klass);
+            if (entries != null) return entries;
+
+            // Packets missing from the generated tables, like the ones added by other mods
+            synchronized (PacketListeners.class) {
+                entries = byClass.get(klass);
+                if (entries != null) return entries;
+
+                Reference2ObjectMap<Class<?>, Entry<?>[]> map = new Reference2ObjectOpenHashMap<>(byClass);
+                entries = resolve(klass);
+                map.put(klass, entries);
+                byClass = map;
+            }
+
+            return entries;
+        }
+
+        @SuppressWarnings("unchecked")
+        public void dispatch(E event, Packet<?> packet, boolean early) {
+            for (Entry<?> entry : get(packet.getClass())) {
+                if ((entry.priority > EventPriority.MEDIUM) != early) continue;
+                if (event instanceof ICancellable cancellable && cancellable.isCancelled()) return;
+
+                ((Entry<E>) entry).call(event, packet);
+            }
+        }
+    }
+}
@@ -17,11 +17,20 @@ import org.jetbrains.annotations.NotNull;
 import java.io.File;
 import java.nio.file.Path;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 public class SongDecoders {
     private static final Map<String, SongDecoder> decoders = new HashMap<>(); // file extension -> song decoder
 
+    private static final int CACHE_SIZE = 16;
+    private static final Map<String, CachedSong> cache = new LinkedHashMap<>(CACHE_SIZE, 0.75f, true) { // absolute path -> decoded song
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedSong> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
     static {
         registerDecoder("nbs", new NBSSongDecoder());
         registerDecoder("txt", new TextSongDecoder());
@@ -45,7 +54,7 @@ public class SongDecoders {
     }
 
     /**
-     * Parse file to one of {@link SongDecoder}
+     * Parse file to one of {@link SongDecoder}, decoded songs are cached until the file is modified
      *
      * @param file A song file
      * @return A {@link Song} object
@@ -53,29 +62,46 @@ public class SongDecoders {
     @NotNull
     public static Song parse(File file) throws Exception {
         if (!hasDecoder(file)) throw new IllegalStateException("Decoder for this file does not exists!");
-        SongDecoder decoder = getDecoder(file);
-        Song song = decoder.parse(file);
 
-        fixSong(song);
+        Song decoded = getCached(file);
+        if (decoded == null) {
+            decoded = getDecoder(file).parse(file);
+            putCached(file, decoded);
+        }
+
+        Song song = fixSong(decoded);
 
         song.finishLoading();
 
         return song;
     }
 
+    private static Song getCached(File file) {
+        synchronized (cache) {
+            CachedSong cached = cache.get(file.getAbsolutePath());
+            return cached != null && cached.lastModified == file.lastModified() && cached.length == file.length() ? cached.song : null;
+        }
+    }
+
+    private static void putCached(File file, Song song) {
+        synchronized (cache) {
+            cache.put(file.getAbsolutePath(), new CachedSong(file.lastModified(), file.length(), song));
+        }
+    }
+
     /**
-     * This method adapts {@link Song} to settings in Notebot module
+     * This method adapts {@link Song} to settings in Notebot module. The decoded song is left untouched, notes are
+     * copied into a new one since the result depends on the current settings
      *
-     * @param song A song
+     * @param decoded A decoded song
+     * @return The song to play
      */
-    private static void fixSong(Song song) {
+    private static Song fixSong(Song decoded) {
         Notebot notebot = Modules.get().get(Notebot.class);
+        Song song = new Song(decoded.getTitle(), decoded.getAuthor());
 
-        var iterator = song.getNotesMap().entries().iterator();
-        while (iterator.hasNext()) {
-            var entry = iterator.next();
-            int tick = entry.getKey();
-            Note note = entry.getValue();
+        decoded.forEachNote((tick, decodedNote) -> {
+            Note note = new Note(decodedNote.getInstrument(), decodedNote.getNoteLevel());
 
             int n = note.getNoteLevel();
             if (n < 0 || n > 24) {
@@ -83,8 +109,7 @@ public class SongDecoders {
                     note.setNoteLevel(n < 0 ? 0 : 24);
                 } else {
                     notebot.warning("Note at tick %d out of range.", tick);
-                    iterator.remove();
-                    continue;
+                    return;
                 }
             }
 
@@ -96,6 +121,12 @@ public class SongDecoders {
             } else {
                 note.setInstrument(null);
             }
-        }
+
+            song.addNote(tick, note);
+        });
+
+        return song;
     }
+
+    private record CachedSong(long lastModified, long length, Song song) {}
 }
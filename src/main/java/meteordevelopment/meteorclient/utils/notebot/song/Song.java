@@ -6,41 +6,134 @@
 package meteordevelopment.meteorclient.utils.notebot.song;
 
 import com.google.common.collect.Multimap;
+import com.google.common.collect.MultimapBuilder;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntArrays;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
+/**
+ * Notes are added in any order while the song is loading, {@link #finishLoading()} then sorts them into a timeline of
+ * the ticks that have notes and the notes of every tick, in the order they were added.
+ */
 public class Song {
-    private final Multimap<Integer, Note> notesMap;
-    private int lastTick;
     private final String title;
     private final String author;
 
+    // Notes added while loading
+    private IntArrayList addedTicks = new IntArrayList();
+    private ObjectArrayList<Note> addedNotes = new ObjectArrayList<>();
+
+    // Timeline, the notes of ticks[i] are notes[offsets[i]] until notes[offsets[i + 1]]
+    private int[] ticks;
+    private int[] offsets;
+    private Note[] notes;
+    private List<Note> notesList;
+
+    private int lastTick;
     private final Set<Note> requirements = new HashSet<>();
 
     private boolean finishedLoading = false;
 
-    public Song(Multimap<Integer, Note> notesMap,
-                String title, String author) {
-        this.notesMap = notesMap;
+    public Song(String title, String author) {
         this.title = title;
         this.author = author;
     }
 
+    public Song(Multimap<Integer, Note> notesMap, String title, String author) {
+        this(title, author);
+
+        notesMap.forEach(this::addNote);
+    }
+
+    public void addNote(int tick, Note note) {
+        if (finishedLoading) throw new IllegalStateException("Song has already finished loading!");
+
+        addedTicks.add(tick);
+        addedNotes.add(note);
+    }
+
     public void finishLoading() {
         if (finishedLoading) throw new IllegalStateException("Song has already finished loading!");
+        if (addedNotes.isEmpty()) throw new IllegalStateException("Song has no notes!");
+
+        int count = addedNotes.size();
+
+        // Stable so notes of the same tick keep their order
+        int[] order = new int[count];
+        for (int i = 0; i < count; i++) order[i] = i;
+        IntArrays.stableSort(order, (a, b) -> Integer.compare(addedTicks.getInt(a), addedTicks.getInt(b)));
+
+        IntArrayList ticks = new IntArrayList();
+        IntArrayList offsets = new IntArrayList();
+        notes = new Note[count];
+
+        for (int i = 0; i < count; i++) {
+            int tick = addedTicks.getInt(order[i]);
 
-        this.lastTick = Collections.max(notesMap.keySet());
-        this.notesMap.values().stream().distinct().forEach(requirements::add);
+            if (ticks.isEmpty() || ticks.getInt(ticks.size() - 1) != tick) {
+                ticks.add(tick);
+                offsets.add(i);
+            }
+
+            notes[i] = addedNotes.get(order[i]);
+            requirements.add(notes[i]);
+        }
+
+        offsets.add(count);
+
+        this.ticks = ticks.toIntArray();
+        this.offsets = offsets.toIntArray();
+        this.notesList = Collections.unmodifiableList(Arrays.asList(notes));
+        this.lastTick = this.ticks[this.ticks.length - 1];
+
+        addedTicks = null;
+        addedNotes = null;
 
         finishedLoading = true;
     }
 
+    /** Calls the consumer for every note, ordered by tick once the song finished loading. */
+    public void forEachNote(NoteConsumer consumer) {
+        if (!finishedLoading) {
+            for (int i = 0; i < addedNotes.size(); i++) consumer.accept(addedTicks.getInt(i), addedNotes.get(i));
+            return;
+        }
+
+        for (int i = 0; i < ticks.length; i++) {
+            for (int j = offsets[i]; j < offsets[i + 1]; j++) consumer.accept(ticks[i], notes[j]);
+        }
+    }
+
+    /**
+     * Copy of the notes keyed by tick, changes to it don't affect the song.
+     *
+     * @deprecated Use {@link #forEachNote(NoteConsumer)} or {@link #getNotes(int)}, they read the timeline directly
+     */
+    @Deprecated
     public Multimap<Integer, Note> getNotesMap() {
+        Multimap<Integer, Note> notesMap = MultimapBuilder.treeKeys().arrayListValues().build();
+        forEachNote(notesMap::put);
         return notesMap;
     }
 
+    public boolean hasNotes(int tick) {
+        if (!finishedLoading) throw new IllegalStateException("Song is still loading!");
+        return Arrays.binarySearch(ticks, tick) >= 0;
+    }
+
+    public List<Note> getNotes(int tick) {
+        if (!finishedLoading) throw new IllegalStateException("Song is still loading!");
+
+        int i = Arrays.binarySearch(ticks, tick);
+        return i >= 0 ? notesList.subList(offsets[i], offsets[i + 1]) : List.of();
+    }
+
     public Set<Note> getRequirements() {
         if (!finishedLoading) throw new IllegalStateException("Song is still loading!");
         return requirements;
@@ -58,4 +151,9 @@ public class Song {
     public String getAuthor() {
         return author;
     }
+
+    @FunctionalInterface
+    public interface NoteConsumer {
+        void accept(int tick, Note note);
+    }
 }
@@ -23,6 +23,8 @@ public class NametagUtils {
     private static final Vector3d cameraNegated = new Vector3d();
     private static final Matrix4f model = new Matrix4f();
     private static final Matrix4f projection = new Matrix4f();
+    private static final Matrix4f viewProjection = new Matrix4f();
+    private static final Vector4f[] sidePlanes = { new Vector4f(), new Vector4f(), new Vector4f(), new Vector4f() };
     private static double windowScale;
 
     public static double scale;
@@ -39,6 +41,29 @@ public class NametagUtils {
         cameraNegated.negate();
 
         windowScale = mc.getWindow().calculateScaleFactor(1, false);
+
+        // Near and far planes are left out, nametags are drawn past the render distance
+        projection.mul(model, viewProjection);
+        viewProjection.frustumPlane(Matrix4fc.PLANE_NX, sidePlanes[0]);
+        viewProjection.frustumPlane(Matrix4fc.PLANE_PX, sidePlanes[1]);
+        viewProjection.frustumPlane(Matrix4fc.PLANE_NY, sidePlanes[2]);
+        viewProjection.frustumPlane(Matrix4fc.PLANE_PY, sidePlanes[3]);
+    }
+
+    /**
+     * Cheap check if a sphere around the position is inside the sides of the view frustum, to skip positions before
+     * projecting them with {@link #to2D(Vector3d, double)}.
+     */
+    public static boolean isInView(double x, double y, double z, double radius) {
+        float rx = (float) (x - camera.x);
+        float ry = (float) (y - camera.y);
+        float rz = (float) (z - camera.z);
+
+        for (Vector4f plane : sidePlanes) {
+            if (plane.x * rx + plane.y * ry + plane.z * rz + plane.w < -radius) return false;
+        }
+
+        return true;
     }
 
     public static boolean to2D(Vector3d pos, double scale) {
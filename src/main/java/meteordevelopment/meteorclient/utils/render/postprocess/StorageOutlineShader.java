@@ -5,6 +5,7 @@ import meteordevelopment.meteorclient.renderer.MeshRenderer;
 import meteordevelopment.meteorclient.renderer.MeteorRenderPipelines;
 import meteordevelopment.meteorclient.systems.modules.Modules;
 import meteordevelopment.meteorclient.systems.modules.render.StorageESP;
+import meteordevelopment.meteorclient.utils.world.StorageIndex;
 import net.minecraft.client.MinecraftClient;
 import net.minecraft.client.gl.Framebuffer;
 import net.minecraft.entity.Entity;
@@ -32,7 +33,8 @@ public class StorageOutlineShader extends PostProcessShader {
     @Override
     protected boolean shouldDraw() {
         if (storageESP == null) storageESP = Modules.get().get(StorageESP.class);
-        return storageESP.isShader();
+        // Nothing to outline without any storage in the loaded chunks
+        return storageESP.isShader() && !StorageIndex.isEmpty();
     }
 
     @Override
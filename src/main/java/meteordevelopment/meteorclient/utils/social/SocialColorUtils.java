@@ -5,13 +5,9 @@
 
 package meteordevelopment.meteorclient.utils.social;
 
-import meteordevelopment.meteorclient.systems.alttracker.AltTracker;
-import meteordevelopment.meteorclient.systems.blacklistedpeople.BlacklistedPeople;
 import meteordevelopment.meteorclient.systems.config.Config;
-import meteordevelopment.meteorclient.systems.friends.Friends;
 import meteordevelopment.meteorclient.systems.modules.Modules;
 import meteordevelopment.meteorclient.systems.modules.render.BetterTab;
-import meteordevelopment.meteorclient.systems.scarypeople.ScaryPeople;
 import meteordevelopment.meteorclient.utils.misc.text.TextUtils;
 import meteordevelopment.meteorclient.utils.render.color.Color;
 import meteordevelopment.meteorclient.utils.render.color.SettingColor;
@@ -46,8 +42,8 @@ public class SocialColorUtils {
     public static Color getPlayerSocialColor(PlayerEntity entity, Color defaultColor) {
         if (entity == null) return defaultColor;
 
-        String playerName = entity.getName().getString();
         BetterTab betterTab = Modules.get().get(BetterTab.class);
+        SocialIndex.Relations relations = SocialIndex.get(entity);
 
         // Check if player is self
         if (mc.player != null && betterTab.isActive() &&
@@ -56,22 +52,22 @@ public class SocialColorUtils {
         }
 
         // Check scary people
-        if (betterTab.isActive() && ScaryPeople.get().get(playerName) != null) {
+        if (betterTab.isActive() && relations != null && relations.isScary()) {
             return getScaryPeopleColor();
         }
 
         // Check blacklisted people
-        if (betterTab.isActive() && BlacklistedPeople.get().get(playerName) != null) {
+        if (betterTab.isActive() && relations != null && relations.isBlacklisted()) {
             return getBlacklistedPeopleColor();
         }
 
         // Check alt accounts
-        if (betterTab.isActive() && AltTracker.get().isTracked(playerName)) {
+        if (betterTab.isActive() && relations != null && relations.isAlt()) {
             return getAltColor();
         }
 
         // Check friends
-        if (Friends.get().isFriend(entity)) {
+        if (relations != null && relations.isFriend()) {
             return color.set(Config.get().friendColor.get()).a(defaultColor.a);
         }
 
@@ -89,6 +85,7 @@ public class SocialColorUtils {
      */
     public static Color getPlayerSocialColor(String playerName, Color defaultColor) {
         BetterTab betterTab = Modules.get().get(BetterTab.class);
+        SocialIndex.Relations relations = SocialIndex.get(playerName);
 
         // Check if player is self
         if (mc.player != null && betterTab.isActive() &&
@@ -97,22 +94,22 @@ public class SocialColorUtils {
         }
 
         // Check scary people
-        if (betterTab.isActive() && ScaryPeople.get().get(playerName) != null) {
+        if (betterTab.isActive() && relations != null && relations.isScary()) {
             return getScaryPeopleColor();
         }
 
         // Check blacklisted people
-        if (betterTab.isActive() && BlacklistedPeople.get().get(playerName) != null) {
+        if (betterTab.isActive() && relations != null && relations.isBlacklisted()) {
             return getBlacklistedPeopleColor();
         }
 
         // Check alt accounts
-        if (betterTab.isActive() && AltTracker.get().isTracked(playerName)) {
+        if (betterTab.isActive() && relations != null && relations.isAlt()) {
             return getAltColor();
         }
 
         // Check friends
-        if (Friends.get().get(playerName) != null) {
+        if (relations != null && relations.isFriend()) {
             return color.set(Config.get().friendColor.get()).a(defaultColor.a);
         }
 
@@ -159,18 +156,13 @@ public class SocialColorUtils {
     public static boolean hasSpecialSocialStatus(PlayerEntity entity) {
         if (entity == null) return false;
 
-        String playerName = entity.getName().getString();
-
         // Check if is self
         if (mc.player != null && entity.getUuid().equals(mc.player.getUuid())) {
             return true;
         }
 
-        // Check various social systems
-        return ScaryPeople.get().get(playerName) != null ||
-               BlacklistedPeople.get().get(playerName) != null ||
-               AltTracker.get().isTracked(playerName) ||
-               Friends.get().isFriend(entity);
+        // Any relation means the player is in one of the social systems
+        return SocialIndex.get(entity) != null;
     }
 
     /**
@@ -179,25 +171,26 @@ public class SocialColorUtils {
     public static String getSocialStatus(PlayerEntity entity) {
         if (entity == null) return "Unknown";
 
-        String playerName = entity.getName().getString();
-
         if (mc.player != null && entity.getUuid().equals(mc.player.getUuid())) {
             return "Self";
         }
 
-        if (ScaryPeople.get().get(playerName) != null) {
+        SocialIndex.Relations relations = SocialIndex.get(entity);
+        if (relations == null) return "Player";
+
+        if (relations.isScary()) {
             return "Scary";
         }
 
-        if (BlacklistedPeople.get().get(playerName) != null) {
+        if (relations.isBlacklisted()) {
             return "Blacklisted";
         }
 
-        if (AltTracker.get().isTracked(playerName)) {
+        if (relations.isAlt()) {
             return "Alt";
         }
 
-        if (Friends.get().isFriend(entity)) {
+        if (relations.isFriend()) {
             return "Friend";
         }
 
@@ -0,0 +1,151 @@
+/*
+ * This file is part of the Meteor Client distribution (https://github.com/MeteorDevelopment/meteor-client).
+ * Copyright (c) Meteor Development.
+ */
+
+package meteordevelopment.meteorclient.utils.social;
+
+import it.unimi.dsi.fastutil.objects.Object2ObjectMap;
+import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
+import meteordevelopment.meteorclient.systems.Systems;
+import meteordevelopment.meteorclient.systems.alttracker.AltAccount;
+import meteordevelopment.meteorclient.systems.alttracker.AltTracker;
+import meteordevelopment.meteorclient.systems.blacklistedpeople.BlacklistedPeople;
+import meteordevelopment.meteorclient.systems.blacklistedpeople.BlacklistedPerson;
+import meteordevelopment.meteorclient.systems.friends.Friend;
+import meteordevelopment.meteorclient.systems.friends.Friends;
+import meteordevelopment.meteorclient.systems.scarypeople.ScaryPeople;
+import meteordevelopment.meteorclient.systems.scarypeople.ScaryPerson;
+import net.minecraft.client.network.PlayerListEntry;
+import net.minecraft.entity.player.PlayerEntity;
+
+import javax.annotation.Nullable;
+import java.util.Locale;
+import java.util.UUID;
+
+/**
+ * Friends, scary people, blacklisted people and alt groups of every listed player, keyed by lowercase name and by UUID
+ * where one is known. The systems mark it dirty whenever they change, including names and ids resolved off thread, and
+ * it is rebuilt from them on the next lookup.
+ */
+public class SocialIndex {
+    private static final Object2ObjectMap<String, Relations> byName = new Object2ObjectOpenHashMap<>();
+    private static final Object2ObjectMap<UUID, Relations> byId = new Object2ObjectOpenHashMap<>();
+
+    private static volatile boolean dirty = true;
+
+    private SocialIndex() {
+    }
+
+    public static void invalidate() {
+        dirty = true;
+    }
+
+    public static @Nullable Relations get(String name) {
+        if (dirty) rebuild();
+        return byName.get(name.toLowerCase(Locale.ROOT));
+    }
+
+    /** Looks the player up by UUID first so renamed players are still found, then by name. */
+    public static @Nullable Relations get(PlayerEntity player) {
+        if (dirty) rebuild();
+
+        Relations relations = byId.get(player.getUuid());
+        return relations != null ? relations : byName.get(player.getName().getString().toLowerCase(Locale.ROOT));
+    }
+
+    public static @Nullable Relations get(PlayerListEntry player) {
+        if (dirty) rebuild();
+
+        Relations relations = byId.get(player.getProfile().getId());
+        return relations != null ? relations : byName.get(player.getProfile().getName().toLowerCase(Locale.ROOT));
+    }
+
+    private static void rebuild() {
+        // Cleared first so changes made while rebuilding mark it dirty again
+        dirty = false;
+
+        byName.clear();
+        byId.clear();
+
+        Friends friends = Systems.get(Friends.class);
+        if (friends != null) {
+            for (Friend friend : friends) {
+                Relations relations = relations(friend.name, friend.getId());
+                if (relations.friend == null) relations.friend = friend;
+            }
+        }
+
+        ScaryPeople scaryPeople = Systems.get(ScaryPeople.class);
+        if (scaryPeople != null) {
+            for (ScaryPerson scaryPerson : scaryPeople) {
+                Relations relations = relations(scaryPerson.name, scaryPerson.getId());
+                if (relations.scary == null) relations.scary = scaryPerson;
+            }
+        }
+
+        BlacklistedPeople blacklistedPeople = Systems.get(BlacklistedPeople.class);
+        if (blacklistedPeople != null) {
+            for (BlacklistedPerson blacklistedPerson : blacklistedPeople) {
+                Relations relations = relations(blacklistedPerson.name, blacklistedPerson.getId());
+                if (relations.blacklisted == null) relations.blacklisted = blacklistedPerson;
+            }
+        }
+
+        AltTracker altTracker = Systems.get(AltTracker.class);
+        if (altTracker != null) {
+            for (AltAccount group : altTracker) {
+                for (String account : group.getAllAccounts()) {
+                    Relations relations = relations(account, null);
+                    if (relations.alts == null) relations.alts = group;
+                }
+            }
+        }
+    }
+
+    private static Relations relations(String name, @Nullable UUID id) {
+        Relations relations = byName.computeIfAbsent(name.toLowerCase(Locale.ROOT), k -> new Relations());
+        if (id != null) byId.putIfAbsent(id, relations);
+
+        return relations;
+    }
+
+    public static class Relations {
+        private @Nullable Friend friend;
+        private @Nullable ScaryPerson scary;
+        private @Nullable BlacklistedPerson blacklisted;
+        private @Nullable AltAccount alts;
+
+        public @Nullable Friend getFriend() {
+            return friend;
+        }
+
+        public @Nullable ScaryPerson getScaryPerson() {
+            return scary;
+        }
+
+        public @Nullable BlacklistedPerson getBlacklistedPerson() {
+            return blacklisted;
+        }
+
+        public @Nullable AltAccount getAltGroup() {
+            return alts;
+        }
+
+        public boolean isFriend() {
+            return friend != null;
+        }
+
+        public boolean isScary() {
+            return scary != null;
+        }
+
+        public boolean isBlacklisted() {
+            return blacklisted != null;
+        }
+
+        public boolean isAlt() {
+            return alts != null;
+        }
+    }
+}
@@ -5,7 +5,16 @@
 
 package meteordevelopment.meteorclient.utils.world;
 
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectMap;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
 import meteordevelopment.meteorclient.MeteorClient;
+import meteordevelopment.meteorclient.events.game.GameLeftEvent;
+import meteordevelopment.meteorclient.events.world.BlockUpdateEvent;
+import meteordevelopment.meteorclient.events.world.ChunkDataEvent;
 import meteordevelopment.meteorclient.events.world.TickEvent;
 import meteordevelopment.meteorclient.utils.PreInit;
 import meteordevelopment.meteorclient.utils.Utils;
@@ -14,24 +23,44 @@ import meteordevelopment.orbit.EventHandler;
 import meteordevelopment.orbit.EventPriority;
 import net.minecraft.block.BlockState;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkSectionPos;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.ChunkSection;
+import net.minecraft.world.chunk.ChunkStatus;
 
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
 import java.util.function.BiConsumer;
+import java.util.function.BiPredicate;
 
 import static meteordevelopment.meteorclient.MeteorClient.mc;
 
+/**
+ * Iterates the blocks around the player once per tick and hands them to registered callbacks.
+ * <p>
+ * The volume is walked section by section so block states are read straight from the {@link ChunkSection} and every
+ * callback only receives the blocks inside its own radius. Callbacks registered through
+ * {@link #registerCached(Object, int, int, BiPredicate, BiConsumer)} additionally reuse their matches from previous
+ * ticks for sections that have not changed, and rescan changed sections under a per-tick block budget.
+ */
 public class BlockIterator {
     private static final Pool<Callback> callbackPool = new Pool<>(Callback::new);
     private static final List<Callback> callbacks = new ArrayList<>();
 
     private static final List<Runnable> afterCallbacks = new ArrayList<>();
 
+    private static final Reference2ObjectMap<Object, Long2ObjectMap<SectionCache>> caches = new Reference2ObjectOpenHashMap<>();
+    private static final LongArrayList sections = new LongArrayList();
+    private static final List<Callback> sectionCallbacks = new ArrayList<>();
+
     private static final BlockPos.Mutable blockPos = new BlockPos.Mutable();
     private static int hRadius, vRadius;
 
     private static boolean disableCurrent;
+    private static int tick;
+
+    /** Maximum number of blocks cached callbacks may rescan per tick, sections over the budget are rescanned on a later tick. */
+    public static int blockBudget = 64 * 4096;
 
     private BlockIterator() {
     }
@@ -45,33 +74,103 @@ public class BlockIterator {
     private static void onTick(TickEvent.Pre event) {
         if (!Utils.canUpdate()) return;
 
+        tick++;
+
         int px = mc.player.getBlockX();
         int py = mc.player.getBlockY();
         int pz = mc.player.getBlockZ();
 
-        for (int x = px - hRadius; x <= px + hRadius; x++) {
-            for (int z = pz - hRadius; z <= pz + hRadius; z++) {
-                for (int y = Math.max(mc.world.getBottomY(), py - vRadius); y <= py + vRadius; y++) {
-                    if (y > mc.world.getHeight()) break;
+        int minY = Math.max(mc.world.getBottomY(), py - vRadius);
+        int maxY = Math.min(mc.world.getTopYInclusive(), py + vRadius);
+
+        for (Callback callback : callbacks) callback.setBounds(px, py, pz, minY, maxY);
+
+        // Collect the sections touched by the largest radius, nearest first so the budget is spent close to the player
+        if (minY <= maxY) {
+            int psx = px >> 4, psy = py >> 4, psz = pz >> 4;
+
+            for (int sx = (px - hRadius) >> 4; sx <= (px + hRadius) >> 4; sx++) {
+                for (int sz = (pz - hRadius) >> 4; sz <= (pz + hRadius) >> 4; sz++) {
+                    for (int sy = minY >> 4; sy <= maxY >> 4; sy++) {
+                        sections.add(ChunkSectionPos.asLong(sx, sy, sz));
+                    }
+                }
+            }
+
+            sections.unstableSort((long a, long b) -> Integer.compare(
+                distance(a, psx, psy, psz),
+                distance(b, psx, psy, psz)
+            ));
+        }
+
+        int budget = blockBudget;
+
+        for (int i = 0; i < sections.size(); i++) {
+            long sectionKey = sections.getLong(i);
+
+            int sx = ChunkSectionPos.unpackX(sectionKey);
+            int sy = ChunkSectionPos.unpackY(sectionKey);
+            int sz = ChunkSectionPos.unpackZ(sectionKey);
+
+            Chunk chunk = mc.world.getChunk(sx, sz, ChunkStatus.FULL, false);
+            if (chunk == null) continue;
+
+            ChunkSection section = chunk.getSection(chunk.getSectionIndex(sy << 4));
+
+            // Callbacks only see the part of the section inside their own bounds
+            int x1 = sx << 4, y1 = sy << 4, z1 = sz << 4;
+            int x2 = x1 + 15, y2 = y1 + 15, z2 = z1 + 15;
+
+            int minX = Integer.MAX_VALUE, minSY = Integer.MAX_VALUE, minZ = Integer.MAX_VALUE;
+            int maxX = Integer.MIN_VALUE, maxSY = Integer.MIN_VALUE, maxZ = Integer.MIN_VALUE;
+
+            for (Callback callback : callbacks) {
+                if (callback.disabled || !callback.intersects(x1, y1, z1, x2, y2, z2)) continue;
+
+                if (callback.filter != null) {
+                    budget -= iterateCached(callback, section, sectionKey, x1, y1, z1, x2, y2, z2, budget);
+                    continue;
+                }
+
+                sectionCallbacks.add(callback);
+
+                minX = Math.min(minX, Math.max(x1, callback.minX));
+                minSY = Math.min(minSY, Math.max(y1, callback.minY));
+                minZ = Math.min(minZ, Math.max(z1, callback.minZ));
+                maxX = Math.max(maxX, Math.min(x2, callback.maxX));
+                maxSY = Math.max(maxSY, Math.min(y2, callback.maxY));
+                maxZ = Math.max(maxZ, Math.min(z2, callback.maxZ));
+            }
 
-                    blockPos.set(x, y, z);
-                    BlockState blockState = mc.world.getBlockState(blockPos);
+            if (sectionCallbacks.isEmpty()) continue;
 
-                    int dx = Math.abs(x - px);
-                    int dy = Math.abs(y - py);
-                    int dz = Math.abs(z - pz);
+            for (int x = minX; x <= maxX; x++) {
+                for (int z = minZ; z <= maxZ; z++) {
+                    for (int y = minSY; y <= maxSY; y++) {
+                        BlockState blockState = section.getBlockState(x & 15, y & 15, z & 15);
 
-                    for (Iterator<Callback> it = callbacks.iterator(); it.hasNext(); ) {
-                        Callback callback = it.next();
+                        for (int j = 0; j < sectionCallbacks.size(); j++) {
+                            Callback callback = sectionCallbacks.get(j);
+                            if (callback.disabled || !callback.contains(x, y, z)) continue;
 
-                        if (dx <= callback.hRadius && dy <= callback.vRadius && dz <= callback.hRadius) {
-                            disableCurrent = false;
-                            callback.function.accept(blockPos, blockState);
-                            if (disableCurrent) it.remove();
+                            blockPos.set(x, y, z);
+                            accept(callback, blockState);
                         }
                     }
                 }
             }
+
+            sectionCallbacks.clear();
+        }
+
+        sections.clear();
+
+        // Drop cached sections which went out of range and owners which stopped registering
+        for (ObjectIterator<Reference2ObjectMap.Entry<Object, Long2ObjectMap<SectionCache>>> it = caches.reference2ObjectEntrySet().iterator(); it.hasNext(); ) {
+            Long2ObjectMap<SectionCache> cache = it.next().getValue();
+            cache.values().removeIf(sectionCache -> sectionCache.lastUsed != tick);
+
+            if (cache.isEmpty()) it.remove();
         }
 
         hRadius = 0;
@@ -84,19 +183,156 @@ public class BlockIterator {
         afterCallbacks.clear();
     }
 
+    private static int iterateCached(Callback callback, ChunkSection section, long sectionKey, int x1, int y1, int z1, int x2, int y2, int z2, int budget) {
+        int minX = Math.max(x1, callback.minX), minY = Math.max(y1, callback.minY), minZ = Math.max(z1, callback.minZ);
+        int maxX = Math.min(x2, callback.maxX), maxY = Math.min(y2, callback.maxY), maxZ = Math.min(z2, callback.maxZ);
+
+        Long2ObjectMap<SectionCache> cache = caches.computeIfAbsent(callback.owner, o -> new Long2ObjectOpenHashMap<>());
+        SectionCache sectionCache = cache.get(sectionKey);
+
+        boolean covered = sectionCache != null && sectionCache.covers(minX, minY, minZ, maxX, maxY, maxZ);
+        int volume = (maxX - minX + 1) * (maxY - minY + 1) * (maxZ - minZ + 1);
+
+        // Rescan if the section changed or the player moved so it needs blocks that weren't checked yet
+        if ((sectionCache == null || sectionCache.dirty || !covered) && volume <= budget) {
+            if (sectionCache == null) {
+                sectionCache = new SectionCache();
+                cache.put(sectionKey, sectionCache);
+            }
+
+            sectionCache.set(minX, minY, minZ, maxX, maxY, maxZ);
+
+            for (int x = minX; x <= maxX; x++) {
+                for (int z = minZ; z <= maxZ; z++) {
+                    for (int y = minY; y <= maxY; y++) {
+                        BlockState blockState = section.getBlockState(x & 15, y & 15, z & 15);
+                        blockPos.set(x, y, z);
+
+                        if (callback.filter.test(blockPos, blockState)) sectionCache.matches.add(blockPos.asLong());
+                    }
+                }
+            }
+
+            sectionCache.lastUsed = tick;
+            replay(callback, section, sectionCache);
+
+            return volume;
+        }
+
+        // Over budget or unchanged, reuse what was found last time
+        if (sectionCache != null) {
+            sectionCache.lastUsed = tick;
+            replay(callback, section, sectionCache);
+        }
+
+        return 0;
+    }
+
+    private static void replay(Callback callback, ChunkSection section, SectionCache sectionCache) {
+        for (int i = 0; i < sectionCache.matches.size(); i++) {
+            if (callback.disabled) return;
+
+            long packed = sectionCache.matches.getLong(i);
+            blockPos.set(BlockPos.unpackLongX(packed), BlockPos.unpackLongY(packed), BlockPos.unpackLongZ(packed));
+            if (!callback.contains(blockPos.getX(), blockPos.getY(), blockPos.getZ())) continue;
+
+            accept(callback, section.getBlockState(blockPos.getX() & 15, blockPos.getY() & 15, blockPos.getZ() & 15));
+        }
+    }
+
+    private static void accept(Callback callback, BlockState blockState) {
+        disableCurrent = false;
+        callback.function.accept(blockPos, blockState);
+        if (disableCurrent) callback.disabled = true;
+    }
+
+    private static int distance(long sectionKey, int sx, int sy, int sz) {
+        int dx = ChunkSectionPos.unpackX(sectionKey) - sx;
+        int dy = ChunkSectionPos.unpackY(sectionKey) - sy;
+        int dz = ChunkSectionPos.unpackZ(sectionKey) - sz;
+
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    // Cache invalidation
+
+    @EventHandler
+    private static void onBlockUpdate(BlockUpdateEvent event) {
+        if (caches.isEmpty()) return;
+
+        int sx = event.pos.getX() >> 4;
+        int sy = event.pos.getY() >> 4;
+        int sz = event.pos.getZ() >> 4;
+
+        // Filters usually look at neighbouring blocks so the surrounding sections are invalidated as well
+        for (Long2ObjectMap<SectionCache> cache : caches.values()) {
+            for (int x = -1; x <= 1; x++) {
+                for (int y = -1; y <= 1; y++) {
+                    for (int z = -1; z <= 1; z++) {
+                        SectionCache sectionCache = cache.get(ChunkSectionPos.asLong(sx + x, sy + y, sz + z));
+                        if (sectionCache != null) sectionCache.dirty = true;
+                    }
+                }
+            }
+        }
+    }
+
+    @EventHandler
+    private static void onChunkData(ChunkDataEvent event) {
+        if (caches.isEmpty()) return;
+
+        int cx = event.chunk().getPos().x;
+        int cz = event.chunk().getPos().z;
+
+        for (Long2ObjectMap<SectionCache> cache : caches.values()) {
+            for (SectionCache sectionCache : cache.values()) {
+                if (Math.abs(sectionCache.x - cx) <= 1 && Math.abs(sectionCache.z - cz) <= 1) sectionCache.dirty = true;
+            }
+        }
+    }
+
+    @EventHandler
+    private static void onGameLeft(GameLeftEvent event) {
+        caches.clear();
+    }
+
+    // Registration
+
     public static void register(int horizontalRadius, int verticalRadius, BiConsumer<BlockPos, BlockState> function) {
+        register(null, horizontalRadius, verticalRadius, null, function);
+    }
+
+    /**
+     * Registers a callback which only receives blocks matching {@code filter}. Matches are cached per section and
+     * reused on following ticks until a {@link BlockUpdateEvent} or {@link ChunkDataEvent} touches the section, so
+     * the filter must only depend on the world around the block and not on the player or time. Call
+     * {@link #invalidate(Object)} when anything else the filter depends on changes.
+     */
+    public static void registerCached(Object owner, int horizontalRadius, int verticalRadius, BiPredicate<BlockPos, BlockState> filter, BiConsumer<BlockPos, BlockState> function) {
+        register(owner, horizontalRadius, verticalRadius, filter, function);
+    }
+
+    private static void register(Object owner, int horizontalRadius, int verticalRadius, BiPredicate<BlockPos, BlockState> filter, BiConsumer<BlockPos, BlockState> function) {
         hRadius = Math.max(hRadius, horizontalRadius);
         vRadius = Math.max(vRadius, verticalRadius);
 
         Callback callback = callbackPool.get();
 
+        callback.owner = owner;
+        callback.filter = filter;
         callback.function = function;
         callback.hRadius = horizontalRadius;
         callback.vRadius = verticalRadius;
+        callback.disabled = false;
 
         callbacks.add(callback);
     }
 
+    /** Discards all cached matches of {@code owner}, they are rescanned on the next tick. */
+    public static void invalidate(Object owner) {
+        caches.remove(owner);
+    }
+
     public static void disableCurrent() {
         disableCurrent = true;
     }
@@ -106,7 +342,59 @@ public class BlockIterator {
     }
 
     private static class Callback {
+        public Object owner;
+        public BiPredicate<BlockPos, BlockState> filter;
         public BiConsumer<BlockPos, BlockState> function;
         public int hRadius, vRadius;
+        public boolean disabled;
+
+        public int minX, minY, minZ;
+        public int maxX, maxY, maxZ;
+
+        public void setBounds(int px, int py, int pz, int worldMinY, int worldMaxY) {
+            minX = px - hRadius;
+            minY = Math.max(worldMinY, py - vRadius);
+            minZ = pz - hRadius;
+
+            maxX = px + hRadius;
+            maxY = Math.min(worldMaxY, py + vRadius);
+            maxZ = pz + hRadius;
+        }
+
+        public boolean intersects(int x1, int y1, int z1, int x2, int y2, int z2) {
+            return minX <= x2 && maxX >= x1 && minY <= y2 && maxY >= y1 && minZ <= z2 && maxZ >= z1;
+        }
+
+        public boolean contains(int x, int y, int z) {
+            return x >= minX && x <= maxX && y >= minY && y <= maxY && z >= minZ && z <= maxZ;
+        }
+    }
+
+    private static class SectionCache {
+        public final LongArrayList matches = new LongArrayList();
+        public int x, z;
+        public boolean dirty;
+        public int lastUsed;
+
+        private int minX, minY, minZ;
+        private int maxX, maxY, maxZ;
+
+        public void set(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+            this.minX = minX;
+            this.minY = minY;
+            this.minZ = minZ;
+            this.maxX = maxX;
+            this.maxY = maxY;
+            this.maxZ = maxZ;
+
+            x = minX >> 4;
+            z = minZ >> 4;
+            dirty = false;
+            matches.clear();
+        }
+
+        public boolean covers(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+            return minX >= this.minX && minY >= this.minY && minZ >= this.minZ && maxX <= this.maxX && maxY <= this.maxY && maxZ <= this.maxZ;
+        }
     }
 }
@@ -311,7 +311,7 @@ public class BlockUtils {
         boolean snow = blockState.getBlock() instanceof SnowBlock && blockState.get(SnowBlock.LAYERS) == 1;
         if (!blockState.isAir() && !snow) return MobSpawn.Never;
 
-        if (!isValidSpawnBlock(mc.world.getBlockState(blockPos.down()))) return MobSpawn.Never;
+        if (!SectionOccupancy.is(blockPos.getX(), blockPos.getY() - 1, blockPos.getZ(), SectionOccupancy.SPAWN_SURFACE)) return MobSpawn.Never;
 
         if (mc.world.getLightLevel(LightType.BLOCK, blockPos) > spawnLightLimit) return MobSpawn.Never;
         else if (mc.world.getLightLevel(LightType.SKY, blockPos) > spawnLightLimit) return  MobSpawn.Potential;
@@ -0,0 +1,254 @@
+/*
+ * This file is part of the Meteor Client distribution (https://github.com/MeteorDevelopment/meteor-client).
+ * Copyright (c) Meteor Development.
+ */
+
+package meteordevelopment.meteorclient.utils.world;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2IntMap;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+import meteordevelopment.meteorclient.MeteorClient;
+import meteordevelopment.meteorclient.events.game.GameLeftEvent;
+import meteordevelopment.meteorclient.events.world.BlockUpdateEvent;
+import meteordevelopment.meteorclient.events.world.ChunkDataEvent;
+import meteordevelopment.meteorclient.events.world.TickEvent;
+import meteordevelopment.meteorclient.mixin.AbstractBlockAccessor;
+import meteordevelopment.meteorclient.utils.PreInit;
+import meteordevelopment.orbit.EventHandler;
+import meteordevelopment.orbit.EventPriority;
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
+import net.minecraft.client.world.ClientWorld;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkSectionPos;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.ChunkSection;
+import net.minecraft.world.chunk.ChunkStatus;
+
+import java.util.Arrays;
+
+import static meteordevelopment.meteorclient.MeteorClient.mc;
+
+/**
+ * Section local bitmaps of block facts that only depend on the block state, shared by the modules scanning the world
+ * around the player. A section is filled from its {@link ChunkSection} the first time it is queried, single blocks are
+ * updated in place from {@link BlockUpdateEvent} and whole chunks are dropped when a {@link ChunkDataEvent} replaces
+ * them. Only to be used from the client thread.
+ */
+public class SectionOccupancy {
+    /** {@link BlockState#isAir()} */
+    public static final int AIR = 0;
+    /** The block has collision, same as {@link AbstractBlockAccessor#meteor$isCollidable()}. */
+    public static final int COLLIDABLE = 1;
+    /** Negative hardness, eg. bedrock or barriers. */
+    public static final int UNBREAKABLE = 2;
+    /** Blast resistance of at least 600, eg. obsidian or bedrock. */
+    public static final int BLAST_PROOF = 3;
+    /** {@link BlockState#isReplaceable()} */
+    public static final int REPLACEABLE = 4;
+    /** The block is {@link Blocks#BEDROCK} itself. */
+    public static final int BEDROCK = 5;
+    /** Mobs can spawn on top of the block, see {@link BlockUtils#isValidSpawnBlock(BlockState)}. */
+    public static final int SPAWN_SURFACE = 6;
+
+    private static final int FLAGS = 7;
+    private static final int WORDS = 4096 / 64;
+
+    private static final Long2ObjectMap<Section> sections = new Long2ObjectOpenHashMap<>();
+    private static final Reference2IntMap<BlockState> stateFlags = new Reference2IntOpenHashMap<>();
+
+    // The game creates a new world on every dimension change or rejoin, sections of the previous one are dropped
+    private static ClientWorld world;
+
+    private static int timer;
+
+    private SectionOccupancy() {
+    }
+
+    @PreInit
+    public static void init() {
+        MeteorClient.EVENT_BUS.subscribe(SectionOccupancy.class);
+    }
+
+    // Events
+
+    @EventHandler(priority = EventPriority.HIGHEST + 1)
+    private static void onBlockUpdate(BlockUpdateEvent event) {
+        BlockPos pos = event.pos;
+
+        Section section = sections.get(ChunkSectionPos.asLong(pos.getX() >> 4, pos.getY() >> 4, pos.getZ() >> 4));
+        if (section != null) section.set(index(pos.getX(), pos.getY(), pos.getZ()), flags(event.newState));
+    }
+
+    @EventHandler(priority = EventPriority.HIGHEST + 1)
+    private static void onChunkData(ChunkDataEvent event) {
+        int cx = event.chunk().getPos().x;
+        int cz = event.chunk().getPos().z;
+
+        sections.values().removeIf(section -> section.x == cx && section.z == cz);
+    }
+
+    @EventHandler
+    private static void onTick(TickEvent.Post event) {
+        if (mc.world == null || ++timer < 20) return;
+        timer = 0;
+
+        // Chunks are unloaded without an event
+        sections.values().removeIf(section -> !mc.world.getChunkManager().isChunkLoaded(section.x, section.z));
+    }
+
+    @EventHandler
+    private static void onGameLeft(GameLeftEvent event) {
+        sections.clear();
+        world = null;
+    }
+
+    // Queries
+
+    /** Whether the block at the position has the given fact, one of the constants of this class. */
+    public static boolean is(BlockPos pos, int flag) {
+        return is(pos.getX(), pos.getY(), pos.getZ(), flag);
+    }
+
+    public static boolean is(int x, int y, int z, int flag) {
+        Section section = getSection(x, y, z);
+        if (section == null) return (flags(Blocks.VOID_AIR.getDefaultState()) & (1 << flag)) != 0;
+
+        return section.get(index(x, y, z), flag);
+    }
+
+    public static boolean isAir(BlockPos pos) {
+        return is(pos, AIR);
+    }
+
+    public static boolean isCollidable(BlockPos pos) {
+        return is(pos, COLLIDABLE);
+    }
+
+    public static boolean isReplaceable(BlockPos pos) {
+        return is(pos, REPLACEABLE);
+    }
+
+    public static boolean isBlastProof(BlockPos pos) {
+        return is(pos, BLAST_PROOF);
+    }
+
+    public static boolean isUnbreakable(BlockPos pos) {
+        return is(pos, UNBREAKABLE);
+    }
+
+    /** Collidable and unbreakable, the blocks counted as bedrock by hole checks. */
+    public static boolean isBedrockLike(BlockPos pos) {
+        Section section = getSection(pos.getX(), pos.getY(), pos.getZ());
+        if (section == null) return false;
+
+        int index = index(pos.getX(), pos.getY(), pos.getZ());
+        return section.get(index, COLLIDABLE) && section.get(index, UNBREAKABLE);
+    }
+
+    /** Blast proof and breakable, the blocks counted as obsidian by hole checks. */
+    public static boolean isObsidianLike(BlockPos pos) {
+        Section section = getSection(pos.getX(), pos.getY(), pos.getZ());
+        if (section == null) return false;
+
+        int index = index(pos.getX(), pos.getY(), pos.getZ());
+        return section.get(index, BLAST_PROOF) && !section.get(index, UNBREAKABLE);
+    }
+
+    // Sections
+
+    private static Section getSection(int x, int y, int z) {
+        if (mc.world == null || y < mc.world.getBottomY() || y > mc.world.getTopYInclusive()) return null;
+
+        if (mc.world != world) {
+            sections.clear();
+            world = mc.world;
+        }
+
+        long key = ChunkSectionPos.asLong(x >> 4, y >> 4, z >> 4);
+
+        Section section = sections.get(key);
+        if (section != null) return section;
+
+        // Missing chunks are not cached, they are looked up again once they arrive
+        Chunk chunk = mc.world.getChunk(x >> 4, z >> 4, ChunkStatus.FULL, false);
+        if (chunk == null) return null;
+
+        section = new Section(x >> 4, z >> 4);
+        section.fill(chunk.getSection(chunk.getSectionIndex(y)));
+
+        sections.put(key, section);
+        return section;
+    }
+
+    private static int flags(BlockState state) {
+        int flags = stateFlags.getOrDefault(state, -1);
+        if (flags != -1) return flags;
+
+        Block block = state.getBlock();
+        flags = 0;
+
+        if (state.isAir()) flags |= 1 << AIR;
+        if (((AbstractBlockAccessor) block).meteor$isCollidable()) flags |= 1 << COLLIDABLE;
+        if (block.getHardness() < 0) flags |= 1 << UNBREAKABLE;
+        if (block.getBlastResistance() >= 600) flags |= 1 << BLAST_PROOF;
+        if (state.isReplaceable()) flags |= 1 << REPLACEABLE;
+        if (block == Blocks.BEDROCK) flags |= 1 << BEDROCK;
+        if (BlockUtils.isValidSpawnBlock(state)) flags |= 1 << SPAWN_SURFACE;
+
+        stateFlags.put(state, flags);
+        return flags;
+    }
+
+    private static int index(int x, int y, int z) {
+        return (y & 15) << 8 | (z & 15) << 4 | (x & 15);
+    }
+
+    private static class Section {
+        // Bitmap of every flag one after another
+        private final long[] bits = new long[FLAGS * WORDS];
+        private final int x, z;
+
+        public Section(int x, int z) {
+            this.x = x;
+            this.z = z;
+        }
+
+        public void fill(ChunkSection section) {
+            if (section.isEmpty()) {
+                int flags = flags(Blocks.AIR.getDefaultState());
+
+                for (int flag = 0; flag < FLAGS; flag++) {
+                    if ((flags & (1 << flag)) != 0) Arrays.fill(bits, flag * WORDS, (flag + 1) * WORDS, -1L);
+                }
+
+                return;
+            }
+
+            for (int y = 0; y < 16; y++) {
+                for (int z = 0; z < 16; z++) {
+                    for (int x = 0; x < 16; x++) {
+                        set(y << 8 | z << 4 | x, flags(section.getBlockState(x, y, z)));
+                    }
+                }
+            }
+        }
+
+        public boolean get(int index, int flag) {
+            return (bits[flag * WORDS + (index >> 6)] & (1L << (index & 63))) != 0;
+        }
+
+        public void set(int index, int flags) {
+            int word = index >> 6;
+            long bit = 1L << (index & 63);
+
+            for (int flag = 0; flag < FLAGS; flag++) {
+                if ((flags & (1 << flag)) != 0) bits[flag * WORDS + word] |= bit;
+                else bits[flag * WORDS + word] &= ~bit;
+            }
+        }
+    }
+}
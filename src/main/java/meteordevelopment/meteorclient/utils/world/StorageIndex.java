@@ -0,0 +1,156 @@
+/*
+ * This file is part of the Meteor Client distribution (https://github.com/MeteorDevelopment/meteor-client).
+ * Copyright (c) Meteor Development.
+ */
+
+package meteordevelopment.meteorclient.utils.world;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectMap;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
+import meteordevelopment.meteorclient.MeteorClient;
+import meteordevelopment.meteorclient.events.game.GameLeftEvent;
+import meteordevelopment.meteorclient.events.world.BlockUpdateEvent;
+import meteordevelopment.meteorclient.events.world.ChunkDataEvent;
+import meteordevelopment.meteorclient.settings.StorageBlockListSetting;
+import meteordevelopment.meteorclient.utils.PreInit;
+import meteordevelopment.meteorclient.utils.render.NametagUtils;
+import meteordevelopment.orbit.EventHandler;
+import net.minecraft.block.entity.BlockEntity;
+import net.minecraft.block.entity.BlockEntityType;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.chunk.ChunkStatus;
+import net.minecraft.world.chunk.WorldChunk;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+import static meteordevelopment.meteorclient.MeteorClient.mc;
+
+/**
+ * Storage block entities of the loaded chunks, grouped per chunk by {@link StorageBlockListSetting#STORAGE_BLOCKS}
+ * type. Chunks are indexed when their data arrives and single blocks are updated from {@link BlockUpdateEvent}, a
+ * chunk that was unloaded or replaced is dropped the next time it is iterated.
+ */
+public class StorageIndex {
+    private static final Set<BlockEntityType<?>> TYPES = new ReferenceOpenHashSet<>(Arrays.asList(StorageBlockListSetting.STORAGE_BLOCKS));
+
+    private static final Long2ObjectMap<StorageChunk> chunks = new Long2ObjectOpenHashMap<>();
+
+    private StorageIndex() {
+    }
+
+    @PreInit
+    public static void init() {
+        MeteorClient.EVENT_BUS.subscribe(StorageIndex.class);
+    }
+
+    @EventHandler
+    private static void onChunkData(ChunkDataEvent event) {
+        WorldChunk chunk = event.chunk();
+        StorageChunk storage = null;
+
+        for (BlockEntity blockEntity : chunk.getBlockEntities().values()) {
+            if (!TYPES.contains(blockEntity.getType())) continue;
+
+            if (storage == null) storage = new StorageChunk(chunk);
+            storage.add(blockEntity);
+        }
+
+        if (storage != null) chunks.put(chunk.getPos().toLong(), storage);
+        else chunks.remove(chunk.getPos().toLong());
+    }
+
+    @EventHandler
+    private static void onBlockUpdate(BlockUpdateEvent event) {
+        // The old state is null if the block did not change
+        if (event.oldState == null || (!event.oldState.hasBlockEntity() && !event.newState.hasBlockEntity())) return;
+
+        BlockPos pos = event.pos;
+        long key = ChunkPos.toLong(pos.getX() >> 4, pos.getZ() >> 4);
+
+        StorageChunk storage = chunks.get(key);
+        if (storage != null) storage.remove(pos);
+
+        if (!(mc.world.getChunk(pos.getX() >> 4, pos.getZ() >> 4, ChunkStatus.FULL, false) instanceof WorldChunk chunk)) return;
+
+        BlockEntity blockEntity = chunk.getBlockEntity(pos, WorldChunk.CreationType.CHECK);
+        if (blockEntity == null || !TYPES.contains(blockEntity.getType())) return;
+
+        if (storage == null || storage.chunk != chunk) {
+            storage = new StorageChunk(chunk);
+            chunks.put(key, storage);
+        }
+
+        storage.add(blockEntity);
+    }
+
+    @EventHandler
+    private static void onGameLeft(GameLeftEvent event) {
+        chunks.clear();
+    }
+
+    /**
+     * Calls the consumer with the block entities of every type in {@code types}, one chunk at a time. With {@code cull}
+     * chunks outside the view frustum are skipped, which is only valid while rendering.
+     */
+    public static void forEach(Collection<BlockEntityType<?>> types, boolean cull, BiConsumer<BlockEntityType<?>, Collection<BlockEntity>> consumer) {
+        if (mc.world == null) return;
+
+        for (ObjectIterator<StorageChunk> it = chunks.values().iterator(); it.hasNext();) {
+            StorageChunk storage = it.next();
+
+            // Chunks are unloaded without an event
+            if (mc.world.getChunk(storage.chunk.getPos().x, storage.chunk.getPos().z, ChunkStatus.FULL, false) != storage.chunk) {
+                it.remove();
+                continue;
+            }
+
+            if (cull && !storage.isInView()) continue;
+
+            for (Reference2ObjectMap.Entry<BlockEntityType<?>, Long2ObjectMap<BlockEntity>> entry : storage.types.reference2ObjectEntrySet()) {
+                if (!entry.getValue().isEmpty() && types.contains(entry.getKey())) consumer.accept(entry.getKey(), entry.getValue().values());
+            }
+        }
+    }
+
+    public static boolean isEmpty() {
+        return chunks.isEmpty();
+    }
+
+    private static class StorageChunk {
+        private final WorldChunk chunk;
+        private final Reference2ObjectMap<BlockEntityType<?>, Long2ObjectMap<BlockEntity>> types = new Reference2ObjectOpenHashMap<>();
+
+        // Vertical bounds of the block entities, only grow so they stay valid when one is removed
+        private int minY = Integer.MAX_VALUE, maxY = Integer.MIN_VALUE;
+
+        public StorageChunk(WorldChunk chunk) {
+            this.chunk = chunk;
+        }
+
+        public void add(BlockEntity blockEntity) {
+            types.computeIfAbsent(blockEntity.getType(), type -> new Long2ObjectOpenHashMap<>()).put(blockEntity.getPos().asLong(), blockEntity);
+
+            minY = Math.min(minY, blockEntity.getPos().getY());
+            maxY = Math.max(maxY, blockEntity.getPos().getY() + 1);
+        }
+
+        public void remove(BlockPos pos) {
+            for (Long2ObjectMap<BlockEntity> blockEntities : types.values()) blockEntities.remove(pos.asLong());
+        }
+
+        public boolean isInView() {
+            double halfHeight = (maxY - minY) / 2.0;
+            double radius = Math.sqrt(8 * 8 * 2 + halfHeight * halfHeight);
+
+            return NametagUtils.isInView(chunk.getPos().getStartX() + 8, minY + halfHeight, chunk.getPos().getStartZ() + 8, radius);
+        }
+    }
+}
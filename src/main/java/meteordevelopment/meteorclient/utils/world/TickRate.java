@@ -7,8 +7,8 @@ package meteordevelopment.meteorclient.utils.world;
 
 import meteordevelopment.meteorclient.MeteorClient;
 import meteordevelopment.meteorclient.events.game.GameJoinedEvent;
-import meteordevelopment.meteorclient.events.packets.PacketEvent;
 import meteordevelopment.meteorclient.utils.Utils;
+import meteordevelopment.meteorclient.utils.network.PacketListeners;
 import meteordevelopment.orbit.EventHandler;
 import net.minecraft.network.packet.s2c.play.WorldTimeUpdateS2CPacket;
 import net.minecraft.util.math.MathHelper;
@@ -28,17 +28,17 @@ public class TickRate {
 
     private TickRate() {
         MeteorClient.EVENT_BUS.subscribe(this);
+
+        PacketListeners.onReceive(this, WorldTimeUpdateS2CPacket.class, (event, packet) -> onTimeUpdate());
+        PacketListeners.subscribe(this);
     }
 
-    @EventHandler
-    private void onReceivePacket(PacketEvent.Receive event) {
-        if (event.packet instanceof WorldTimeUpdateS2CPacket) {
-            long now = System.currentTimeMillis();
-            float timeElapsed = (now - timeLastTimeUpdate) / 1000.0F;
-            tickRates[nextIndex] = MathHelper.clamp(20.0f / timeElapsed, 0.0f, 20.0f);
-            nextIndex = (nextIndex + 1) % tickRates.length;
-            timeLastTimeUpdate = now;
-        }
+    private void onTimeUpdate() {
+        long now = System.currentTimeMillis();
+        float timeElapsed = (now - timeLastTimeUpdate) / 1000.0F;
+        tickRates[nextIndex] = MathHelper.clamp(20.0f / timeElapsed, 0.0f, 20.0f);
+        nextIndex = (nextIndex + 1) % tickRates.length;
+        timeLastTimeUpdate = now;
     }
 
     @EventHandler